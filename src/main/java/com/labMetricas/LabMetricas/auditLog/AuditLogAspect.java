@@ -1,106 +1,148 @@
 package com.labMetricas.LabMetricas.auditLog;
 
-import com.labMetricas.LabMetricas.auditLog.model.AuditLog;
-import com.labMetricas.LabMetricas.auditLog.repository.AuditLogRepository;
-import com.labMetricas.LabMetricas.user.model.User;
-import com.labMetricas.LabMetricas.user.repository.UserRepository;
+import com.labMetricas.LabMetricas.auditLog.service.AuditLogPublisher;
+import com.labMetricas.LabMetricas.enums.TypeResponse;
+import com.labMetricas.LabMetricas.util.ResponseObject;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.Optional;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-// Deshabilitado - Los logs ahora se registran manualmente en cada servicio
-// @Aspect
-// @Component
+/**
+ * Registra la auditoría de los métodos anotados con {@link Audited}.
+ *
+ * Por cada método y clase de resultado, los getters de las propiedades declaradas se resuelven una sola vez
+ * a MethodHandle; después cada llamada sólo lee esos valores y entrega el evento a {@link AuditLogPublisher},
+ * que lo escribe en segundo plano tras el commit. El usuario sale del contexto de seguridad, sin consultar
+ * la base. Si la auditoría falla, se registra el error y la operación sigue su curso.
+ */
+@Aspect
+@Component
 public class AuditLogAspect {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogAspect.class);
 
-    @Autowired
-    private AuditLogRepository auditLogRepository;
+    // Métodos de lectura: nunca se auditan aunque lleven la anotación
+    private static final List<String> READ_PREFIXES = List.of("get", "find", "list", "search", "count", "exists", "export", "download");
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
 
     @Autowired
-    private UserRepository userRepository;
-
-    // Intercepta todos los métodos de cualquier clase en el paquete controller
-    @Pointcut("within(com.labMetricas.LabMetricas..controller..*)")
-    public void controllerMethods() {}
-
-    @AfterReturning(pointcut = "controllerMethods()", returning = "result")
-    public void logAfter(JoinPoint joinPoint, Object result) {
-        String username = getCurrentUsername();
-        String methodName = joinPoint.getSignature().getName();
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        Object[] args = joinPoint.getArgs();
-
-        // Buscar el usuario por email (username)
-        Optional<User> userOpt = userRepository.findByEmail(username);
-        User user = userOpt.orElse(null);
-
-        // Buscar si algún parámetro es un Document
-        com.labMetricas.LabMetricas.document.model.Document document = null;
-        for (Object arg : args) {
-            if (arg instanceof com.labMetricas.LabMetricas.document.model.Document) {
-                document = (com.labMetricas.LabMetricas.document.model.Document) arg;
-                break;
+    private AuditLogPublisher auditLogPublisher;
+
+    private final Map<Method, AuditPlan> plans = new ConcurrentHashMap<>();
+
+    @AfterReturning(pointcut = "@annotation(audited)", returning = "result")
+    public void audit(JoinPoint joinPoint, Audited audited, Object result) {
+        try {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            AuditPlan plan = plans.computeIfAbsent(method, m -> new AuditPlan(audited, isReadMethod(m)));
+            if (plan.readMethod()) {
+                return;
             }
-        }
+            Object source = unwrap(result);
+            if (source == null) {
+                return;
+            }
+            Accessors accessors = plan.accessors().computeIfAbsent(source.getClass(), type -> Accessors.compile(type, audited));
+
+            Map<String, Object> changes = null;
+            if (accessors.fields().length > 0) {
+                changes = new LinkedHashMap<>();
+                for (int i = 0; i < accessors.fields().length; i++) {
+                    changes.put(audited.fields()[i], read(accessors.fields()[i], source));
+                }
+            }
+            Object label = accessors.label() != null ? read(accessors.label(), source) : null;
 
-        // Mensaje personalizado
-        String message = buildCustomMessage(user != null ? user.getName() : username, methodName, className, args, result);
+            auditLogPublisher.publish(audited.action(), audited.entity(), read(accessors.id(), source),
+                label != null ? label.toString() : null, changes);
+        } catch (Exception e) {
+            logger.error("Error auditing {}", joinPoint.getSignature().toShortString(), e);
+        }
+    }
 
-        AuditLog log = new AuditLog();
-        log.setUser(user);
-        log.setAction(message);
-        log.setCreatedAt(java.time.LocalDateTime.now());
-        if (document != null) {
-            log.setDocument(document);
+    private static boolean isReadMethod(Method method) {
+        boolean read = READ_PREFIXES.stream().anyMatch(method.getName()::startsWith);
+        if (read) {
+            logger.warn("@Audited ignored on read method {}.{}", method.getDeclaringClass().getSimpleName(), method.getName());
         }
-        auditLogRepository.save(log);
+        return read;
     }
 
-    private String getCurrentUsername() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.isAuthenticated()) {
-            return authentication.getName();
+    /**
+     * Objeto del que se leen los valores: el data de una respuesta correcta, o null si la operación no tuvo éxito.
+     */
+    private static Object unwrap(Object result) {
+        if (result instanceof ResponseEntity<?> response) {
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                return null;
+            }
+            Object body = response.getBody();
+            if (body instanceof ResponseObject responseObject) {
+                return responseObject.getType() != TypeResponse.ERROR ? responseObject.getData() : null;
+            }
+            return body;
         }
-        return "ANONYMOUS";
+        return result;
     }
 
-    private String buildCustomMessage(String username, String methodName, String className, Object[] args, Object result) {
-        // Ejemplo: "Manuel agregó un equipo: EquipoDto{nombre='Microscopio'}"
-        String entity = extractEntityName(className);
-        String action = mapMethodToAction(methodName);
-        String params = Arrays.toString(args);
-        return String.format("%s %s en %s con parámetros %s", username, action, entity, params);
+    private static Object read(MethodHandle getter, Object source) {
+        try {
+            return (Object) getter.invokeExact(source);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
     }
 
-    private String extractEntityName(String className) {
-        // Quita el sufijo Controller si existe
-        if (className.endsWith("Controller")) {
-            return className.substring(0, className.length() - "Controller".length());
+    private record AuditPlan(Audited audited, boolean readMethod, Map<Class<?>, Accessors> accessors) {
+        AuditPlan(Audited audited, boolean readMethod) {
+            this(audited, readMethod, new ConcurrentHashMap<>());
         }
-        return className;
     }
 
-    private String mapMethodToAction(String methodName) {
-        // Puedes personalizar más acciones aquí
-        if (methodName.startsWith("create") || methodName.startsWith("add")) {
-            return "agregó";
-        } else if (methodName.startsWith("update") || methodName.startsWith("edit")) {
-            return "actualizó";
-        } else if (methodName.startsWith("delete") || methodName.startsWith("remove")) {
-            return "eliminó";
-        } else if (methodName.startsWith("get") || methodName.startsWith("find")) {
-            return "consultó";
+    private record Accessors(MethodHandle id, MethodHandle label, MethodHandle[] fields) {
+
+        static Accessors compile(Class<?> type, Audited audited) {
+            MethodHandle[] fields = new MethodHandle[audited.fields().length];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = getter(type, audited.fields()[i]);
+            }
+            return new Accessors(
+                getter(type, audited.id()),
+                audited.label().isEmpty() ? null : getter(type, audited.label()),
+                fields);
+        }
+
+        // Getter de JavaBean o, en records, el método con el nombre de la propiedad
+        private static MethodHandle getter(Class<?> type, String property) {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, property);
+            Method method = descriptor != null ? descriptor.getReadMethod() : null;
+            try {
+                if (method == null) {
+                    method = type.getMethod(property);
+                }
+                return MethodHandles.publicLookup().unreflect(method).asType(GETTER_TYPE);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("No public getter for '" + property + "' on " + type.getName(), e);
+            }
         }
-        return "ejecutó la acción '" + methodName + "'";
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.labMetricas.LabMetricas.auditLog;
+
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un método de servicio que modifica una entidad para que {@link AuditLogAspect} registre el evento cuando
+ * termina con éxito. Los valores se leen del objeto devuelto (o del {@code data} de un
+ * {@code ResponseEntity<ResponseObject>}) y sólo de las propiedades declaradas aquí.
+ *
+ * Para modificaciones que necesitan el estado anterior (diferencias campo a campo) se sigue usando
+ * {@code AuditLogPublisher} directamente desde el servicio.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Audited {
+
+    AuditAction action();
+
+    AuditEntityType entity();
+
+    // Propiedad con el ID de la entidad
+    String id() default "id";
+
+    // Propiedad con el nombre visible de la entidad; vacío para no registrarlo
+    String label() default "name";
+
+    // Propiedades adicionales que se guardan en changes, en este orden
+    String[] fields() default {};
+}
@@ -2,10 +2,25 @@ package com.labMetricas.LabMetricas.auditLog.controller;
 
 import com.labMetricas.LabMetricas.auditLog.model.AuditLog;
 import com.labMetricas.LabMetricas.auditLog.model.dto.AuditLogDto;
+import com.labMetricas.LabMetricas.auditLog.model.dto.AuditLogFilterDto;
+import com.labMetricas.LabMetricas.auditLog.service.AuditLogArchiveService;
 import com.labMetricas.LabMetricas.auditLog.service.AuditLogService;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
+import com.labMetricas.LabMetricas.util.CursorPageResponse;
+import com.labMetricas.LabMetricas.util.PageResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,18 +31,99 @@ public class AuditLogController {
     @Autowired
     private AuditLogService auditLogService;
 
+    @Autowired
+    private AuditLogArchiveService auditLogArchiveService;
+
+    // Listado paginado con filtros opcionales: ?userId=&userEmail=&fechaInicio=&fechaFin=&action=&page=&size=
     @GetMapping
-    public List<AuditLogDto> getAllLogs() {
-        return auditLogService.getAllLogs();
+    public PageResponse<AuditLogDto> getLogs(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            AuditLogFilterDto filter) {
+        try {
+            return auditLogService.getLogs(page, size, filter);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Modo cursor opcional: ?cursor= (vacío para la primera página)&size= con los mismos filtros del listado
+    @GetMapping(params = "cursor")
+    public CursorPageResponse<AuditLogDto> getLogsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            AuditLogFilterDto filter) {
+        try {
+            return auditLogService.getLogsByCursor(cursor, size, filter);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Historial de una entidad: /entity/PRODUCT/42?page=&size=
+    @GetMapping("/entity/{entityType}/{entityId}")
+    public PageResponse<AuditLogDto> getEntityHistory(
+            @PathVariable("entityType") AuditEntityType entityType,
+            @PathVariable("entityId") String entityId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return auditLogService.getEntityHistory(entityType, entityId, page, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @GetMapping("/user/{email}")
-    public List<AuditLogDto> getLogsByUserEmail(@PathVariable("email") String email) {
-        return auditLogService.getLogsByUserEmail(email);
+    public PageResponse<AuditLogDto> getLogsByUserEmail(
+            @PathVariable("email") String email,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return auditLogService.getLogsByUserEmail(email, page, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @GetMapping("/user/id/{userId}")
-    public List<AuditLogDto> getLogsByUserId(@PathVariable("userId") java.util.UUID userId) {
-        return auditLogService.getLogsByUserId(userId);
+    public PageResponse<AuditLogDto> getLogsByUserId(
+            @PathVariable("userId") UUID userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return auditLogService.getLogsByUserId(userId, page, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Meses archivados por la retención (yyyy-MM)
+    @GetMapping("/archives")
+    public List<String> listArchives() {
+        try {
+            return auditLogArchiveService.listArchives().stream().map(YearMonth::toString).toList();
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not list audit log archives");
+        }
+    }
+
+    // Descarga el archivo de un mes tal como está en disco (NDJSON comprimido con gzip)
+    @GetMapping("/archives/{month}")
+    public ResponseEntity<StreamingResponseBody> downloadArchive(@PathVariable("month") String month) {
+        Path file;
+        try {
+            file = auditLogArchiveService.findArchive(month)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No audit log archive for " + month));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        StreamingResponseBody body = outputStream -> Files.copy(file, outputStream);
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/gzip"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+            .body(body);
     }
-} 
\ No newline at end of file
+}
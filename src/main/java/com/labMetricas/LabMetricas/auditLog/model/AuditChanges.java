@@ -0,0 +1,62 @@
+package com.labMetricas.LabMetricas.auditLog.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Construcción del JSON de cambios de un evento de auditoría. Un campo modificado se guarda como
+ * {"antes": valor, "despues": valor}; un detalle sin estado anterior, como valor suelto.
+ */
+public final class AuditChanges {
+
+    public static final String BEFORE = "antes";
+    public static final String AFTER = "despues";
+
+    private AuditChanges() {
+    }
+
+    /**
+     * Mapa ordenado a partir de pares clave, valor (admite valores nulos, a diferencia de Map.of).
+     */
+    public static Map<String, Object> of(Object... keyValues) {
+        if (keyValues.length % 2 != 0) {
+            throw new IllegalArgumentException("keyValues must contain key/value pairs");
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            values.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return values;
+    }
+
+    public static Map<String, Object> change(Object before, Object after) {
+        Map<String, Object> change = new LinkedHashMap<>(2);
+        change.put(BEFORE, before);
+        change.put(AFTER, after);
+        return change;
+    }
+
+    /**
+     * Sólo los campos cuyo valor cambió entre las dos instantáneas, en el orden de {@code before}.
+     */
+    public static Map<String, Object> diff(Map<String, ?> before, Map<String, ?> after) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> entry : before.entrySet()) {
+            Object newValue = after.get(entry.getKey());
+            if (!Objects.equals(entry.getValue(), newValue)) {
+                changes.put(entry.getKey(), change(entry.getValue(), newValue));
+            }
+        }
+        for (Map.Entry<String, ?> entry : after.entrySet()) {
+            if (!before.containsKey(entry.getKey()) && entry.getValue() != null) {
+                changes.put(entry.getKey(), change(null, entry.getValue()));
+            }
+        }
+        return changes;
+    }
+
+    public static boolean isChange(Object value) {
+        return value instanceof Map<?, ?> map && map.size() == 2 && map.containsKey(BEFORE) && map.containsKey(AFTER);
+    }
+}
@@ -0,0 +1,37 @@
+package com.labMetricas.LabMetricas.auditLog.model;
+
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Entrada de auditoría pendiente de escribir. Lleva el ID del usuario cuando ya se conoce (principal autenticado)
+ * y si no, su email; el escritor resuelve el email a usuario en el mismo INSERT.
+ *
+ * Los eventos estructurados indican acción, entidad y cambios y dejan {@code action} nulo: el mensaje legible
+ * se genera al consultar. {@code action} queda para mensajes libres que no corresponden a una entidad.
+ */
+public record AuditEvent(String action, UUID userId, String userEmail, LocalDateTime createdAt,
+                         AuditAction actionType, AuditEntityType entityType, String entityId,
+                         String entityLabel, Map<String, Object> changes) {
+
+    public AuditEvent(String action, UUID userId, String userEmail, LocalDateTime createdAt) {
+        this(action, userId, userEmail, createdAt, null, null, null, null, null);
+    }
+
+    public static AuditEvent of(AuditAction actionType, AuditEntityType entityType, Object entityId, String entityLabel,
+                                Map<String, Object> changes, UUID userId, LocalDateTime createdAt) {
+        return new AuditEvent(null, userId, null, createdAt, actionType, entityType,
+            entityId != null ? entityId.toString() : null, entityLabel, changes);
+    }
+
+    /**
+     * Mismo evento atribuido a otro usuario (por ID o, si no se conoce, por email).
+     */
+    public AuditEvent withActor(UUID userId, String userEmail) {
+        return new AuditEvent(action, userId, userEmail, createdAt, actionType, entityType, entityId, entityLabel, changes);
+    }
+}
@@ -2,28 +2,62 @@ package com.labMetricas.LabMetricas.auditLog.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.labMetricas.LabMetricas.document.model.Document;
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
 import com.labMetricas.LabMetricas.user.model.User;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+// Tabla particionada por mes sobre created_at (ver AuditLogPartitionManager); la PK en base es (id, created_at)
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+    // Listado general y por usuario, ambos en orden (created_at DESC, id DESC)
+    @Index(name = "idx_audit_logs_created", columnList = "created_at DESC, id DESC"),
+    @Index(name = "idx_audit_logs_user_created", columnList = "user_id, created_at DESC, id DESC"),
+    // Historial de una entidad ("todos los cambios del producto 42") y filtro por tipo de acción
+    @Index(name = "idx_audit_logs_entity", columnList = "entity_type, entity_id, created_at DESC, id DESC"),
+    @Index(name = "idx_audit_logs_action_type_created", columnList = "action_type, created_at DESC, id DESC")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class AuditLog {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @Column(columnDefinition = "TEXT", nullable = false)
+    // Mensaje libre heredado; los eventos estructurados lo dejan nulo y el mensaje se genera al leer (AuditMessageRenderer)
+    @Column(columnDefinition = "TEXT")
     private String action;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action_type", length = 30)
+    private AuditAction actionType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", length = 30)
+    private AuditEntityType entityType;
+
+    @Column(name = "entity_id", length = 64)
+    private String entityId;
+
+    // Nombre de la entidad en el momento del evento (sobrevive a renombrados y borrados)
+    @Column(name = "entity_label")
+    private String entityLabel;
+
+    // Campos modificados: {"campo": {"antes": ..., "despues": ...}} o detalles sueltos {"campo": valor}
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "changes", columnDefinition = "jsonb")
+    private Map<String, Object> changes;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "document_id")
     private Document document;
@@ -0,0 +1,66 @@
+package com.labMetricas.LabMetricas.auditLog.model;
+
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Genera el mensaje legible de un evento estructurado al consultarlo, con el mismo formato que los mensajes
+ * libres anteriores: "MODIFICACIÓN DE PRODUCTO - Usuario: Ana | Producto: Paracetamol (ID: 42) | lote: A -> B".
+ */
+public final class AuditMessageRenderer {
+
+    private static final Map<AuditAction, String> ACTIONS = new EnumMap<>(Map.of(
+        AuditAction.CREATE, "CREACIÓN",
+        AuditAction.UPDATE, "MODIFICACIÓN",
+        AuditAction.DELETE, "ELIMINACIÓN",
+        AuditAction.STATUS_CHANGE, "CAMBIO DE ESTADO",
+        AuditAction.DISCOUNT, "DESCUENTO",
+        AuditAction.IMPORT, "IMPORTACIÓN MASIVA",
+        AuditAction.PASSWORD_CHANGE, "CAMBIO DE CONTRASEÑA"
+    ));
+
+    private static final Map<AuditEntityType, String> ENTITIES = new EnumMap<>(Map.of(
+        AuditEntityType.PRODUCT, "Producto",
+        AuditEntityType.STOCK_CATALOGUE, "Catálogo de stock",
+        AuditEntityType.PRODUCT_STATUS, "Estado de producto",
+        AuditEntityType.USER, "Usuario"
+    ));
+
+    private AuditMessageRenderer() {
+    }
+
+    public static String render(AuditAction actionType, AuditEntityType entityType, String entityId, String entityLabel,
+                                Map<String, Object> changes, String actorName) {
+        String entity = entityType != null ? ENTITIES.getOrDefault(entityType, entityType.name().toLowerCase()) : "Entidad";
+        StringBuilder message = new StringBuilder(128)
+            .append(actionType != null ? ACTIONS.getOrDefault(actionType, actionType.name()) : "ACCIÓN")
+            .append(" DE ").append(entity.toUpperCase())
+            .append(" - Usuario: ").append(actorName != null ? actorName : "ANONYMOUS");
+
+        if (entityLabel != null || entityId != null) {
+            message.append(" | ").append(entity).append(": ").append(entityLabel != null ? entityLabel : "N/A");
+            if (entityId != null) {
+                message.append(" (ID: ").append(entityId).append(')');
+            }
+        }
+        if (changes != null) {
+            changes.forEach((field, value) -> {
+                message.append(" | ").append(field).append(": ");
+                if (AuditChanges.isChange(value)) {
+                    Map<?, ?> change = (Map<?, ?>) value;
+                    message.append(format(change.get(AuditChanges.BEFORE))).append(" -> ").append(format(change.get(AuditChanges.AFTER)));
+                } else {
+                    message.append(format(value));
+                }
+            });
+        }
+        return message.toString();
+    }
+
+    private static String format(Object value) {
+        return value != null ? value.toString() : "N/A";
+    }
+}
@@ -1,22 +1,55 @@
 package com.labMetricas.LabMetricas.auditLog.model.dto;
 
+import com.labMetricas.LabMetricas.auditLog.model.AuditMessageRenderer;
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
+
 import java.time.LocalDateTime;
+import java.util.Map;
 
 public class AuditLogDto {
     private String action;
     private LocalDateTime createdAt;
     private String userEmail;
     private String userName;
+    private AuditAction actionType;
+    private AuditEntityType entityType;
+    private String entityId;
+    private String entityLabel;
+    private Map<String, Object> changes;
 
     public AuditLogDto(String action, LocalDateTime createdAt, String userEmail, String userName) {
+        this(action, createdAt, userEmail, userName, null, null, null, null, null);
+    }
+
+    public AuditLogDto(String action, LocalDateTime createdAt, String userEmail, String userName,
+                       AuditAction actionType, AuditEntityType entityType, String entityId,
+                       String entityLabel, Map<String, Object> changes) {
         this.action = action;
         this.createdAt = createdAt;
         this.userEmail = userEmail;
         this.userName = userName;
+        this.actionType = actionType;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.entityLabel = entityLabel;
+        this.changes = changes;
     }
 
-    public String getAction() { return action; }
+    // Los eventos estructurados no guardan mensaje: se genera sólo cuando se serializa la respuesta
+    public String getAction() {
+        if (action == null && actionType != null) {
+            action = AuditMessageRenderer.render(actionType, entityType, entityId, entityLabel, changes,
+                userName != null ? userName : userEmail);
+        }
+        return action;
+    }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public String getUserEmail() { return userEmail; }
     public String getUserName() { return userName; }
-} 
\ No newline at end of file
+    public AuditAction getActionType() { return actionType; }
+    public AuditEntityType getEntityType() { return entityType; }
+    public String getEntityId() { return entityId; }
+    public String getEntityLabel() { return entityLabel; }
+    public Map<String, Object> getChanges() { return changes; }
+}
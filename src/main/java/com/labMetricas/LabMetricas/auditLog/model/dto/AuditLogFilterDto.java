@@ -0,0 +1,42 @@
+package com.labMetricas.LabMetricas.auditLog.model.dto;
+
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Filtros opcionales del listado de auditoría. Cada campo nulo se ignora.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogFilterDto {
+
+    private UUID userId;
+
+    private String userEmail;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaInicio;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaFin;
+
+    // Prefijo del mensaje libre (por ejemplo "Se eliminó"); los eventos estructurados se filtran por actionType
+    private String action;
+
+    private AuditAction actionType;
+
+    // Historial de una entidad: se usan juntos (índice idx_audit_logs_entity)
+    private AuditEntityType entityType;
+
+    private String entityId;
+}
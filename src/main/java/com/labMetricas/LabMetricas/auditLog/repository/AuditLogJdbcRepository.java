@@ -0,0 +1,93 @@
+package com.labMetricas.LabMetricas.auditLog.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.labMetricas.LabMetricas.auditLog.model.AuditEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Escritura de auditoría por JDBC: un único INSERT de varias filas por lote.
+ */
+@Repository
+public class AuditLogJdbcRepository {
+
+    private static final String INSERT_PREFIX =
+        "INSERT INTO audit_logs (action, user_id, created_at, action_type, entity_type, entity_id, entity_label, changes) " +
+        "SELECT v.action, COALESCE(v.user_id, u.id), v.created_at, v.action_type, v.entity_type, v.entity_id, " +
+        "v.entity_label, v.changes FROM (VALUES ";
+
+    private static final String ROW =
+        "(CAST(? AS TEXT), CAST(? AS UUID), CAST(? AS VARCHAR), CAST(? AS TIMESTAMP), CAST(? AS VARCHAR), " +
+        "CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS JSONB))";
+
+    private static final int PARAMS_PER_ROW = 9;
+
+    private static final String INSERT_SUFFIX =
+        ") AS v(action, user_id, email, created_at, action_type, entity_type, entity_id, entity_label, changes) " +
+        "LEFT JOIN users u ON v.user_id IS NULL AND u.email = v.email";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Inserta los eventos en una sola sentencia. El llamador limita el tamaño del lote
+     * (cada fila usa 9 parámetros y PostgreSQL admite 65535 por sentencia).
+     */
+    public int insertBatch(List<AuditEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + INSERT_SUFFIX.length() + events.size() * (ROW.length() + 2));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[events.size() * PARAMS_PER_ROW];
+        int[] types = new int[args.length];
+        for (int i = 0; i < events.size(); i++) {
+            AuditEvent event = events.get(i);
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+            int offset = i * PARAMS_PER_ROW;
+            args[offset] = event.action();
+            types[offset] = Types.VARCHAR;
+            args[offset + 1] = event.userId();
+            types[offset + 1] = Types.OTHER;
+            args[offset + 2] = event.userEmail();
+            types[offset + 2] = Types.VARCHAR;
+            args[offset + 3] = event.createdAt() != null ? Timestamp.valueOf(event.createdAt()) : null;
+            types[offset + 3] = Types.TIMESTAMP;
+            args[offset + 4] = event.actionType() != null ? event.actionType().name() : null;
+            types[offset + 4] = Types.VARCHAR;
+            args[offset + 5] = event.entityType() != null ? event.entityType().name() : null;
+            types[offset + 5] = Types.VARCHAR;
+            args[offset + 6] = event.entityId();
+            types[offset + 6] = Types.VARCHAR;
+            args[offset + 7] = event.entityLabel();
+            types[offset + 7] = Types.VARCHAR;
+            args[offset + 8] = toJson(event);
+            types[offset + 8] = Types.VARCHAR;
+        }
+        sql.append(INSERT_SUFFIX);
+        return jdbcTemplate.update(sql.toString(), args, types);
+    }
+
+    private String toJson(AuditEvent event) {
+        if (event.changes() == null || event.changes().isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(event.changes());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize audit changes for " + event.entityType() + " " + event.entityId(), e);
+        }
+    }
+}
@@ -8,10 +8,10 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
  
 @Repository
-public interface AuditLogRepository extends JpaRepository<AuditLog, Integer> {
+public interface AuditLogRepository extends JpaRepository<AuditLog, Integer>, AuditLogRepositoryCustom {
     // Método estándar de Spring Data JPA - busca logs por usuario
     List<AuditLog> findByUser(User user);
     
     // Método estándar para buscar logs por usuario ordenados por fecha descendente
     List<AuditLog> findByUserOrderByCreatedAtDesc(User user);
-} 
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package com.labMetricas.LabMetricas.auditLog.repository;
+
+import com.labMetricas.LabMetricas.auditLog.model.AuditLog;
+import com.labMetricas.LabMetricas.auditLog.model.dto.AuditLogDto;
+import com.labMetricas.LabMetricas.auditLog.model.dto.AuditLogFilterDto;
+import com.labMetricas.LabMetricas.util.KeysetCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public interface AuditLogRepositoryCustom {
+    // Page of logs matching the filter, newest first, projected straight to the DTO (user joined in the same SELECT)
+    Page<AuditLogDto> findPage(AuditLogFilterDto filter, Pageable pageable);
+
+    // Keyset pagination over the same filters: up to limit rows strictly after the (createdAt, id) cursor
+    // (or from the start when after is null), ordered by (createdAt DESC, id DESC), user fetched, no count query
+    List<AuditLog> findKeysetPage(AuditLogFilterDto filter, KeysetCursor after, int limit);
+}
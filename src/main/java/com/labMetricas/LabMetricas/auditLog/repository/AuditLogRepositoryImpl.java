@@ -0,0 +1,129 @@
+package com.labMetricas.LabMetricas.auditLog.repository;
+
+import com.labMetricas.LabMetricas.auditLog.model.AuditLog;
+import com.labMetricas.LabMetricas.auditLog.model.dto.AuditLogDto;
+import com.labMetricas.LabMetricas.auditLog.model.dto.AuditLogFilterDto;
+import com.labMetricas.LabMetricas.user.model.User;
+import com.labMetricas.LabMetricas.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AuditLogRepositoryImpl implements AuditLogRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<AuditLogDto> findPage(AuditLogFilterDto filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<AuditLogDto> query = cb.createQuery(AuditLogDto.class);
+        Root<AuditLog> root = query.from(AuditLog.class);
+        Join<AuditLog, User> user = root.join("user", JoinType.LEFT);
+        query.select(cb.construct(AuditLogDto.class,
+                root.get("action"), root.get("createdAt"), user.get("email"), user.get("name"),
+                root.get("actionType"), root.get("entityType"), root.get("entityId"), root.get("entityLabel"),
+                root.get("changes")))
+            .where(predicates(filter, cb, root, user))
+            .orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+
+        List<AuditLogDto> content = entityManager.createQuery(query)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList();
+
+        // El conteo sólo une usuarios si se filtra por email
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<AuditLog> countRoot = countQuery.from(AuditLog.class);
+        Join<AuditLog, User> countUser = filter != null && hasText(filter.getUserEmail())
+            ? countRoot.join("user", JoinType.INNER)
+            : null;
+        countQuery.select(cb.count(countRoot)).where(predicates(filter, cb, countRoot, countUser));
+        long total = entityManager.createQuery(countQuery).getSingleResult();
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public List<AuditLog> findKeysetPage(AuditLogFilterDto filter, KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<AuditLog> query = cb.createQuery(AuditLog.class);
+        Root<AuditLog> root = query.from(AuditLog.class);
+        @SuppressWarnings("unchecked")
+        Join<AuditLog, User> user = (Join<AuditLog, User>) root.<AuditLog, User>fetch("user", JoinType.LEFT);
+
+        List<Predicate> predicates = new ArrayList<>(List.of(predicates(filter, cb, root, user)));
+        if (after != null) {
+            predicates.add(cb.or(
+                cb.lessThan(root.<LocalDateTime>get("createdAt"), after.getCreatedAt()),
+                cb.and(
+                    cb.equal(root.get("createdAt"), after.getCreatedAt()),
+                    cb.lessThan(root.<Integer>get("id"), after.getId())
+                )
+            ));
+        }
+        query.select(root)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    private static Predicate[] predicates(AuditLogFilterDto filter, CriteriaBuilder cb,
+                                          Root<AuditLog> root, Join<AuditLog, User> user) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isNull(root.get("deletedAt")));
+        if (filter == null) {
+            return predicates.toArray(new Predicate[0]);
+        }
+        if (filter.getUserId() != null) {
+            predicates.add(cb.equal(root.get("user").get("id"), filter.getUserId()));
+        }
+        if (hasText(filter.getUserEmail()) && user != null) {
+            predicates.add(cb.equal(user.get("email"), filter.getUserEmail().trim()));
+        }
+        if (filter.getFechaInicio() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.<LocalDateTime>get("createdAt"), filter.getFechaInicio().atStartOfDay()));
+        }
+        if (filter.getFechaFin() != null) {
+            predicates.add(cb.lessThan(root.<LocalDateTime>get("createdAt"), filter.getFechaFin().plusDays(1).atStartOfDay()));
+        }
+        if (hasText(filter.getAction())) {
+            String escaped = filter.getAction().trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+            predicates.add(cb.like(root.get("action"), escaped + "%", '\\'));
+        }
+        if (filter.getActionType() != null) {
+            predicates.add(cb.equal(root.get("actionType"), filter.getActionType()));
+        }
+        if (filter.getEntityType() != null) {
+            predicates.add(cb.equal(root.get("entityType"), filter.getEntityType()));
+        }
+        if (hasText(filter.getEntityId())) {
+            predicates.add(cb.equal(root.get("entityId"), filter.getEntityId().trim()));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,171 @@
+package com.labMetricas.LabMetricas.auditLog.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.labMetricas.LabMetricas.auditLog.service.AuditLogPartitionManager.AuditLogPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archivos locales de auditoría: una partición mensual de audit_logs por archivo, en NDJSON comprimido con gzip
+ * (una fila JSON por línea, todas las columnas). Los escribe la tarea de retención antes de eliminar la partición.
+ */
+@Service
+public class AuditLogArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogArchiveService.class);
+
+    private static final Pattern ARCHIVE_NAME = Pattern.compile("audit_logs-(\\d{4}-\\d{2})\\.ndjson\\.gz");
+    private static final int FETCH_SIZE = 1000;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Path directory;
+
+    public AuditLogArchiveService(@Value("${audit.archive.dir:./data/audit-archive}") String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    /**
+     * Escribe el archivo del mes leyendo la partición con un cursor. Debe llamarse dentro de una transacción
+     * (el cursor de PostgreSQL lo requiere). El archivo sólo aparece completo y sincronizado a disco.
+     */
+    public long writeArchive(AuditLogPartition partition) throws IOException {
+        Files.createDirectories(directory);
+        Path target = archiveFile(partition.month());
+        Path tmp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        long rows;
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+                rows = writeRows(partition.name(), gzip);
+                gzip.finish();
+                gzip.flush();
+                channel.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        logger.info("Archived audit_logs partition {} to {} ({} rows)", partition.name(), target, rows);
+        return rows;
+    }
+
+    /**
+     * Meses con archivo disponible, del más antiguo al más reciente.
+     */
+    public List<YearMonth> listArchives() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .map(path -> ARCHIVE_NAME.matcher(path.getFileName().toString()))
+                .filter(Matcher::matches)
+                .map(matcher -> YearMonth.parse(matcher.group(1)))
+                .sorted()
+                .toList();
+        }
+    }
+
+    /**
+     * Archivo del mes indicado (formato yyyy-MM), si existe.
+     * Lanza IllegalArgumentException si el mes no es válido.
+     */
+    public Optional<Path> findArchive(String month) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Month must use the yyyy-MM format");
+        }
+        Path file = archiveFile(yearMonth);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private Path archiveFile(YearMonth month) {
+        return directory.resolve("audit_logs-" + month + ".ndjson.gz");
+    }
+
+    private long writeRows(String partitionName, OutputStream out) throws IOException {
+        JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        generator.setRootValueSeparator(null);
+        long[] rows = {0};
+        try {
+            jdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                        "SELECT * FROM " + partitionName + " ORDER BY created_at, id");
+                    ps.setFetchSize(FETCH_SIZE);
+                    return ps;
+                },
+                rs -> {
+                    writeRow(rs, generator);
+                    rows[0]++;
+                });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.flush();
+        return rows[0];
+    }
+
+    private static void writeRow(ResultSet rs, JsonGenerator generator) throws SQLException {
+        try {
+            ResultSetMetaData meta = rs.getMetaData();
+            generator.writeStartObject();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                generator.writeFieldName(meta.getColumnLabel(i));
+                Object value = rs.getObject(i);
+                String typeName = meta.getColumnTypeName(i);
+                if (value == null) {
+                    generator.writeNull();
+                } else if ("json".equals(typeName) || "jsonb".equals(typeName)) {
+                    generator.writeRawValue(rs.getString(i));
+                } else if (value instanceof Timestamp timestamp) {
+                    generator.writeString(timestamp.toLocalDateTime().toString());
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.toString());
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.labMetricas.LabMetricas.auditLog.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mantiene audit_logs particionada por mes (particionado declarativo de PostgreSQL, rango sobre created_at).
+ *
+ * Hibernate crea audit_logs como tabla normal; al arrancar, antes de aceptar peticiones, se convierte una sola vez
+ * en tabla particionada copiando las filas existentes. Cada día se crean por adelantado las particiones de los
+ * próximos meses; la partición por defecto sólo recibe filas fuera de rango (no debería tener ninguna).
+ */
+@Component
+public class AuditLogPartitionManager {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogPartitionManager.class);
+
+    private static final String PARENT = "audit_logs";
+    private static final Pattern PARTITION_NAME = Pattern.compile("audit_logs_y(\\d{4})m(\\d{2})");
+
+    // Cambios de esquema que ddl-auto=update no aplica (o no ve) sobre la tabla particionada; todos idempotentes
+    private static final List<String> SCHEMA_UPGRADES = List.of(
+        "ALTER TABLE " + PARENT + " ALTER COLUMN action DROP NOT NULL",
+        "ALTER TABLE " + PARENT + " ADD COLUMN IF NOT EXISTS action_type VARCHAR(30)",
+        "ALTER TABLE " + PARENT + " ADD COLUMN IF NOT EXISTS entity_type VARCHAR(30)",
+        "ALTER TABLE " + PARENT + " ADD COLUMN IF NOT EXISTS entity_id VARCHAR(64)",
+        "ALTER TABLE " + PARENT + " ADD COLUMN IF NOT EXISTS entity_label VARCHAR(255)",
+        "ALTER TABLE " + PARENT + " ADD COLUMN IF NOT EXISTS changes JSONB",
+        "CREATE INDEX IF NOT EXISTS idx_audit_logs_entity ON " + PARENT + " (entity_type, entity_id, created_at DESC, id DESC)",
+        "CREATE INDEX IF NOT EXISTS idx_audit_logs_action_type_created ON " + PARENT + " (action_type, created_at DESC, id DESC)"
+    );
+
+    public record AuditLogPartition(String name, YearMonth month) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Sólo para que el esquema de Hibernate esté creado antes de convertir la tabla
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${audit.partitions.months-ahead:2}")
+    private int monthsAhead;
+
+    @Autowired
+    public AuditLogPartitionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            if ("r".equals(relkind())) {
+                convertToPartitioned();
+            }
+            if ("p".equals(relkind())) {
+                SCHEMA_UPGRADES.forEach(jdbcTemplate::execute);
+            }
+            ensurePartitions();
+        } catch (Exception e) {
+            // La aplicación sigue funcionando sobre la tabla sin particionar
+            logger.error("Could not set up audit_logs partitioning", e);
+        }
+    }
+
+    /**
+     * Crea las particiones del mes actual y de los próximos meses si no existen.
+     */
+    @Scheduled(cron = "${audit.partitions.cron:0 10 0 * * *}")
+    public void ensurePartitions() {
+        if (!"p".equals(relkind())) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+    }
+
+    /**
+     * Particiones mensuales existentes, de la más antigua a la más reciente.
+     */
+    public List<AuditLogPartition> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass(?)", String.class, PARENT).stream()
+            .map(AuditLogPartitionManager::parse)
+            .filter(Objects::nonNull)
+            .sorted(Comparator.comparing(AuditLogPartition::month))
+            .toList();
+    }
+
+    /**
+     * Separa la partición de audit_logs y la elimina. Debe llamarse dentro de la transacción que la archivó.
+     */
+    public void detachAndDrop(AuditLogPartition partition) {
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + partition.name());
+        jdbcTemplate.execute("DROP TABLE " + partition.name());
+    }
+
+    // "r" tabla normal, "p" particionada, null si no existe
+    private String relkind() {
+        List<String> kinds = jdbcTemplate.queryForList(
+            "SELECT CAST(relkind AS TEXT) FROM pg_class WHERE oid = to_regclass(?)", String.class, PARENT);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    private void createPartition(YearMonth month) {
+        try {
+            jdbcTemplate.execute(createPartitionSql(month));
+        } catch (Exception e) {
+            // Por ejemplo si la partición por defecto ya tiene filas de ese mes
+            logger.error("Could not create audit_logs partition for {}", month, e);
+        }
+    }
+
+    private void convertToPartitioned() {
+        logger.info("Converting audit_logs to a monthly partitioned table");
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + PARENT + " IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("ALTER TABLE " + PARENT + " RENAME TO audit_logs_legacy");
+            jdbcTemplate.update("UPDATE audit_logs_legacy SET created_at = LOCALTIMESTAMP WHERE created_at IS NULL");
+
+            // LIKE copia columnas, NOT NULL y valores por defecto; la PK y los índices se crean después de borrar la tabla vieja
+            jdbcTemplate.execute("CREATE TABLE " + PARENT + " (LIKE audit_logs_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (created_at)");
+            jdbcTemplate.execute("ALTER TABLE " + PARENT + " ALTER COLUMN created_at SET NOT NULL");
+
+            LocalDate oldest = jdbcTemplate.queryForObject(
+                "SELECT CAST(MIN(created_at) AS DATE) FROM audit_logs_legacy", LocalDate.class);
+            YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+            for (YearMonth month = oldest != null ? YearMonth.from(oldest) : YearMonth.now();
+                 !month.isAfter(last); month = month.plusMonths(1)) {
+                jdbcTemplate.execute(createPartitionSql(month));
+            }
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS audit_logs_default PARTITION OF " + PARENT + " DEFAULT");
+
+            int copied = jdbcTemplate.update("INSERT INTO " + PARENT + " SELECT * FROM audit_logs_legacy");
+            jdbcTemplate.execute("DROP TABLE audit_logs_legacy");
+
+            // El ID deja de ser IDENTITY: una secuencia propia conserva la numeración
+            jdbcTemplate.execute("ALTER TABLE " + PARENT + " ADD CONSTRAINT audit_logs_pkey PRIMARY KEY (id, created_at)");
+            jdbcTemplate.execute("CREATE SEQUENCE audit_logs_id_seq OWNED BY " + PARENT + ".id");
+            jdbcTemplate.execute("SELECT setval('audit_logs_id_seq', COALESCE((SELECT MAX(id) FROM " + PARENT + "), 0) + 1, false)");
+            jdbcTemplate.execute("ALTER TABLE " + PARENT + " ALTER COLUMN id SET DEFAULT nextval('audit_logs_id_seq')");
+
+            // Mismos nombres que los @Index de AuditLog
+            jdbcTemplate.execute("CREATE INDEX idx_audit_logs_created ON " + PARENT + " (created_at DESC, id DESC)");
+            jdbcTemplate.execute("CREATE INDEX idx_audit_logs_user_created ON " + PARENT + " (user_id, created_at DESC, id DESC)");
+            jdbcTemplate.execute("CREATE INDEX idx_audit_logs_entity ON " + PARENT + " (entity_type, entity_id, created_at DESC, id DESC)");
+            jdbcTemplate.execute("CREATE INDEX idx_audit_logs_action_type_created ON " + PARENT + " (action_type, created_at DESC, id DESC)");
+
+            logger.info("audit_logs partitioned ({} rows copied)", copied);
+        });
+    }
+
+    static String createPartitionSql(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + PARENT +
+            " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("audit_logs_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    static AuditLogPartition parse(String name) {
+        Matcher matcher = PARTITION_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new AuditLogPartition(name, YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+    }
+}
@@ -0,0 +1,214 @@
+package com.labMetricas.LabMetricas.auditLog.service;
+
+import com.labMetricas.LabMetricas.auditLog.model.AuditEvent;
+import com.labMetricas.LabMetricas.auditLog.repository.AuditLogJdbcRepository;
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
+import com.labMetricas.LabMetricas.user.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Punto único para registrar auditoría fuera del camino de la petición.
+ *
+ * Los eventos se encolan al confirmar la transacción en curso (o de inmediato si no hay ninguna), así una
+ * operación revertida no deja auditoría y el negocio no espera al INSERT. Un hilo escritor vacía la cola
+ * en INSERT de varias filas. Si la cola está llena, quien publica espera un momento (contrapresión) y,
+ * si sigue llena, escribe su evento directamente para no perderlo. Al apagar se vacía lo pendiente.
+ *
+ * Toda escritura va en una transacción propia (REQUIRES_NEW): en afterCommit la conexión de la transacción ya
+ * confirmada sigue ligada al hilo y un INSERT sin transacción nueva se uniría a ella y nunca se confirmaría.
+ */
+@Component
+public class AuditLogPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogPublisher.class);
+
+    @Autowired
+    private AuditLogJdbcRepository auditLogJdbcRepository;
+
+    private final BlockingQueue<AuditEvent> queue;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final TransactionTemplate writeTransaction;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditLogPublisher(@Value("${audit.queue.capacity:10000}") int capacity,
+                             @Value("${audit.writer.batch-size:500}") int batchSize,
+                             @Value("${audit.queue.offer-timeout-ms:200}") long offerTimeoutMs,
+                             PlatformTransactionManager transactionManager) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Registra una acción del usuario autenticado en el contexto de seguridad actual.
+     */
+    public void publish(String action) {
+        publish(withCurrentActor(new AuditEvent(action, null, null, LocalDateTime.now())));
+    }
+
+    /**
+     * Registra una acción de un usuario ya cargado (o anónima si es null).
+     */
+    public void publish(String action, User actor) {
+        publish(new AuditEvent(action, actor != null ? actor.getId() : null, null, LocalDateTime.now()));
+    }
+
+    /**
+     * Registra un evento estructurado sobre una entidad, atribuido al usuario autenticado.
+     */
+    public void publish(AuditAction actionType, AuditEntityType entityType, Object entityId, String entityLabel,
+                        Map<String, Object> changes) {
+        publish(withCurrentActor(AuditEvent.of(actionType, entityType, entityId, entityLabel, changes, null, LocalDateTime.now())));
+    }
+
+    /**
+     * Registra un evento estructurado sobre una entidad, atribuido a un usuario ya cargado (o anónimo si es null).
+     */
+    public void publish(AuditAction actionType, AuditEntityType entityType, Object entityId, String entityLabel,
+                        Map<String, Object> changes, User actor) {
+        publish(AuditEvent.of(actionType, entityType, entityId, entityLabel, changes,
+            actor != null ? actor.getId() : null, LocalDateTime.now()));
+    }
+
+    public void publish(AuditEvent event) {
+        publishAll(List.of(event));
+    }
+
+    public void publishAll(List<AuditEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(events);
+                }
+            });
+        } else {
+            enqueue(events);
+        }
+    }
+
+    /**
+     * Atribuye el evento al principal autenticado: por ID si es un User ya cargado, si no por email.
+     */
+    public static AuditEvent withCurrentActor(AuditEvent event) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return event;
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return event.withActor(user.getId(), null);
+        }
+        return event.withActor(null, authentication.getName());
+    }
+
+    private void enqueue(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            boolean queued = false;
+            if (running) {
+                try {
+                    queued = queue.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (!queued && running) {
+                    logger.warn("Audit queue full ({} pending), writing event synchronously", queue.size());
+                }
+            }
+            if (!queued) {
+                flush(List.of(event));
+            }
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Lo que el escritor no alcanzó a vaciar se escribe en este hilo
+        List<AuditEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+        logger.info("Audit log writer stopped ({} events flushed on shutdown)", remaining.size());
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                AuditEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Unexpected error in audit log writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<AuditEvent> batch) {
+        try {
+            writeTransaction.executeWithoutResult(status -> auditLogJdbcRepository.insertBatch(batch));
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                logger.error("Error writing audit log: {}", batch.get(0), e);
+                return;
+            }
+            // Aislar la fila problemática sin perder el resto del lote
+            logger.warn("Audit batch of {} failed, retrying row by row: {}", batch.size(), e.getMessage());
+            for (AuditEvent event : batch) {
+                flush(List.of(event));
+            }
+        }
+    }
+}
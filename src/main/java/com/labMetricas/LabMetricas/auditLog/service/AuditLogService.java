@@ -2,68 +2,95 @@ package com.labMetricas.LabMetricas.auditLog.service;
 
 import com.labMetricas.LabMetricas.auditLog.model.AuditLog;
 import com.labMetricas.LabMetricas.auditLog.model.dto.AuditLogDto;
+import com.labMetricas.LabMetricas.auditLog.model.dto.AuditLogFilterDto;
 import com.labMetricas.LabMetricas.auditLog.repository.AuditLogRepository;
-import com.labMetricas.LabMetricas.user.model.User;
-import com.labMetricas.LabMetricas.user.repository.UserRepository;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
+import com.labMetricas.LabMetricas.util.CursorPageResponse;
+import com.labMetricas.LabMetricas.util.KeysetCursor;
+import com.labMetricas.LabMetricas.util.PageResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 @Service
 public class AuditLogService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
-    @Autowired
-    private UserRepository userRepository;
+    /**
+     * Página de logs con filtros opcionales, del más reciente al más antiguo.
+     * Lanza IllegalArgumentException si la página o el tamaño no son válidos.
+     */
+    public PageResponse<AuditLogDto> getLogs(int page, int size, AuditLogFilterDto filter) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        return new PageResponse<>(auditLogRepository.findPage(filter, PageRequest.of(page, size)));
+    }
 
-    public List<AuditLogDto> getAllLogs() {
-        return auditLogRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt")).stream()
-            .map(log -> new AuditLogDto(
-                log.getAction(),
-                log.getCreatedAt(),
-                log.getUser() != null ? log.getUser().getEmail() : null,
-                log.getUser() != null ? log.getUser().getName() : null
-            ))
-            .collect(Collectors.toList());
+    /**
+     * Historial de una entidad (por ejemplo todos los cambios del producto 42), del más reciente al más antiguo.
+     * Lanza IllegalArgumentException si la página o el tamaño no son válidos.
+     */
+    public PageResponse<AuditLogDto> getEntityHistory(AuditEntityType entityType, String entityId, int page, int size) {
+        AuditLogFilterDto filter = new AuditLogFilterDto();
+        filter.setEntityType(entityType);
+        filter.setEntityId(entityId);
+        return getLogs(page, size, filter);
     }
 
-    public List<AuditLogDto> getLogsByUserEmail(String email) {
-        Optional<User> userOpt = userRepository.findByEmail(email);
-        if (userOpt.isEmpty()) {
-            return List.of();
-        }
-        
-        User user = userOpt.get();
-        return auditLogRepository.findByUserOrderByCreatedAtDesc(user).stream()
-            .map(log -> new AuditLogDto(
-                log.getAction(),
-                log.getCreatedAt(),
-                log.getUser().getEmail(),
-                log.getUser().getName()
-            ))
-            .collect(Collectors.toList());
+    /**
+     * Página de logs por cursor (created_at, id) con los mismos filtros que {@link #getLogs};
+     * el usuario se trae en el mismo SELECT. Lanza IllegalArgumentException si el cursor no es válido.
+     */
+    public CursorPageResponse<AuditLogDto> getLogsByCursor(String cursor, int size, AuditLogFilterDto filter) {
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        int pageSize = CursorPageResponse.normalizeSize(size);
+
+        List<AuditLog> rows = auditLogRepository.findKeysetPage(filter, keysetCursor, pageSize + 1);
+
+        return CursorPageResponse.of(
+            rows, pageSize,
+            log -> new KeysetCursor(log.getCreatedAt(), log.getId()),
+            AuditLogService::toDto
+        );
     }
-    
-    public List<AuditLogDto> getLogsByUserId(java.util.UUID userId) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) {
-            return List.of();
-        }
-        
-        User user = userOpt.get();
-        return auditLogRepository.findByUserOrderByCreatedAtDesc(user).stream()
-            .map(log -> new AuditLogDto(
-                log.getAction(),
-                log.getCreatedAt(),
-                log.getUser().getEmail(),
-                log.getUser().getName()
-            ))
-            .collect(Collectors.toList());
+
+    /**
+     * Página de logs de un usuario por email; un email sin logs devuelve una página vacía.
+     */
+    public PageResponse<AuditLogDto> getLogsByUserEmail(String email, int page, int size) {
+        AuditLogFilterDto filter = new AuditLogFilterDto();
+        filter.setUserEmail(email);
+        return getLogs(page, size, filter);
+    }
+
+    /**
+     * Página de logs de un usuario por ID; un ID sin logs devuelve una página vacía.
+     */
+    public PageResponse<AuditLogDto> getLogsByUserId(UUID userId, int page, int size) {
+        AuditLogFilterDto filter = new AuditLogFilterDto();
+        filter.setUserId(userId);
+        return getLogs(page, size, filter);
+    }
+
+    private static AuditLogDto toDto(AuditLog log) {
+        return new AuditLogDto(
+            log.getAction(),
+            log.getCreatedAt(),
+            log.getUser() != null ? log.getUser().getEmail() : null,
+            log.getUser() != null ? log.getUser().getName() : null,
+            log.getActionType(),
+            log.getEntityType(),
+            log.getEntityId(),
+            log.getEntityLabel(),
+            log.getChanges()
+        );
     }
-} 
\ No newline at end of file
+}
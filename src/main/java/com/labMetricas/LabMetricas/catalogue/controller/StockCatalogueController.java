@@ -57,14 +57,16 @@ public class StockCatalogueController {
 
     @GetMapping
     public ResponseEntity<ResponseObject> getAllStockCatalogues(
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         
         // Log the attempt
-        logger.info("User {} attempting to retrieve all stock catalogues - search: {}", 
-            auth.getName(), search);
+        logger.info("User {} attempting to retrieve all stock catalogues - search: {}, page: {}, size: {}", 
+            auth.getName(), search, page, size);
         
-        return stockCatalogueService.getAllStockCatalogues(search);
+        return stockCatalogueService.getAllStockCatalogues(search, page, size);
     }
 
     @DeleteMapping("/{id}")
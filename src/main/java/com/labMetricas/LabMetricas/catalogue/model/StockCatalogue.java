@@ -3,10 +3,12 @@ package com.labMetricas.LabMetricas.catalogue.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.labMetricas.LabMetricas.movement.model.ProductStockMovement;
 import com.labMetricas.LabMetricas.product.model.Product;
+import com.labMetricas.LabMetricas.product.search.ProductSearchAnalysisConfigurer;
 import com.labMetricas.LabMetricas.user.model.User;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -19,6 +21,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -29,7 +33,8 @@ import java.util.List;
 @Table(name = "stock_catalogue",
     indexes = {
         @Index(name = "stock_catalogue_name_index", columnList = "name"),
-        @Index(name = "stock_catalogue_sku_index", columnList = "sku")
+        @Index(name = "stock_catalogue_sku_index", columnList = "sku"),
+        @Index(name = "stock_catalogue_created_index", columnList = "created_at DESC, id DESC")
     })
 @Getter
 @Setter
@@ -41,16 +46,18 @@ public class StockCatalogue {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @FullTextField(analyzer = ProductSearchAnalysisConfigurer.TEXTO)
     @Column(name = "name", columnDefinition = "VARCHAR(255)", nullable = false, length = 255)
     private String name;
 
+    @KeywordField(normalizer = ProductSearchAnalysisConfigurer.MINUSCULAS)
     @Column(name = "sku", columnDefinition = "VARCHAR(100)", unique = true, length = 100)
     private String sku;
 
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by_user_id", columnDefinition = "UUID")
     private User createdByUser;
 
@@ -0,0 +1,8 @@
+package com.labMetricas.LabMetricas.catalogue.model.dto;
+
+/**
+ * Fila del agregado de productos activos por catálogo y estado (un GROUP BY sobre products).
+ */
+public record CatalogueStatusTotals(Integer stockCatalogueId, Integer productStatusId, String productStatusName,
+                                    Long lotes, Long cantidadTotal) {
+}
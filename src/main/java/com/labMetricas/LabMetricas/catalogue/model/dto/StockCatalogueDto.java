@@ -10,6 +10,7 @@ import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @Getter
@@ -32,6 +33,10 @@ public class StockCatalogueDto {
     // Campos calculados desde los productos asociados
     private Integer totalProductos; // Conteo total de productos referenciados a este stock
 
+    private Long totalLotes; // Número de productos (lotes) activos del catálogo
+
+    private Map<String, Long> lotesPorEstado; // Lotes activos por nombre de estado
+
     private Boolean status; // Estado activo/inactivo
 
     private UUID createdByUserId;
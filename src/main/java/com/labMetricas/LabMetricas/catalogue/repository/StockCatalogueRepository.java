@@ -3,7 +3,10 @@ package com.labMetricas.LabMetricas.catalogue.repository;
 import com.labMetricas.LabMetricas.catalogue.model.StockCatalogue;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -43,5 +46,18 @@ public interface StockCatalogueRepository extends JpaRepository<StockCatalogue,
     
     // Find by name containing (case insensitive) and active with pagination
     Page<StockCatalogue> findByStatusTrueAndNameContainingIgnoreCase(String name, Pageable pageable);
-}
 
+    // Paginated search by name or SKU (all statuses); lower(...) LIKE '%...%' is served by the trigram
+    // indexes created in DatabaseIndexInitializer
+    @EntityGraph(attributePaths = "createdByUser")
+    @Query(value = "SELECT sc FROM StockCatalogue sc " +
+                   "WHERE lower(sc.name) LIKE :pattern ESCAPE '\\' OR lower(sc.sku) LIKE :pattern ESCAPE '\\'",
+           countQuery = "SELECT COUNT(sc) FROM StockCatalogue sc " +
+                        "WHERE lower(sc.name) LIKE :pattern ESCAPE '\\' OR lower(sc.sku) LIKE :pattern ESCAPE '\\'")
+    Page<StockCatalogue> search(@Param("pattern") String pattern, Pageable pageable);
+
+    // Unfiltered listing, fetching the creator the DTO reads
+    @Override
+    @EntityGraph(attributePaths = "createdByUser")
+    Page<StockCatalogue> findAll(Pageable pageable);
+}
@@ -1,8 +1,11 @@
 package com.labMetricas.LabMetricas.catalogue.service;
 
 import com.labMetricas.LabMetricas.catalogue.model.StockCatalogue;
+import com.labMetricas.LabMetricas.catalogue.model.dto.CatalogueStatusTotals;
 import com.labMetricas.LabMetricas.catalogue.model.dto.StockCatalogueDto;
 import com.labMetricas.LabMetricas.catalogue.repository.StockCatalogueRepository;
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
 import com.labMetricas.LabMetricas.enums.TipoMovimiento;
 import com.labMetricas.LabMetricas.enums.TypeResponse;
 import com.labMetricas.LabMetricas.movement.repository.ProductStockMovementRepository;
@@ -10,13 +13,19 @@ import com.labMetricas.LabMetricas.product.model.Product;
 import com.labMetricas.LabMetricas.product.repository.ProductRepository;
 import com.labMetricas.LabMetricas.user.model.User;
 import com.labMetricas.LabMetricas.user.repository.UserRepository;
+import com.labMetricas.LabMetricas.util.PageResponse;
 import com.labMetricas.LabMetricas.util.ResponseObject;
-import com.labMetricas.LabMetricas.auditLog.model.AuditLog;
-import com.labMetricas.LabMetricas.auditLog.repository.AuditLogRepository;
+import com.labMetricas.LabMetricas.auditLog.Audited;
+import com.labMetricas.LabMetricas.auditLog.model.AuditChanges;
+import com.labMetricas.LabMetricas.auditLog.service.AuditLogPublisher;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -25,12 +34,19 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class StockCatalogueService {
     private static final Logger logger = LoggerFactory.getLogger(StockCatalogueService.class);
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private StockCatalogueRepository stockCatalogueRepository;
 
@@ -44,35 +60,9 @@ public class StockCatalogueService {
     private ProductStockMovementRepository productStockMovementRepository;
 
     @Autowired
-    private AuditLogRepository auditLogRepository;
-
-    // Método helper para crear logs de auditoría
-    private void createAuditLog(String action) {
-        try {
-            // Obtener el usuario actual autenticado
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = null;
-            
-            if (authentication != null && authentication.isAuthenticated()) {
-                String email = authentication.getName();
-                Optional<User> userOpt = userRepository.findByEmail(email);
-                currentUser = userOpt.orElse(null);
-            }
-            
-            AuditLog auditLog = new AuditLog();
-            auditLog.setAction(action);
-            auditLog.setUser(currentUser);
-            auditLog.setCreatedAt(LocalDateTime.now());
-            auditLogRepository.save(auditLog);
-            
-            logger.debug("Audit log created: {} by user: {}", action, 
-                currentUser != null ? currentUser.getEmail() : "ANONYMOUS");
-        } catch (Exception e) {
-            logger.error("Error creating audit log: {}", action, e);
-            // No lanzar excepción para no interrumpir el flujo principal
-        }
-    }
+    private AuditLogPublisher auditLogPublisher;
 
+    @Audited(action = AuditAction.CREATE, entity = AuditEntityType.STOCK_CATALOGUE, fields = "sku")
     @Transactional
     public ResponseEntity<ResponseObject> createStockCatalogue(StockCatalogueDto stockCatalogueDto) {
         try {
@@ -104,11 +94,6 @@ public class StockCatalogueService {
 
             logger.info("Stock catalogue created successfully: {}", savedStockCatalogue.getName());
 
-            // Registrar log de auditoría
-            createAuditLog(String.format("Se agregó un catálogo de stock: %s (SKU: %s)", 
-                savedStockCatalogue.getName(), 
-                savedStockCatalogue.getSku() != null ? savedStockCatalogue.getSku() : "N/A"));
-
             return ResponseEntity.status(HttpStatus.CREATED).body(
                 new ResponseObject("Stock catalogue created successfully", responseDto, TypeResponse.SUCCESS)
             );
@@ -126,6 +111,7 @@ public class StockCatalogueService {
             // Find existing stock catalogue
             StockCatalogue existingStockCatalogue = stockCatalogueRepository.findById(stockCatalogueDto.getId())
                 .orElseThrow(() -> new RuntimeException("Stock catalogue not found"));
+            Map<String, Object> before = auditSnapshot(existingStockCatalogue);
 
             // Check if SKU is being changed and if new SKU already exists
             if (stockCatalogueDto.getSku() != null && !stockCatalogueDto.getSku().isEmpty()) {
@@ -157,8 +143,8 @@ public class StockCatalogueService {
             logger.info("Stock catalogue updated successfully: {}", updatedStockCatalogue.getName());
 
             // Registrar log de auditoría
-            createAuditLog(String.format("Se actualizó el catálogo de stock: %s (ID: %d)", 
-                updatedStockCatalogue.getName(), updatedStockCatalogue.getId()));
+            auditLogPublisher.publish(AuditAction.UPDATE, AuditEntityType.STOCK_CATALOGUE, updatedStockCatalogue.getId(),
+                updatedStockCatalogue.getName(), AuditChanges.diff(before, auditSnapshot(updatedStockCatalogue)));
 
             return ResponseEntity.ok(
                 new ResponseObject("Stock catalogue updated successfully", responseDto, TypeResponse.SUCCESS)
@@ -189,33 +175,38 @@ public class StockCatalogueService {
         }
     }
 
-    public ResponseEntity<ResponseObject> getAllStockCatalogues(String search) {
+    /**
+     * Lista paginada de catálogos (todos los estados, más recientes primero), con búsqueda opcional
+     * por nombre o SKU resuelta en la base de datos
+     */
+    public ResponseEntity<ResponseObject> getAllStockCatalogues(String search, int page, int size) {
         try {
-            java.util.List<StockCatalogue> stockCatalogues;
-
-            if (search != null && !search.trim().isEmpty()) {
-                // Search by name (all statuses)
-                stockCatalogues = stockCatalogueRepository.findAll().stream()
-                    .filter(sc -> sc.getName() != null && 
-                           sc.getName().toLowerCase().contains(search.trim().toLowerCase()))
-                    .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                    .collect(java.util.stream.Collectors.toList());
-            } else {
-                // Get all (all statuses, ordered by createdAt DESC)
-                stockCatalogues = stockCatalogueRepository.findAll().stream()
-                    .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                    .collect(java.util.stream.Collectors.toList());
+            if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
             }
-
-            // Convert to DTOs
-            java.util.List<StockCatalogueDto> dtos = stockCatalogues.stream()
-                .map(this::convertToDto)
-                .collect(java.util.stream.Collectors.toList());
+            Pageable pageable = PageRequest.of(page, size,
+                Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+
+            String pattern = toLikePattern(search);
+            Page<StockCatalogue> cataloguePage = pattern != null
+                ? stockCatalogueRepository.search(pattern, pageable)
+                : stockCatalogueRepository.findAll(pageable);
+
+            // Totales de todos los catálogos de la página en una sola consulta
+            Map<Integer, List<CatalogueStatusTotals>> totals = loadTotals(cataloguePage.getContent());
+            PageResponse<StockCatalogueDto> pageResponse = new PageResponse<>(
+                cataloguePage.map(sc -> convertToDto(sc, totals.getOrDefault(sc.getId(), List.of())))
+            );
 
             // NO registrar log de auditoría para consultas (evitar spam)
 
             return ResponseEntity.ok(
-                new ResponseObject("Stock catalogues retrieved successfully", dtos, TypeResponse.SUCCESS)
+                new ResponseObject("Stock catalogues retrieved successfully", pageResponse, TypeResponse.SUCCESS)
+            );
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid stock catalogues listing parameters: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: " + e.getMessage(), null, TypeResponse.ERROR)
             );
         } catch (Exception e) {
             logger.error("Error retrieving stock catalogues", e);
@@ -225,6 +216,33 @@ public class StockCatalogueService {
         }
     }
 
+    private static Map<String, Object> auditSnapshot(StockCatalogue stockCatalogue) {
+        return AuditChanges.of(
+            "nombre", stockCatalogue.getName(),
+            "sku", stockCatalogue.getSku(),
+            "descripcion", stockCatalogue.getDescription(),
+            "estado", statusText(stockCatalogue.getStatus()));
+    }
+
+    private static String statusText(Boolean status) {
+        return Boolean.TRUE.equals(status) ? "Activo" : "Inactivo";
+    }
+
+    /**
+     * Patrón LIKE "contiene" en minúsculas, escapando los comodines que escriba el usuario; null si no hay búsqueda
+     */
+    private static String toLikePattern(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
+        }
+        String escaped = search.trim().toLowerCase(Locale.ROOT)
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    @Audited(action = AuditAction.DELETE, entity = AuditEntityType.STOCK_CATALOGUE)
     @Transactional
     public ResponseEntity<ResponseObject> deleteStockCatalogue(Integer id) {
         try {
@@ -238,10 +256,6 @@ public class StockCatalogueService {
 
             logger.info("Stock catalogue status changed to inactive: {}", stockCatalogue.getName());
 
-            // Registrar log de auditoría
-            createAuditLog(String.format("Se eliminó el catálogo de stock: %s (ID: %d)", 
-                stockCatalogue.getName(), stockCatalogue.getId()));
-
             return ResponseEntity.ok(
                 new ResponseObject("Stock catalogue status changed to inactive successfully", convertToDto(stockCatalogue), TypeResponse.SUCCESS)
             );
@@ -269,9 +283,9 @@ public class StockCatalogueService {
                 updatedStockCatalogue.getName(), oldStatus, updatedStockCatalogue.getStatus());
 
             // Registrar log de auditoría
-            String statusText = updatedStockCatalogue.getStatus() ? "Activo" : "Inactivo";
-            createAuditLog(String.format("Se cambió el estado del catálogo de stock: %s (ID: %d) a %s", 
-                updatedStockCatalogue.getName(), updatedStockCatalogue.getId(), statusText));
+            auditLogPublisher.publish(AuditAction.STATUS_CHANGE, AuditEntityType.STOCK_CATALOGUE, updatedStockCatalogue.getId(),
+                updatedStockCatalogue.getName(),
+                AuditChanges.of("estado", AuditChanges.change(statusText(oldStatus), statusText(updatedStockCatalogue.getStatus()))));
 
             return ResponseEntity.ok(
                 new ResponseObject("Stock catalogue " + statusMessage + " successfully", 
@@ -286,32 +300,43 @@ public class StockCatalogueService {
     }
 
     /**
-     * Calcula el total de productos referenciados a este stock
+     * Totales de stock de los catálogos indicados, con una sola consulta agregada (GROUP BY catálogo y estado)
      */
-    private Integer calculateTotalProductos(StockCatalogue stockCatalogue) {
-        try {
-            var productos = productRepository.findByStockCatalogueIdAndDeletedAtIsNull(stockCatalogue.getId());
-            return productos.stream()
-                .map(p -> p.getCantidadTotal() != null ? p.getCantidadTotal() : 0)
-                .reduce(0, Integer::sum);
-        } catch (Exception e) {
-            logger.warn("Error calculating total productos for stock catalogue {}: {}", stockCatalogue.getId(), e.getMessage());
-            return 0;
+    private Map<Integer, List<CatalogueStatusTotals>> loadTotals(Collection<StockCatalogue> stockCatalogues) {
+        if (stockCatalogues.isEmpty()) {
+            return Map.of();
         }
+        List<Integer> ids = stockCatalogues.stream().map(StockCatalogue::getId).toList();
+        return productRepository.aggregateTotalsByStockCatalogueIds(ids).stream()
+            .collect(Collectors.groupingBy(CatalogueStatusTotals::stockCatalogueId));
     }
 
-    // Helper method to convert StockCatalogue to StockCatalogueDto
     private StockCatalogueDto convertToDto(StockCatalogue stockCatalogue) {
+        return convertToDto(stockCatalogue, loadTotals(List.of(stockCatalogue)).getOrDefault(stockCatalogue.getId(), List.of()));
+    }
+
+    // Helper method to convert StockCatalogue to StockCatalogueDto
+    private StockCatalogueDto convertToDto(StockCatalogue stockCatalogue, List<CatalogueStatusTotals> totals) {
         StockCatalogueDto dto = new StockCatalogueDto();
         dto.setId(stockCatalogue.getId());
         dto.setName(stockCatalogue.getName());
         dto.setSku(stockCatalogue.getSku());
         dto.setDescription(stockCatalogue.getDescription());
         
-        // Calcular conteos desde los productos asociados
-        Integer totalProductos = calculateTotalProductos(stockCatalogue);
+        // Totales desde el agregado de productos activos
+        long totalCantidad = 0;
+        long totalLotes = 0;
+        Map<String, Long> lotesPorEstado = new LinkedHashMap<>();
+        for (CatalogueStatusTotals row : totals) {
+            totalCantidad += row.cantidadTotal();
+            totalLotes += row.lotes();
+            lotesPorEstado.merge(row.productStatusName() != null ? row.productStatusName() : "Sin estado",
+                row.lotes(), Long::sum);
+        }
         
-        dto.setTotalProductos(totalProductos);
+        dto.setTotalProductos(Math.toIntExact(totalCantidad));
+        dto.setTotalLotes(totalLotes);
+        dto.setLotesPorEstado(lotesPorEstado);
         dto.setStatus(stockCatalogue.getStatus());
         
         dto.setCreatedAt(stockCatalogue.getCreatedAt());
@@ -326,4 +351,3 @@ public class StockCatalogueService {
         return dto;
     }
 }
-
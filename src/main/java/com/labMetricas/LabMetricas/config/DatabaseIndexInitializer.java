@@ -0,0 +1,126 @@
+package com.labMetricas.LabMetricas.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Crea los índices que no se pueden declarar con {@code @Index} de JPA (índices de expresión, parciales y GIN de trigramas).
+ * Se crean con CONCURRENTLY e IF NOT EXISTS, así que arrancar sobre una base ya indexada no cuesta nada
+ * y la creación inicial no bloquea escrituras. Un CREATE INDEX CONCURRENTLY fallido deja el índice como INVALID
+ * (no se usa en consultas pero sí se mantiene en cada escritura, y IF NOT EXISTS lo da por creado):
+ * se elimina con DROP INDEX CONCURRENTLY antes de reintentar.
+ */
+@Component
+public class DatabaseIndexInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseIndexInitializer.class);
+
+    private record IndexDefinition(String name, String sql, boolean requiresTrigram) {
+        static IndexDefinition of(String name, String sql) {
+            return new IndexDefinition(name, sql, false);
+        }
+
+        static IndexDefinition trigram(String name, String sql) {
+            return new IndexDefinition(name, sql, true);
+        }
+    }
+
+    private static final List<IndexDefinition> INDEXES = List.of(
+        // Búsqueda "contiene" de catálogos por nombre o SKU (lower(...) LIKE '%texto%'); sólo un índice
+        // de trigramas sirve a un patrón con comodín inicial, así que sin pg_trgm no se crea ninguno
+        IndexDefinition.trigram("idx_stock_catalogue_name_trgm",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stock_catalogue_name_trgm " +
+            "ON stock_catalogue USING gin (lower(name) gin_trgm_ops)"),
+        IndexDefinition.trigram("idx_stock_catalogue_sku_trgm",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stock_catalogue_sku_trgm " +
+            "ON stock_catalogue USING gin (lower(sku) gin_trgm_ops)"),
+        // Historial de movimientos: cada filtro de ProductStockMovementSpecifications tiene un índice parcial
+        // sobre las filas vivas que además entrega el orden (created_at DESC, id DESC) sin ordenar en memoria
+        IndexDefinition.of("idx_movements_live_created",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_movements_live_created " +
+            "ON products_stock_movements (created_at DESC, id DESC) WHERE deleted_at IS NULL"),
+        IndexDefinition.of("idx_movements_live_catalogue_tipo_created",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_movements_live_catalogue_tipo_created " +
+            "ON products_stock_movements (stock_catalogue_id, tipo, created_at DESC, id DESC) WHERE deleted_at IS NULL"),
+        IndexDefinition.of("idx_movements_live_tipo_created",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_movements_live_tipo_created " +
+            "ON products_stock_movements (tipo, created_at DESC, id DESC) WHERE deleted_at IS NULL"),
+        IndexDefinition.of("idx_movements_live_user_created",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_movements_live_user_created " +
+            "ON products_stock_movements (user_id, created_at DESC, id DESC) WHERE deleted_at IS NULL"),
+        IndexDefinition.of("idx_movements_live_referencia_created",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_movements_live_referencia_created " +
+            "ON products_stock_movements (referencia, created_at DESC, id DESC) WHERE deleted_at IS NULL")
+    );
+
+    // Índices lower(...) text_pattern_ops que se creaban sin pg_trgm: no sirven a '%texto%' y sólo encarecen escrituras
+    private static final List<String> OBSOLETE_INDEXES = List.of(
+        "idx_stock_catalogue_name_lower",
+        "idx_stock_catalogue_sku_lower"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        for (String name : OBSOLETE_INDEXES) {
+            try {
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+            } catch (Exception e) {
+                logger.warn("Could not drop obsolete index {}: {}", name, e.getMessage());
+            }
+        }
+
+        boolean trigramAvailable = enableTrigramExtension();
+        for (IndexDefinition index : INDEXES) {
+            if (index.requiresTrigram() && !trigramAvailable) {
+                logger.warn("Skipping index {}: pg_trgm is not installed, so catalogue 'contains' searches "
+                    + "will scan the table", index.name());
+                continue;
+            }
+            try {
+                dropIfInvalid(index.name());
+                // Fuera de transacción: CREATE INDEX CONCURRENTLY no se permite dentro de una
+                jdbcTemplate.execute(index.sql());
+            } catch (Exception e) {
+                logger.warn("Could not create index {}: {}", index.name(), e.getMessage());
+                // No dejar un índice INVALID hasta el próximo arranque
+                try {
+                    dropIfInvalid(index.name());
+                } catch (Exception dropError) {
+                    logger.warn("Could not drop invalid index {}: {}", index.name(), dropError.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Elimina el índice si existe y quedó marcado como no válido por un CREATE INDEX CONCURRENTLY interrumpido.
+     */
+    private void dropIfInvalid(String name) {
+        List<Boolean> valid = jdbcTemplate.queryForList(
+            "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)", Boolean.class, name);
+        if (!valid.isEmpty() && !Boolean.TRUE.equals(valid.get(0))) {
+            logger.warn("Index {} is INVALID (interrupted concurrent build), dropping it before retrying", name);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+    }
+
+    private boolean enableTrigramExtension() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            return true;
+        } catch (Exception e) {
+            // Sin permisos para la extensión: no hay índice que sirva a lower(...) LIKE '%texto%'
+            logger.warn("pg_trgm extension not available, trigram indexes will not be created: {}", e.getMessage());
+            return false;
+        }
+    }
+}
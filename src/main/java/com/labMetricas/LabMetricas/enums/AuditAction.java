@@ -0,0 +1,5 @@
+package com.labMetricas.LabMetricas.enums;
+
+public enum AuditAction {
+    CREATE, UPDATE, DELETE, STATUS_CHANGE, DISCOUNT, IMPORT, PASSWORD_CHANGE
+}
@@ -0,0 +1,5 @@
+package com.labMetricas.LabMetricas.enums;
+
+public enum AuditEntityType {
+    PRODUCT, STOCK_CATALOGUE, PRODUCT_STATUS, USER
+}
@@ -0,0 +1,6 @@
+package com.labMetricas.LabMetricas.enums;
+
+public enum TipoAlertaProducto {
+    caducidad,
+    reanalisis
+}
@@ -1,18 +1,26 @@
 package com.labMetricas.LabMetricas.movement.controller;
 
-import com.labMetricas.LabMetricas.enums.TipoMovimiento;
+import com.labMetricas.LabMetricas.movement.model.dto.MovementFilterDto;
+import com.labMetricas.LabMetricas.movement.service.MovementAnalyticsService;
+import com.labMetricas.LabMetricas.movement.service.ProductStockMovementExportService;
 import com.labMetricas.LabMetricas.movement.service.ProductStockMovementService;
+import com.labMetricas.LabMetricas.movement.service.StockBalanceService;
 import com.labMetricas.LabMetricas.util.ResponseObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/stock-movements")
@@ -21,27 +29,95 @@ public class ProductStockMovementController {
     private static final Logger logger = LoggerFactory.getLogger(ProductStockMovementController.class);
 
     private final ProductStockMovementService productStockMovementService;
+    private final ProductStockMovementExportService productStockMovementExportService;
+    private final StockBalanceService stockBalanceService;
+    private final MovementAnalyticsService movementAnalyticsService;
 
     @Autowired
-    public ProductStockMovementController(ProductStockMovementService productStockMovementService) {
+    public ProductStockMovementController(ProductStockMovementService productStockMovementService,
+                                          ProductStockMovementExportService productStockMovementExportService,
+                                          StockBalanceService stockBalanceService,
+                                          MovementAnalyticsService movementAnalyticsService) {
         this.productStockMovementService = productStockMovementService;
+        this.productStockMovementExportService = productStockMovementExportService;
+        this.stockBalanceService = stockBalanceService;
+        this.movementAnalyticsService = movementAnalyticsService;
     }
 
     @GetMapping
     public ResponseEntity<ResponseObject> getStockMovements(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) Integer stockCatalogueId,
-            @RequestParam(required = false) TipoMovimiento tipoMovimiento,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+            MovementFilterDto filter,
+            @RequestParam(required = false) String cursor) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         
         // Log the attempt
-        logger.info("User {} attempting to retrieve stock movements - page: {}, size: {}, stockCatalogueId: {}, tipo: {}, fechaInicio: {}, fechaFin: {}", 
-            auth.getName(), page, size, stockCatalogueId, tipoMovimiento, fechaInicio, fechaFin);
+        logger.info("User {} attempting to retrieve stock movements - page: {}, size: {}, stockCatalogueId: {}, tipo: {}, fechaInicio: {}, fechaFin: {}, userId: {}, referencia: {}, cursorMode: {}", 
+            auth.getName(), page, size, filter.getStockCatalogueId(), filter.getTipoMovimiento(), filter.getFechaInicio(),
+            filter.getFechaFin(), filter.getUserId(), filter.getReferencia(), cursor != null);
         
-        return productStockMovementService.getStockMovements(page, size, stockCatalogueId, tipoMovimiento, fechaInicio, fechaFin);
+        // Modo cursor opcional: ?cursor= (vacío para la primera página)
+        if (cursor != null) {
+            return productStockMovementService.getStockMovementsByCursor(cursor, size, filter);
+        }
+
+        return productStockMovementService.getStockMovements(page, size, filter);
     }
-}
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStockMovements(MovementFilterDto filter) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        logger.info("User {} exporting stock movements - stockCatalogueId: {}, tipo: {}, fechaInicio: {}, fechaFin: {}",
+            auth.getName(), filter.getStockCatalogueId(), filter.getTipoMovimiento(), filter.getFechaInicio(), filter.getFechaFin());
+
+        StreamingResponseBody body = outputStream -> productStockMovementExportService.writeCsv(filter, outputStream);
+
+        return ResponseEntity.ok()
+            .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"kardex-" + LocalDate.now() + ".csv\"")
+            .body(body);
+    }
+
+    // Saldo del kardex en un instante (por defecto, ahora)
+    @GetMapping("/balance")
+    public ResponseEntity<ResponseObject> getStockBalance(
+            @RequestParam Integer stockCatalogueId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        logger.info("User {} retrieving stock balance - stockCatalogueId: {}, at: {}", auth.getName(), stockCatalogueId, at);
+
+        return stockBalanceService.getBalanceAt(stockCatalogueId, at);
+    }
+
+    // Saldo al cierre de cada día del rango
+    @GetMapping("/balance/series")
+    public ResponseEntity<ResponseObject> getStockBalanceSeries(
+            @RequestParam Integer stockCatalogueId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        logger.info("User {} retrieving stock balance series - stockCatalogueId: {}, from: {}, to: {}",
+            auth.getName(), stockCatalogueId, from, to);
+
+        return stockBalanceService.getBalanceSeries(stockCatalogueId, from, to);
+    }
+
+    // Totales por periodo (day, week o month), tipo y catálogo para los gráficos del tablero
+    @GetMapping("/analytics")
+    public ResponseEntity<ResponseObject> getMovementAnalytics(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer stockCatalogueId) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        logger.info("User {} retrieving movement analytics - granularity: {}, from: {}, to: {}, stockCatalogueId: {}",
+            auth.getName(), granularity, from, to, stockCatalogueId);
+
+        return movementAnalyticsService.getAnalytics(granularity, from, to, stockCatalogueId);
+    }
+}
@@ -0,0 +1,58 @@
+package com.labMetricas.LabMetricas.movement.model;
+
+import com.labMetricas.LabMetricas.enums.TipoMovimiento;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Total diario de movimientos por catálogo y tipo. Lo mantiene MovementRollupJob a partir de los movimientos
+ * nuevos; las series semanales y mensuales se agregan sobre estas filas, que son pocas por catálogo y año.
+ */
+@Entity
+@Table(name = "movement_daily_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_movement_rollup_day_catalogue_tipo",
+        columnNames = {"bucket_date", "stock_catalogue_id", "tipo"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_date", nullable = false, columnDefinition = "DATE")
+    private LocalDate bucketDate;
+
+    @Column(name = "stock_catalogue_id", nullable = false)
+    private Integer stockCatalogueId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, columnDefinition = "VARCHAR(20)")
+    private TipoMovimiento tipo;
+
+    @Column(name = "movimientos", nullable = false)
+    private Long movimientos;
+
+    @Column(name = "cantidad", nullable = false, columnDefinition = "DECIMAL(14,2)", precision = 14, scale = 2)
+    private BigDecimal cantidad;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
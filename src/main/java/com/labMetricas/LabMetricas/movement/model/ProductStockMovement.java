@@ -10,8 +10,11 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -22,13 +25,26 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products_stock_movements")
+@NamedEntityGraph(
+    name = ProductStockMovement.LISTING_GRAPH,
+    attributeNodes = {
+        @NamedAttributeNode("stockCatalogue"),
+        @NamedAttributeNode("user")
+    }
+)
+@Table(name = "products_stock_movements", indexes = {
+    // Saldo puntual: movimientos de un catálogo posteriores al último snapshot
+    @Index(name = "idx_movements_catalogue_created", columnList = "stock_catalogue_id, created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductStockMovement {
 
+    // Asociaciones que lee MovementResponseDto y la exportación CSV
+    public static final String LISTING_GRAPH = "ProductStockMovement.listing";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
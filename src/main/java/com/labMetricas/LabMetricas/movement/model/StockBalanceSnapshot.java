@@ -0,0 +1,50 @@
+package com.labMetricas.LabMetricas.movement.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Saldo del kardex de un catálogo al cierre de un día (entradas y ajustes suman, salidas restan).
+ * Lo genera StockBalanceSnapshotJob una vez por día y catálogo; el saldo a cualquier instante se obtiene
+ * desde el snapshot anterior más la cola corta de movimientos posteriores.
+ */
+@Entity
+@Table(name = "stock_balance_snapshots",
+    uniqueConstraints = @UniqueConstraint(name = "uk_stock_balance_catalogue_date",
+        columnNames = {"stock_catalogue_id", "snapshot_date"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stock_catalogue_id", nullable = false)
+    private Integer stockCatalogueId;
+
+    // Saldo al final de este día (movimientos con created_at < snapshot_date + 1 día)
+    @Column(name = "snapshot_date", nullable = false, columnDefinition = "DATE")
+    private LocalDate snapshotDate;
+
+    @Column(name = "saldo", nullable = false, columnDefinition = "DECIMAL(14,2)", precision = 14, scale = 2)
+    private BigDecimal saldo;
+
+    @Column(name = "created_at", columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    private LocalDateTime createdAt;
+}
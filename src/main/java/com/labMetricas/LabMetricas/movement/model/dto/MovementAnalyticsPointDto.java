@@ -0,0 +1,25 @@
+package com.labMetricas.LabMetricas.movement.model.dto;
+
+import com.labMetricas.LabMetricas.enums.TipoMovimiento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Total de movimientos de un tipo para un catálogo dentro de un periodo (día, semana o mes).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementAnalyticsPointDto {
+    private LocalDate periodo; // Primer día del periodo
+    private Integer stockCatalogueId;
+    private TipoMovimiento tipo;
+    private Long movimientos;
+    private BigDecimal cantidad;
+}
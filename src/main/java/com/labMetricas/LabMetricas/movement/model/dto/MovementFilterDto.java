@@ -0,0 +1,35 @@
+package com.labMetricas.LabMetricas.movement.model.dto;
+
+import com.labMetricas.LabMetricas.enums.TipoMovimiento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Filtros opcionales del historial de movimientos. Cada campo nulo se ignora.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementFilterDto {
+
+    private Integer stockCatalogueId;
+
+    private TipoMovimiento tipoMovimiento;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaInicio;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaFin;
+
+    private UUID userId;
+
+    private String referencia;
+}
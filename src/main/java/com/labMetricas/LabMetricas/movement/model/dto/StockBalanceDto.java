@@ -0,0 +1,24 @@
+package com.labMetricas.LabMetricas.movement.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Saldo del kardex de un catálogo en un instante (movimientos anteriores a {@code fecha}).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBalanceDto {
+    private Integer stockCatalogueId;
+    private LocalDateTime fecha;
+    private BigDecimal saldo;
+    private LocalDate snapshotDate; // Snapshot desde el que se calculó (null si no había ninguno)
+}
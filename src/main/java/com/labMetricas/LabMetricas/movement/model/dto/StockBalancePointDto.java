@@ -0,0 +1,21 @@
+package com.labMetricas.LabMetricas.movement.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Saldo del kardex al cierre de un día.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBalancePointDto {
+    private LocalDate fecha;
+    private BigDecimal saldo;
+}
@@ -0,0 +1,111 @@
+package com.labMetricas.LabMetricas.movement.repository;
+
+import com.labMetricas.LabMetricas.enums.TipoMovimiento;
+import com.labMetricas.LabMetricas.movement.model.dto.MovementAnalyticsPointDto;
+import com.labMetricas.LabMetricas.scheduler.service.MovementRollupJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consultas SQL de la analítica de movimientos: refresco incremental de movement_daily_rollups
+ * y agregación por periodo (date_trunc) sobre los totales diarios.
+ */
+@Repository
+public class MovementRollupJdbcRepository {
+
+    // Recalcula completos los (día, catálogo) que tienen movimientos en el rango de IDs, contando sólo
+    // IDs hasta el tope: así la tabla refleja exactamente los movimientos con id <= marca de agua
+    private static final String REFRESH_ROLLUPS =
+        "INSERT INTO movement_daily_rollups (bucket_date, stock_catalogue_id, tipo, movimientos, cantidad, updated_at) " +
+        "SELECT t.dia, m.stock_catalogue_id, m.tipo, COUNT(*), SUM(m.cantidad), ? " +
+        "FROM (SELECT DISTINCT stock_catalogue_id, CAST(created_at AS DATE) AS dia " +
+        "      FROM products_stock_movements WHERE id > ? AND id <= ?) t " +
+        "JOIN products_stock_movements m ON m.stock_catalogue_id = t.stock_catalogue_id " +
+        "     AND m.created_at >= t.dia AND m.created_at < t.dia + 1 " +
+        "WHERE m.id <= ? AND m.deleted_at IS NULL " +
+        "GROUP BY t.dia, m.stock_catalogue_id, m.tipo " +
+        "ON CONFLICT (bucket_date, stock_catalogue_id, tipo) DO UPDATE " +
+        "SET movimientos = EXCLUDED.movimientos, cantidad = EXCLUDED.cantidad, updated_at = EXCLUDED.updated_at";
+
+    // Totales diarios de la tabla más la cola en vivo (IDs posteriores a la marca de agua), agrupados por periodo.
+    // La marca se lee en la misma sentencia (misma instantánea que la tabla): leída aparte, un refresco confirmado
+    // entre ambas lecturas haría que la cola en vivo volviera a sumar IDs ya incluidos en los totales
+    private static final String AGGREGATE =
+        "WITH w AS (" +
+        "  SELECT COALESCE((SELECT id_watermark FROM scheduled_job_state WHERE job_name = :jobName), 0) AS id_watermark" +
+        ") " +
+        "SELECT CAST(date_trunc(:granularity, CAST(a.dia AS TIMESTAMP)) AS DATE) AS periodo, " +
+        "       a.stock_catalogue_id, a.tipo, SUM(a.movimientos) AS movimientos, SUM(a.cantidad) AS cantidad " +
+        "FROM (" +
+        "  SELECT bucket_date AS dia, stock_catalogue_id, tipo, movimientos, cantidad " +
+        "  FROM movement_daily_rollups " +
+        "  WHERE bucket_date >= :fromDate AND bucket_date <= :toDate " +
+        "    AND (CAST(:stockCatalogueId AS INTEGER) IS NULL OR stock_catalogue_id = :stockCatalogueId) " +
+        "  UNION ALL " +
+        "  SELECT CAST(created_at AS DATE), stock_catalogue_id, tipo, COUNT(*), SUM(cantidad) " +
+        "  FROM products_stock_movements " +
+        "  WHERE id > (SELECT id_watermark FROM w) AND deleted_at IS NULL AND created_at >= :fromTime AND created_at < :toTime " +
+        "    AND (CAST(:stockCatalogueId AS INTEGER) IS NULL OR stock_catalogue_id = :stockCatalogueId) " +
+        "  GROUP BY CAST(created_at AS DATE), stock_catalogue_id, tipo" +
+        ") a " +
+        "GROUP BY 1, a.stock_catalogue_id, a.tipo " +
+        "ORDER BY 1, a.stock_catalogue_id, a.tipo";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Mayor ID de movimiento creado antes de {@code before} (0 si no hay). Los movimientos más recientes
+     * se dejan para la próxima ejecución por si alguna transacción con un ID menor aún no ha confirmado.
+     */
+    public long maxMovementIdBefore(LocalDateTime before) {
+        Long maxId = jdbcTemplate.queryForObject(
+            "SELECT MAX(id) FROM products_stock_movements WHERE created_at < ?", Long.class, Timestamp.valueOf(before));
+        return maxId != null ? maxId : 0L;
+    }
+
+    /**
+     * Refresca los totales diarios afectados por los movimientos con ID en (fromIdExclusive, toIdInclusive].
+     */
+    public int refresh(long fromIdExclusive, long toIdInclusive, LocalDateTime now) {
+        return jdbcTemplate.update(REFRESH_ROLLUPS,
+            Timestamp.valueOf(now), fromIdExclusive, toIdInclusive, toIdInclusive);
+    }
+
+    /**
+     * Totales por periodo, tipo y catálogo entre dos días (ambos incluidos).
+     *
+     * @param granularity unidad de date_trunc ("day", "week" o "month")
+     */
+    public List<MovementAnalyticsPointDto> aggregate(String granularity, LocalDate from, LocalDate to,
+                                                     Integer stockCatalogueId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("granularity", granularity, Types.VARCHAR)
+            .addValue("fromDate", from, Types.DATE)
+            .addValue("toDate", to, Types.DATE)
+            .addValue("fromTime", Timestamp.valueOf(from.atStartOfDay()), Types.TIMESTAMP)
+            .addValue("toTime", Timestamp.valueOf(to.plusDays(1).atStartOfDay()), Types.TIMESTAMP)
+            .addValue("stockCatalogueId", stockCatalogueId, Types.INTEGER)
+            .addValue("jobName", MovementRollupJob.JOB_NAME, Types.VARCHAR);
+
+        return namedParameterJdbcTemplate.query(AGGREGATE, params, (rs, rowNum) ->
+            new MovementAnalyticsPointDto(
+                rs.getObject("periodo", LocalDate.class),
+                rs.getInt("stock_catalogue_id"),
+                TipoMovimiento.valueOf(rs.getString("tipo")),
+                rs.getLong("movimientos"),
+                rs.getBigDecimal("cantidad")));
+    }
+}
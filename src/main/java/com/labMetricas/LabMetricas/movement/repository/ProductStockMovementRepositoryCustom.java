@@ -0,0 +1,17 @@
+package com.labMetricas.LabMetricas.movement.repository;
+
+import com.labMetricas.LabMetricas.movement.model.ProductStockMovement;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ProductStockMovementRepositoryCustom {
+    // Fetch at most "limit" rows matching the specification, with the listing graph and without a count query
+    List<ProductStockMovement> findSlice(Specification<ProductStockMovement> spec, Sort sort, int limit);
+
+    // Forward-only stream over every row matching the specification, read from a server-side cursor in chunks of fetchSize.
+    // Must be consumed inside a transaction and closed afterwards
+    Stream<ProductStockMovement> streamAll(Specification<ProductStockMovement> spec, Sort sort, int fetchSize);
+}
@@ -0,0 +1,55 @@
+package com.labMetricas.LabMetricas.movement.repository;
+
+import com.labMetricas.LabMetricas.movement.model.ProductStockMovement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ProductStockMovementRepositoryImpl implements ProductStockMovementRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductStockMovement> findSlice(Specification<ProductStockMovement> spec, Sort sort, int limit) {
+        TypedQuery<ProductStockMovement> typedQuery = createListingQuery(spec, sort);
+        typedQuery.setMaxResults(limit);
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public Stream<ProductStockMovement> streamAll(Specification<ProductStockMovement> spec, Sort sort, int fetchSize) {
+        TypedQuery<ProductStockMovement> typedQuery = createListingQuery(spec, sort);
+        typedQuery.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        typedQuery.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return typedQuery.getResultStream();
+    }
+
+    private TypedQuery<ProductStockMovement> createListingQuery(Specification<ProductStockMovement> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductStockMovement> query = cb.createQuery(ProductStockMovement.class);
+        Root<ProductStockMovement> root = query.from(ProductStockMovement.class);
+
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        TypedQuery<ProductStockMovement> typedQuery = entityManager.createQuery(query);
+        typedQuery.setHint("jakarta.persistence.fetchgraph",
+            entityManager.getEntityGraph(ProductStockMovement.LISTING_GRAPH));
+        return typedQuery;
+    }
+}
@@ -0,0 +1,95 @@
+package com.labMetricas.LabMetricas.movement.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Consultas SQL del saldo del kardex: generación de snapshots diarios y suma de movimientos en un intervalo.
+ * Convención de signo: entrada y ajuste suman su cantidad (el ajuste ya viene con signo), salida resta.
+ */
+@Repository
+public class StockBalanceJdbcRepository {
+
+    private static final String SIGNED_QUANTITY = "CASE WHEN tipo = 'salida' THEN -cantidad ELSE cantidad END";
+
+    // Primer snapshot: saldo completo de todos los catálogos al cierre del día
+    private static final String INSERT_FULL_SNAPSHOT =
+        "INSERT INTO stock_balance_snapshots (stock_catalogue_id, snapshot_date, saldo, created_at) " +
+        "SELECT sc.id, ?, COALESCE(SUM(CASE WHEN m.tipo = 'salida' THEN -m.cantidad ELSE m.cantidad END), 0), ? " +
+        "FROM stock_catalogue sc " +
+        "LEFT JOIN products_stock_movements m ON m.stock_catalogue_id = sc.id AND m.deleted_at IS NULL AND m.created_at < ? " +
+        "GROUP BY sc.id " +
+        "ON CONFLICT (stock_catalogue_id, snapshot_date) DO NOTHING";
+
+    // Snapshots siguientes: saldo del día anterior más los movimientos del día
+    private static final String INSERT_INCREMENTAL_SNAPSHOT =
+        "INSERT INTO stock_balance_snapshots (stock_catalogue_id, snapshot_date, saldo, created_at) " +
+        "SELECT sc.id, ?, COALESCE(prev.saldo, 0) + COALESCE(d.delta, 0), ? " +
+        "FROM stock_catalogue sc " +
+        "LEFT JOIN stock_balance_snapshots prev ON prev.stock_catalogue_id = sc.id AND prev.snapshot_date = ? " +
+        "LEFT JOIN (SELECT stock_catalogue_id, SUM(" + SIGNED_QUANTITY + ") AS delta " +
+        "           FROM products_stock_movements WHERE deleted_at IS NULL AND created_at >= ? AND created_at < ? " +
+        "           GROUP BY stock_catalogue_id) d ON d.stock_catalogue_id = sc.id " +
+        "ON CONFLICT (stock_catalogue_id, snapshot_date) DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta el snapshot del día para todos los catálogos, sumando todo el historial (sólo la primera vez).
+     */
+    public int insertFullSnapshot(LocalDate day, LocalDateTime now) {
+        return jdbcTemplate.update(INSERT_FULL_SNAPSHOT,
+            day, Timestamp.valueOf(now), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Inserta el snapshot del día para todos los catálogos a partir del snapshot del día anterior.
+     */
+    public int insertIncrementalSnapshot(LocalDate day, LocalDateTime now) {
+        return jdbcTemplate.update(INSERT_INCREMENTAL_SNAPSHOT,
+            day, Timestamp.valueOf(now), day.minusDays(1),
+            Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Suma con signo de los movimientos del catálogo en [from, to); con {@code from} null, desde el inicio.
+     */
+    public BigDecimal sumSigned(Integer stockCatalogueId, LocalDateTime from, LocalDateTime to) {
+        BigDecimal sum = from != null
+            ? jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(" + SIGNED_QUANTITY + "), 0) FROM products_stock_movements " +
+                "WHERE stock_catalogue_id = ? AND deleted_at IS NULL AND created_at >= ? AND created_at < ?",
+                BigDecimal.class, stockCatalogueId, Timestamp.valueOf(from), Timestamp.valueOf(to))
+            : jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(" + SIGNED_QUANTITY + "), 0) FROM products_stock_movements " +
+                "WHERE stock_catalogue_id = ? AND deleted_at IS NULL AND created_at < ?",
+                BigDecimal.class, stockCatalogueId, Timestamp.valueOf(to));
+        return sum != null ? sum : BigDecimal.ZERO;
+    }
+
+    /**
+     * Variación neta por día de los movimientos del catálogo entre dos días (ambos incluidos); omite los días sin movimientos.
+     */
+    public Map<LocalDate, BigDecimal> dailyDeltas(Integer stockCatalogueId, LocalDate from, LocalDate to) {
+        Map<LocalDate, BigDecimal> deltas = new LinkedHashMap<>();
+        jdbcTemplate.query(
+            "SELECT CAST(created_at AS DATE) AS dia, SUM(" + SIGNED_QUANTITY + ") AS delta " +
+            "FROM products_stock_movements " +
+            "WHERE stock_catalogue_id = ? AND deleted_at IS NULL AND created_at >= ? AND created_at < ? " +
+            "GROUP BY CAST(created_at AS DATE) ORDER BY dia",
+            rs -> {
+                deltas.put(rs.getObject("dia", LocalDate.class), rs.getBigDecimal("delta"));
+            },
+            stockCatalogueId, Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        return deltas;
+    }
+}
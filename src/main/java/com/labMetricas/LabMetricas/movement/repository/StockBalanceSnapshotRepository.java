@@ -0,0 +1,20 @@
+package com.labMetricas.LabMetricas.movement.repository;
+
+import com.labMetricas.LabMetricas.movement.model.StockBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockBalanceSnapshotRepository extends JpaRepository<StockBalanceSnapshot, Long> {
+    // Nearest snapshot closed before the given day (served by the unique (stock_catalogue_id, snapshot_date) index)
+    Optional<StockBalanceSnapshot> findFirstByStockCatalogueIdAndSnapshotDateLessThanOrderBySnapshotDateDesc(
+        Integer stockCatalogueId, LocalDate date);
+
+    // Snapshots of a catalogue within a date range, in order
+    List<StockBalanceSnapshot> findByStockCatalogueIdAndSnapshotDateBetweenOrderBySnapshotDateAsc(
+        Integer stockCatalogueId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,75 @@
+package com.labMetricas.LabMetricas.movement.service;
+
+import com.labMetricas.LabMetricas.enums.TypeResponse;
+import com.labMetricas.LabMetricas.movement.model.dto.MovementAnalyticsPointDto;
+import com.labMetricas.LabMetricas.movement.repository.MovementRollupJdbcRepository;
+import com.labMetricas.LabMetricas.util.ResponseObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Series de entradas, salidas y ajustes por día, semana o mes, calculadas en SQL sobre los totales
+ * diarios precalculados más los movimientos que el refresco todavía no incorporó.
+ */
+@Service
+public class MovementAnalyticsService {
+    private static final Logger logger = LoggerFactory.getLogger(MovementAnalyticsService.class);
+
+    // Rango máximo por granularidad, para acotar el número de puntos devueltos
+    private static final Map<String, Integer> MAX_DAYS = Map.of(
+        "day", 366,
+        "week", 5 * 366,
+        "month", 10 * 366
+    );
+
+    @Autowired
+    private MovementRollupJdbcRepository movementRollupJdbcRepository;
+
+    @Transactional(readOnly = true)
+    public ResponseEntity<ResponseObject> getAnalytics(String granularity, LocalDate from, LocalDate to, Integer stockCatalogueId) {
+        try {
+            String unit = granularity != null ? granularity.trim().toLowerCase() : "day";
+            Integer maxDays = MAX_DAYS.get(unit);
+            if (maxDays == null) {
+                throw new RuntimeException("Granularity must be one of: day, week, month");
+            }
+            if (from == null || to == null) {
+                throw new RuntimeException("Both from and to dates are required");
+            }
+            if (to.isBefore(from)) {
+                throw new RuntimeException("The to date must not be before the from date");
+            }
+            if (ChronoUnit.DAYS.between(from, to) + 1 > maxDays) {
+                throw new RuntimeException("The date range cannot exceed " + maxDays + " days for granularity " + unit);
+            }
+
+            // La marca de agua se lee dentro de la propia consulta, junto con los totales diarios
+            List<MovementAnalyticsPointDto> points =
+                movementRollupJdbcRepository.aggregate(unit, from, to, stockCatalogueId);
+
+            return ResponseEntity.ok(
+                new ResponseObject("Movement analytics retrieved successfully", points, TypeResponse.SUCCESS)
+            );
+        } catch (RuntimeException e) {
+            logger.error("Validation error retrieving movement analytics: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
+        } catch (Exception e) {
+            logger.error("Error retrieving movement analytics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                new ResponseObject("Error retrieving movement analytics", null, TypeResponse.ERROR)
+            );
+        }
+    }
+}
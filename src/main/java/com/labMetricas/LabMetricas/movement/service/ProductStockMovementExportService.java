@@ -0,0 +1,100 @@
+package com.labMetricas.LabMetricas.movement.service;
+
+import com.labMetricas.LabMetricas.movement.model.ProductStockMovement;
+import com.labMetricas.LabMetricas.movement.model.dto.MovementFilterDto;
+import com.labMetricas.LabMetricas.movement.repository.ProductStockMovementRepository;
+import com.labMetricas.LabMetricas.movement.specification.ProductStockMovementSpecifications;
+import com.labMetricas.LabMetricas.util.CsvUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación del kardex (movimientos de stock) a CSV, leída con un cursor de sólo avance
+ * y escrita directamente en la respuesta con memoria constante.
+ */
+@Service
+public class ProductStockMovementExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductStockMovementExportService.class);
+
+    private static final int CLEAR_EVERY = 500;
+
+    private static final Sort EXPORT_SORT = Sort.by("id");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductStockMovementRepository productStockMovementRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ProductStockMovementExportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public void writeCsv(MovementFilterDto filter, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CsvUtils.UTF8_BOM);
+        CsvUtils.writeRow(writer,
+            "id", "fecha", "tipo", "cantidad", "motivo", "referencia",
+            "stockCatalogueId", "catalogo", "sku", "usuario", "usuarioEmail");
+
+        long rows;
+        try {
+            rows = transactionTemplate.execute(status -> {
+                long count = 0;
+                try (Stream<ProductStockMovement> stream = productStockMovementRepository.streamAll(
+                        ProductStockMovementSpecifications.fromFilter(filter), EXPORT_SORT, CLEAR_EVERY)) {
+                    Iterator<ProductStockMovement> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        ProductStockMovement m = iterator.next();
+                        CsvUtils.writeRow(writer,
+                            m.getId(),
+                            m.getCreatedAt(),
+                            m.getTipo(),
+                            m.getCantidad(),
+                            m.getMotivo(),
+                            m.getReferencia(),
+                            m.getStockCatalogue().getId(),
+                            m.getStockCatalogue().getName(),
+                            m.getStockCatalogue().getSku(),
+                            m.getUser().getName(),
+                            m.getUser().getEmail());
+                        if (++count % CLEAR_EVERY == 0) {
+                            // Soltar las entidades ya escritas
+                            entityManager.clear();
+                            writer.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        logger.info("Stock movement export finished: {} rows", rows);
+    }
+}
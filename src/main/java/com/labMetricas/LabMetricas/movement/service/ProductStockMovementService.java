@@ -1,10 +1,13 @@
 package com.labMetricas.LabMetricas.movement.service;
 
-import com.labMetricas.LabMetricas.enums.TipoMovimiento;
 import com.labMetricas.LabMetricas.enums.TypeResponse;
 import com.labMetricas.LabMetricas.movement.model.ProductStockMovement;
+import com.labMetricas.LabMetricas.movement.model.dto.MovementFilterDto;
 import com.labMetricas.LabMetricas.movement.model.dto.MovementResponseDto;
 import com.labMetricas.LabMetricas.movement.repository.ProductStockMovementRepository;
+import com.labMetricas.LabMetricas.movement.specification.ProductStockMovementSpecifications;
+import com.labMetricas.LabMetricas.util.CursorPageResponse;
+import com.labMetricas.LabMetricas.util.KeysetCursor;
 import com.labMetricas.LabMetricas.util.PageResponse;
 import com.labMetricas.LabMetricas.util.ResponseObject;
 import org.slf4j.Logger;
@@ -14,79 +17,32 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.List;
 
 @Service
 public class ProductStockMovementService {
     private static final Logger logger = LoggerFactory.getLogger(ProductStockMovementService.class);
 
+    // Orden estable para ambos modos de paginación; coincide con los índices (..., created_at DESC, id DESC)
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+
     @Autowired
     private ProductStockMovementRepository productStockMovementRepository;
 
     /**
-     * Obtiene el historial de movimientos con filtros opcionales
+     * Obtiene el historial de movimientos con filtros opcionales combinables
      */
-    public ResponseEntity<ResponseObject> getStockMovements(
-            int page, 
-            int size, 
-            Integer stockCatalogueId, 
-            TipoMovimiento tipoMovimiento,
-            LocalDate fechaInicio,
-            LocalDate fechaFin) {
+    public ResponseEntity<ResponseObject> getStockMovements(int page, int size, MovementFilterDto filter) {
         try {
-            Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-            Page<ProductStockMovement> movementsPage;
-
-            // Convertir LocalDate a LocalDateTime para la búsqueda
-            LocalDateTime startDateTime = null;
-            LocalDateTime endDateTime = null;
-            
-            if (fechaInicio != null) {
-                startDateTime = fechaInicio.atStartOfDay();
-            }
-            if (fechaFin != null) {
-                endDateTime = fechaFin.atTime(LocalTime.MAX);
-            }
+            Pageable pageable = PageRequest.of(page, size, KEYSET_SORT);
 
-            // Aplicar filtros combinados
-            if (stockCatalogueId != null && tipoMovimiento != null && startDateTime != null && endDateTime != null) {
-                // Todos los filtros
-                movementsPage = productStockMovementRepository.findByStockCatalogueIdAndTipoAndCreatedAtBetweenAndDeletedAtIsNull(
-                    stockCatalogueId, tipoMovimiento, startDateTime, endDateTime, pageable);
-            } else if (stockCatalogueId != null && tipoMovimiento != null) {
-                // Catálogo y tipo
-                movementsPage = productStockMovementRepository.findByStockCatalogueIdAndTipoAndDeletedAtIsNull(
-                    stockCatalogueId, tipoMovimiento, pageable);
-            } else if (stockCatalogueId != null && startDateTime != null && endDateTime != null) {
-                // Catálogo y rango de fechas
-                movementsPage = productStockMovementRepository.findByStockCatalogueIdAndCreatedAtBetweenAndDeletedAtIsNull(
-                    stockCatalogueId, startDateTime, endDateTime, pageable);
-            } else if (tipoMovimiento != null && startDateTime != null && endDateTime != null) {
-                // Tipo y rango de fechas
-                movementsPage = productStockMovementRepository.findByTipoAndCreatedAtBetweenAndDeletedAtIsNull(
-                    tipoMovimiento, startDateTime, endDateTime, pageable);
-            } else if (stockCatalogueId != null) {
-                // Solo catálogo
-                movementsPage = productStockMovementRepository.findByStockCatalogueIdAndDeletedAtIsNull(
-                    stockCatalogueId, pageable);
-            } else if (tipoMovimiento != null) {
-                // Solo tipo
-                movementsPage = productStockMovementRepository.findByTipoAndDeletedAtIsNull(
-                    tipoMovimiento, pageable);
-            } else if (startDateTime != null && endDateTime != null) {
-                // Solo rango de fechas
-                movementsPage = productStockMovementRepository.findByCreatedAtBetweenAndDeletedAtIsNull(
-                    startDateTime, endDateTime, pageable);
-            } else {
-                // Sin filtros
-                movementsPage = productStockMovementRepository.findByDeletedAtIsNull(pageable);
-            }
+            Page<ProductStockMovement> movementsPage = productStockMovementRepository.findAll(
+                ProductStockMovementSpecifications.fromFilter(filter), pageable);
 
             // Convertir a DTOs
             PageResponse<MovementResponseDto> pageResponse = new PageResponse<>(
@@ -96,6 +52,11 @@ public class ProductStockMovementService {
             return ResponseEntity.ok(
                 new ResponseObject("Stock movements retrieved successfully", pageResponse, TypeResponse.SUCCESS)
             );
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid stock movements listing parameters: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
         } catch (Exception e) {
             logger.error("Error retrieving stock movements", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
@@ -104,6 +65,43 @@ public class ProductStockMovementService {
         }
     }
 
+    /**
+     * Obtiene el historial de movimientos paginando por cursor (created_at, id) sin COUNT(*)
+     */
+    public ResponseEntity<ResponseObject> getStockMovementsByCursor(String cursor, int size, MovementFilterDto filter) {
+        try {
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+            int pageSize = CursorPageResponse.normalizeSize(size);
+
+            Specification<ProductStockMovement> spec = ProductStockMovementSpecifications.fromFilter(filter);
+            if (keysetCursor != null) {
+                spec = spec.and(ProductStockMovementSpecifications.after(keysetCursor));
+            }
+
+            List<ProductStockMovement> rows = productStockMovementRepository.findSlice(spec, KEYSET_SORT, pageSize + 1);
+
+            CursorPageResponse<MovementResponseDto> pageResponse = CursorPageResponse.of(
+                rows, pageSize,
+                m -> new KeysetCursor(m.getCreatedAt(), m.getId()),
+                this::convertToResponseDto
+            );
+
+            return ResponseEntity.ok(
+                new ResponseObject("Stock movements retrieved successfully", pageResponse, TypeResponse.SUCCESS)
+            );
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid cursor for stock movements listing: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
+        } catch (Exception e) {
+            logger.error("Error retrieving stock movements by cursor", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                new ResponseObject("Error retrieving stock movements", null, TypeResponse.ERROR)
+            );
+        }
+    }
+
     /**
      * Convierte ProductStockMovement a MovementResponseDto con nombres legibles
      */
@@ -0,0 +1,162 @@
+package com.labMetricas.LabMetricas.movement.service;
+
+import com.labMetricas.LabMetricas.catalogue.repository.StockCatalogueRepository;
+import com.labMetricas.LabMetricas.enums.TypeResponse;
+import com.labMetricas.LabMetricas.movement.model.StockBalanceSnapshot;
+import com.labMetricas.LabMetricas.movement.model.dto.StockBalanceDto;
+import com.labMetricas.LabMetricas.movement.model.dto.StockBalancePointDto;
+import com.labMetricas.LabMetricas.movement.repository.StockBalanceJdbcRepository;
+import com.labMetricas.LabMetricas.movement.repository.StockBalanceSnapshotRepository;
+import com.labMetricas.LabMetricas.util.ResponseObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Saldo del kardex en cualquier instante: parte del snapshot diario más cercano y suma sólo
+ * los movimientos posteriores, en lugar de recorrer todo el historial del catálogo.
+ */
+@Service
+public class StockBalanceService {
+    private static final Logger logger = LoggerFactory.getLogger(StockBalanceService.class);
+
+    private static final int MAX_SERIES_DAYS = 366;
+
+    @Autowired
+    private StockBalanceSnapshotRepository stockBalanceSnapshotRepository;
+
+    @Autowired
+    private StockBalanceJdbcRepository stockBalanceJdbcRepository;
+
+    @Autowired
+    private StockCatalogueRepository stockCatalogueRepository;
+
+    /**
+     * Saldo del catálogo considerando los movimientos registrados antes de {@code at}
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<ResponseObject> getBalanceAt(Integer stockCatalogueId, LocalDateTime at) {
+        try {
+            validateCatalogue(stockCatalogueId);
+            LocalDateTime instant = at != null ? at : LocalDateTime.now();
+
+            return ResponseEntity.ok(
+                new ResponseObject("Stock balance retrieved successfully", balanceAt(stockCatalogueId, instant), TypeResponse.SUCCESS)
+            );
+        } catch (RuntimeException e) {
+            logger.error("Validation error retrieving stock balance: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
+        } catch (Exception e) {
+            logger.error("Error retrieving stock balance", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                new ResponseObject("Error retrieving stock balance", null, TypeResponse.ERROR)
+            );
+        }
+    }
+
+    /**
+     * Saldo al cierre de cada día entre {@code from} y {@code to} (ambos incluidos)
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<ResponseObject> getBalanceSeries(Integer stockCatalogueId, LocalDate from, LocalDate to) {
+        try {
+            validateCatalogue(stockCatalogueId);
+            if (from == null || to == null) {
+                throw new RuntimeException("Both from and to dates are required");
+            }
+            if (to.isBefore(from)) {
+                throw new RuntimeException("The to date must not be before the from date");
+            }
+            if (ChronoUnit.DAYS.between(from, to) + 1 > MAX_SERIES_DAYS) {
+                throw new RuntimeException("The date range cannot exceed " + MAX_SERIES_DAYS + " days");
+            }
+
+            return ResponseEntity.ok(
+                new ResponseObject("Stock balance series retrieved successfully", series(stockCatalogueId, from, to), TypeResponse.SUCCESS)
+            );
+        } catch (RuntimeException e) {
+            logger.error("Validation error retrieving stock balance series: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
+        } catch (Exception e) {
+            logger.error("Error retrieving stock balance series", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                new ResponseObject("Error retrieving stock balance series", null, TypeResponse.ERROR)
+            );
+        }
+    }
+
+    private void validateCatalogue(Integer stockCatalogueId) {
+        if (stockCatalogueId == null) {
+            throw new RuntimeException("Stock catalogue ID is required");
+        }
+        if (!stockCatalogueRepository.existsById(stockCatalogueId)) {
+            throw new RuntimeException("Stock catalogue not found");
+        }
+    }
+
+    /**
+     * El snapshot del día D cubre los movimientos anteriores a D+1 a las 00:00, así que el más cercano
+     * válido para {@code at} es el último con fecha anterior a la de {@code at}.
+     */
+    private StockBalanceDto balanceAt(Integer stockCatalogueId, LocalDateTime at) {
+        Optional<StockBalanceSnapshot> snapshot = stockBalanceSnapshotRepository
+            .findFirstByStockCatalogueIdAndSnapshotDateLessThanOrderBySnapshotDateDesc(stockCatalogueId, at.toLocalDate());
+
+        if (snapshot.isEmpty()) {
+            BigDecimal saldo = stockBalanceJdbcRepository.sumSigned(stockCatalogueId, null, at);
+            return new StockBalanceDto(stockCatalogueId, at, saldo, null);
+        }
+
+        LocalDate snapshotDate = snapshot.get().getSnapshotDate();
+        BigDecimal tail = stockBalanceJdbcRepository.sumSigned(stockCatalogueId, snapshotDate.plusDays(1).atStartOfDay(), at);
+        return new StockBalanceDto(stockCatalogueId, at, snapshot.get().getSaldo().add(tail), snapshotDate);
+    }
+
+    /**
+     * Usa los snapshots del rango tal cual; para los días sin snapshot (hoy, o días que la tarea aún no cerró)
+     * arrastra el saldo con las variaciones diarias, calculadas en una sola consulta.
+     */
+    private List<StockBalancePointDto> series(Integer stockCatalogueId, LocalDate from, LocalDate to) {
+        Map<LocalDate, BigDecimal> snapshots = stockBalanceSnapshotRepository
+            .findByStockCatalogueIdAndSnapshotDateBetweenOrderBySnapshotDateAsc(stockCatalogueId, from, to).stream()
+            .collect(Collectors.toMap(StockBalanceSnapshot::getSnapshotDate, StockBalanceSnapshot::getSaldo));
+
+        List<StockBalancePointDto> points = new ArrayList<>();
+        Map<LocalDate, BigDecimal> deltas = null;
+        BigDecimal saldo = null;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            BigDecimal snapshotSaldo = snapshots.get(day);
+            if (snapshotSaldo != null) {
+                saldo = snapshotSaldo;
+            } else {
+                if (deltas == null) {
+                    deltas = stockBalanceJdbcRepository.dailyDeltas(stockCatalogueId, day, to);
+                }
+                if (saldo == null) {
+                    saldo = balanceAt(stockCatalogueId, day.atStartOfDay()).getSaldo();
+                }
+                saldo = saldo.add(deltas.getOrDefault(day, BigDecimal.ZERO));
+            }
+            points.add(new StockBalancePointDto(day, saldo));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,75 @@
+package com.labMetricas.LabMetricas.movement.specification;
+
+import com.labMetricas.LabMetricas.enums.TipoMovimiento;
+import com.labMetricas.LabMetricas.movement.model.ProductStockMovement;
+import com.labMetricas.LabMetricas.movement.model.dto.MovementFilterDto;
+import com.labMetricas.LabMetricas.util.KeysetCursor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Construye el filtro dinámico de movimientos a partir de MovementFilterDto.
+ * Solo se agregan los criterios informados, así el SQL resultante coincide con uno de los índices
+ * parciales de products_stock_movements (ver DatabaseIndexInitializer) en lugar de usar "param IS NULL OR ...".
+ */
+public final class ProductStockMovementSpecifications {
+
+    private ProductStockMovementSpecifications() {
+    }
+
+    public static Specification<ProductStockMovement> fromFilter(MovementFilterDto filter) {
+        List<Specification<ProductStockMovement>> specs = new ArrayList<>();
+        specs.add(notDeleted());
+
+        if (filter != null) {
+            if (filter.getStockCatalogueId() != null) {
+                Integer stockCatalogueId = filter.getStockCatalogueId();
+                specs.add((root, query, cb) -> cb.equal(root.get("stockCatalogue").get("id"), stockCatalogueId));
+            }
+            if (filter.getTipoMovimiento() != null) {
+                TipoMovimiento tipo = filter.getTipoMovimiento();
+                specs.add((root, query, cb) -> cb.equal(root.get("tipo"), tipo));
+            }
+            if (filter.getUserId() != null) {
+                UUID userId = filter.getUserId();
+                specs.add((root, query, cb) -> cb.equal(root.get("user").get("id"), userId));
+            }
+            if (filter.getReferencia() != null && !filter.getReferencia().trim().isEmpty()) {
+                String referencia = filter.getReferencia().trim();
+                specs.add((root, query, cb) -> cb.equal(root.get("referencia"), referencia));
+            }
+            if (filter.getFechaInicio() != null) {
+                LocalDateTime start = filter.getFechaInicio().atStartOfDay();
+                specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDateTime>get("createdAt"), start));
+            }
+            if (filter.getFechaFin() != null) {
+                // Hasta el final del día: created_at < día siguiente
+                LocalDateTime end = filter.getFechaFin().plusDays(1).atStartOfDay();
+                specs.add((root, query, cb) -> cb.lessThan(root.<LocalDateTime>get("createdAt"), end));
+            }
+        }
+
+        return Specification.allOf(specs);
+    }
+
+    public static Specification<ProductStockMovement> notDeleted() {
+        return (root, query, cb) -> cb.isNull(root.get("deletedAt"));
+    }
+
+    /**
+     * Filas estrictamente posteriores al cursor en el orden (createdAt DESC, id DESC).
+     */
+    public static Specification<ProductStockMovement> after(KeysetCursor cursor) {
+        return (root, query, cb) -> cb.or(
+            cb.lessThan(root.get("createdAt"), cursor.getCreatedAt()),
+            cb.and(
+                cb.equal(root.get("createdAt"), cursor.getCreatedAt()),
+                cb.lessThan(root.get("id"), cursor.getId())
+            )
+        );
+    }
+}
@@ -1,21 +1,42 @@
 package com.labMetricas.LabMetricas.product.controller;
 
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.labMetricas.LabMetricas.enums.TypeResponse;
+import com.labMetricas.LabMetricas.product.model.dto.BatchProductDiscountItemDto;
 import com.labMetricas.LabMetricas.product.model.dto.CreateProductDto;
 import com.labMetricas.LabMetricas.product.model.dto.CreateProductDiscountDto;
+import com.labMetricas.LabMetricas.product.model.dto.LabelSheetRequestDto;
+import com.labMetricas.LabMetricas.product.model.dto.ProductFilterDto;
 import com.labMetricas.LabMetricas.product.model.dto.UpdateProductDto;
+import com.labMetricas.LabMetricas.product.service.ProductExportService;
+import com.labMetricas.LabMetricas.product.service.ProductImportService;
+import com.labMetricas.LabMetricas.product.service.ProductLabelService;
+import com.labMetricas.LabMetricas.product.service.ProductSearchService;
 import com.labMetricas.LabMetricas.product.service.ProductService;
+import com.labMetricas.LabMetricas.qrcode.service.QrCodeService;
+import com.labMetricas.LabMetricas.qrcode.service.QrImageCache;
 import com.labMetricas.LabMetricas.util.ResponseObject;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/products")
@@ -24,10 +45,22 @@ public class ProductController {
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductSearchService productSearchService;
+    private final ProductExportService productExportService;
+    private final QrImageCache qrImageCache;
+    private final ProductLabelService productLabelService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService,
+                             ProductSearchService productSearchService, ProductExportService productExportService,
+                             QrImageCache qrImageCache, ProductLabelService productLabelService) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.productSearchService = productSearchService;
+        this.productExportService = productExportService;
+        this.qrImageCache = qrImageCache;
+        this.productLabelService = productLabelService;
     }
 
     @PostMapping
@@ -41,6 +74,16 @@ public class ProductController {
         return productService.createProduct(createProductDto);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ResponseObject> importProducts(@RequestParam("file") MultipartFile file) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        logger.info("User {} attempting to import products from file {}",
+            auth.getName(), file.getOriginalFilename());
+
+        return productImportService.importProducts(file);
+    }
+
     @PutMapping
     public ResponseEntity<ResponseObject> updateProduct(@Valid @RequestBody UpdateProductDto updateProductDto) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -63,6 +106,16 @@ public class ProductController {
         return productService.createProductDiscount(id, dto);
     }
 
+    @PostMapping("/discounts/batch")
+    public ResponseEntity<ResponseObject> createProductDiscountsBatch(
+            @RequestBody List<BatchProductDiscountItemDto> items) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        logger.info("User {} attempting to create {} discounts in batch", auth.getName(), items != null ? items.size() : 0);
+
+        return productService.createProductDiscountsBatch(items);
+    }
+
     @GetMapping("/{id}/discounts")
     public ResponseEntity<ResponseObject> getProductDiscounts(@PathVariable Integer id) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -72,6 +125,78 @@ public class ProductController {
         return productService.getProductDiscounts(id);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(ProductFilterDto filter) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        logger.info("User {} exporting products - stockCatalogueId: {}, statusId: {}",
+            auth.getName(), filter.getStockCatalogueId(), filter.getStatusId());
+
+        StreamingResponseBody body = outputStream -> productExportService.writeCsv(filter, outputStream);
+
+        return ResponseEntity.ok()
+            .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"productos-" + LocalDate.now() + ".csv\"")
+            .body(body);
+    }
+
+    @PostMapping("/labels")
+    public ResponseEntity<?> printLabelSheets(@RequestBody LabelSheetRequestDto request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        logger.info("User {} requesting label sheets - products: {}, stockCatalogueId: {}, from: {}, to: {}",
+            auth.getName(), request.getProductIds() != null ? request.getProductIds().size() : 0,
+            request.getStockCatalogueId(), request.getFechaDesde(), request.getFechaHasta());
+
+        List<ProductLabelService.LabelData> labels;
+        try {
+            labels = productLabelService.resolveLabels(request);
+        } catch (RuntimeException e) {
+            logger.error("Validation error requesting label sheets: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
+        }
+
+        StreamingResponseBody body = outputStream -> productLabelService.writeSheets(labels, outputStream);
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"etiquetas-" + LocalDate.now() + ".zip\"")
+            .body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ResponseObject> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer statusId,
+            @RequestParam(required = false) Integer warehouseTypeId,
+            @RequestParam(required = false) String fabricante,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        logger.info("User {} searching products - q: {}, statusId: {}, warehouseTypeId: {}, fabricante: {}",
+            auth.getName(), query, statusId, warehouseTypeId, fabricante);
+
+        return productSearchService.search(query, statusId, warehouseTypeId, fabricante, page, size);
+    }
+
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<ResponseObject> getProductCacheStats() {
+        return productService.getProductCacheStats();
+    }
+
+    @GetMapping("/{id:\\d+}")
+    public ResponseEntity<ResponseObject> getProductById(@PathVariable Integer id) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        logger.info("User {} attempting to retrieve product with id {}", auth.getName(), id);
+
+        return productService.getProductById(id);
+    }
+
     @GetMapping("/qr/{hash}")
     public ResponseEntity<ResponseObject> getProductByQrHash(@PathVariable String hash) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -83,21 +208,50 @@ public class ProductController {
     }
 
     @GetMapping("/qr/{hash}/image")
-    public ResponseEntity<byte[]> getQrCodeImage(@PathVariable String hash) {
+    public ResponseEntity<byte[]> getQrCodeImage(
+            @PathVariable String hash,
+            @RequestParam(defaultValue = "png") String format,
+            @RequestParam(defaultValue = "" + QrCodeService.DEFAULT_SIZE) int size,
+            @RequestParam(defaultValue = "" + QrCodeService.DEFAULT_MARGIN) int margin,
+            @RequestParam(defaultValue = "H") String ec,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         
         // Log the attempt
         logger.info("User {} attempting to retrieve QR code image for hash: {}", auth.getName(), hash);
+
+        QrCodeService.RenderOptions options;
+        try {
+            options = new QrCodeService.RenderOptions(
+                QrCodeService.OutputFormat.valueOf(format.trim().toUpperCase(Locale.ROOT)),
+                size, margin, ErrorCorrectionLevel.valueOf(ec.trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid QR image parameters: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        // El hash debe existir antes de responder nada cacheable, incluido un 304
+        if (!productService.qrHashExists(hash)) {
+            logger.warn("QR hash not found for image request: {}", hash);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        // La imagen de un hash es inmutable: si el cliente ya la tiene no se lee ni se genera nada
+        CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+        String etag = qrImageCache.etag(hash, options.variant());
+        if (QrImageCache.matchesIfNoneMatch(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
         
         try {
-            byte[] qrImage = productService.generateQrCodeImage(hash);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.IMAGE_PNG);
-            headers.setContentLength(qrImage.length);
-            headers.setCacheControl("public, max-age=31536000"); // Cache por 1 año (QR es inmutable)
-            
-            return new ResponseEntity<>(qrImage, headers, HttpStatus.OK);
+            QrImageCache.QrImage qrImage = productService.generateQrCodeImage(hash, options);
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(options.format().mediaType()))
+                .contentLength(qrImage.bytes().length)
+                .eTag(qrImage.etag())
+                .cacheControl(cacheControl)
+                .body(qrImage.bytes());
         } catch (Exception e) {
             logger.error("Error generating QR code image for hash: {}", hash, e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -108,15 +262,22 @@ public class ProductController {
     public ResponseEntity<ResponseObject> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) Integer stockCatalogueId,
-            @RequestParam(required = false) Integer statusId) {
+            ProductFilterDto filter,
+            @RequestParam(required = false) List<String> sort,
+            @RequestParam(required = false) String cursor) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         
         // Log the attempt
-        logger.info("User {} attempting to retrieve products - page: {}, size: {}, stockCatalogueId: {}, statusId: {}", 
-            auth.getName(), page, size, stockCatalogueId, statusId);
+        logger.info("User {} attempting to retrieve products - page: {}, size: {}, stockCatalogueId: {}, statusId: {}, sort: {}, cursorMode: {}", 
+            auth.getName(), page, size, filter.getStockCatalogueId(), filter.getStatusId(), sort, cursor != null);
         
-        return productService.getAllProducts(page, size, stockCatalogueId, statusId);
+        // Modo cursor opcional: ?cursor= (vacío para la primera página)
+        if (cursor != null) {
+            return productService.getProductsByCursor(cursor, size, filter);
+        }
+
+        // Orden: ?sort=caducidad:asc,nombre:desc
+        return productService.getAllProducts(page, size, filter, sort);
     }
 
     @DeleteMapping("/{id}")
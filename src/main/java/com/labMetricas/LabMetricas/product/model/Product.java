@@ -1,6 +1,7 @@
 package com.labMetricas.LabMetricas.product.model;
 
 import com.labMetricas.LabMetricas.catalogue.model.StockCatalogue;
+import com.labMetricas.LabMetricas.product.search.ProductSearchAnalysisConfigurer;
 import com.labMetricas.LabMetricas.qrcode.model.QrCode;
 import com.labMetricas.LabMetricas.status.model.ProductStatus;
 import com.labMetricas.LabMetricas.unitofmeasurement.model.UnitOfMeasurement;
@@ -9,58 +10,103 @@ import com.labMetricas.LabMetricas.warehousetype.model.WarehouseType;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.search.engine.backend.types.Aggregable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products",
+    indexes = {
+        @Index(name = "idx_products_deleted_created", columnList = "deleted_at, created_at DESC, id DESC"),
+        @Index(name = "idx_products_catalogue_status_created", columnList = "stock_catalogue_id, product_status_id, created_at DESC"),
+        @Index(name = "idx_products_status_created", columnList = "product_status_id, created_at DESC"),
+        @Index(name = "idx_products_warehouse_created", columnList = "warehouse_type_id, created_at DESC"),
+        @Index(name = "idx_products_unit_created", columnList = "unit_of_measurement_id, created_at DESC"),
+        @Index(name = "idx_products_fabricante", columnList = "fabricante"),
+        @Index(name = "idx_products_distribuidor", columnList = "distribuidor"),
+        @Index(name = "idx_products_lote", columnList = "lote"),
+        @Index(name = "idx_products_caducidad", columnList = "caducidad"),
+        @Index(name = "idx_products_reanalisis", columnList = "reanalisis"),
+        @Index(name = "idx_products_updated_at", columnList = "updated_at")
+    })
+@NamedEntityGraph(
+    name = Product.LISTING_GRAPH,
+    attributeNodes = {
+        @NamedAttributeNode("stockCatalogue"),
+        @NamedAttributeNode("productStatus"),
+        @NamedAttributeNode("qrCode"),
+        @NamedAttributeNode("createdByUser"),
+        @NamedAttributeNode("warehouseType"),
+        @NamedAttributeNode("unitOfMeasurement")
+    }
+)
+@Indexed(index = "products")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
 
+    /**
+     * Grafo usado por los listados: trae en un solo SELECT todas las asociaciones que lee ProductResponseDto.
+     */
+    public static final String LISTING_GRAPH = "Product.listing";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @ManyToOne
+    @IndexedEmbedded(includePaths = {"name", "sku"})
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "stock_catalogue_id", nullable = false)
     private StockCatalogue stockCatalogue;
 
-    @ManyToOne
+    @IndexedEmbedded(includePaths = {"id", "name"})
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_status_id", nullable = false)
     private ProductStatus productStatus;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "qr_code_id", unique = true)
     private QrCode qrCode;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by_user_id", columnDefinition = "UUID")
     private User createdByUser;
 
-    @ManyToOne
+    @IndexedEmbedded(includePaths = {"id", "code", "name"})
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "warehouse_type_id")
     private WarehouseType warehouseType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "unit_of_measurement_id")
     private UnitOfMeasurement unitOfMeasurement;
 
+    @FullTextField(analyzer = ProductSearchAnalysisConfigurer.TEXTO)
+    @FullTextField(name = "nombre_parcial", analyzer = ProductSearchAnalysisConfigurer.TEXTO_PARCIAL, searchAnalyzer = ProductSearchAnalysisConfigurer.TEXTO)
     @Column(name = "nombre", columnDefinition = "VARCHAR(200)", nullable = false, length = 200)
     private String nombre;
 
@@ -70,21 +116,32 @@ public class Product {
     @Column(name = "muestreo", columnDefinition = "DATE")
     private LocalDate fechaMuestreo;
 
+    @KeywordField(normalizer = ProductSearchAnalysisConfigurer.MINUSCULAS)
+    @FullTextField(name = "codigo_parcial", analyzer = ProductSearchAnalysisConfigurer.CODIGO_PARCIAL, searchAnalyzer = ProductSearchAnalysisConfigurer.CODIGO)
     @Column(name = "codigo", columnDefinition = "VARCHAR(50)", nullable = false, length = 50)
     private String codigo;
 
+    @KeywordField(normalizer = ProductSearchAnalysisConfigurer.MINUSCULAS)
+    @FullTextField(name = "codigoProducto_parcial", analyzer = ProductSearchAnalysisConfigurer.CODIGO_PARCIAL, searchAnalyzer = ProductSearchAnalysisConfigurer.CODIGO)
     @Column(name = "codigo_producto", columnDefinition = "VARCHAR(50)", length = 50)
     private String codigoProducto;
 
+    @KeywordField(normalizer = ProductSearchAnalysisConfigurer.MINUSCULAS)
+    @FullTextField(name = "lote_parcial", analyzer = ProductSearchAnalysisConfigurer.CODIGO_PARCIAL, searchAnalyzer = ProductSearchAnalysisConfigurer.CODIGO)
     @Column(name = "lote", columnDefinition = "VARCHAR(100)", nullable = false, length = 100)
     private String lote;
 
+    @KeywordField(normalizer = ProductSearchAnalysisConfigurer.MINUSCULAS)
+    @FullTextField(name = "loteProveedor_parcial", analyzer = ProductSearchAnalysisConfigurer.CODIGO_PARCIAL, searchAnalyzer = ProductSearchAnalysisConfigurer.CODIGO)
     @Column(name = "lote_proveedor", columnDefinition = "VARCHAR(100)", nullable = false, length = 100)
     private String loteProveedor;
 
+    @FullTextField(analyzer = ProductSearchAnalysisConfigurer.TEXTO)
+    @KeywordField(name = "fabricante_faceta", aggregable = Aggregable.YES)
     @Column(name = "fabricante", columnDefinition = "VARCHAR(200)", length = 200)
     private String fabricante;
 
+    @FullTextField(analyzer = ProductSearchAnalysisConfigurer.TEXTO)
     @Column(name = "distribuidor", columnDefinition = "VARCHAR(200)", length = 200)
     private String distribuidor;
 
@@ -130,6 +187,7 @@ public class Product {
     @Column(name = "updated_at", columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime updatedAt;
 
+    @GenericField
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 }
@@ -0,0 +1,58 @@
+package com.labMetricas.LabMetricas.product.model;
+
+import com.labMetricas.LabMetricas.enums.TipoAlertaProducto;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Alerta ya emitida para un producto y una fecha (caducidad o reanálisis); evita avisar dos veces lo mismo.
+ * Si la fecha del producto cambia, la nueva fecha genera una alerta nueva.
+ */
+@Entity
+@Table(
+        name = "product_date_alerts",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_product_date_alerts", columnNames = {"product_id", "tipo", "due_date"})
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDateAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", columnDefinition = "VARCHAR(20)", nullable = false, length = 20)
+    private TipoAlertaProducto tipo;
+
+    @Column(name = "due_date", columnDefinition = "DATE", nullable = false)
+    private LocalDate dueDate;
+
+    @Column(name = "notice_id", columnDefinition = "UUID")
+    private UUID noticeId;
+
+    @Column(name = "created_at", updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    private LocalDateTime createdAt;
+}
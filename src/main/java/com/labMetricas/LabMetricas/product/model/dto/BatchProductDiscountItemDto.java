@@ -0,0 +1,18 @@
+package com.labMetricas.LabMetricas.product.model.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Descuento dentro de un lote enviado por los escáneres: identifica el producto por ID o por hash de QR.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class BatchProductDiscountItemDto extends CreateProductDiscountDto {
+
+    private Integer productId;
+
+    private String qrHash;
+}
@@ -0,0 +1,23 @@
+package com.labMetricas.LabMetricas.product.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Resultado de un elemento del lote de descuentos, en el mismo orden en que se recibió.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchProductDiscountResultDto {
+    private int index;
+    private Integer productId;
+    private String qrHash;
+    private boolean success;
+    private String message;
+    private ProductDiscountLogDto discount;
+    private Integer cantidadTotal;
+}
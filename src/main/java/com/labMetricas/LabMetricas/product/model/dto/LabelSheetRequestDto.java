@@ -0,0 +1,25 @@
+package com.labMetricas.LabMetricas.product.model.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Productos a imprimir en hojas de etiquetas: una lista de IDs, o un catálogo con rango de fecha de ingreso.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class LabelSheetRequestDto {
+
+    private List<Integer> productIds;
+
+    private Integer stockCatalogueId;
+
+    private LocalDate fechaDesde;
+
+    private LocalDate fechaHasta;
+}
@@ -0,0 +1,45 @@
+package com.labMetricas.LabMetricas.product.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros opcionales del listado de productos. Cada campo nulo se ignora.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterDto {
+
+    private Integer stockCatalogueId;
+
+    private Integer statusId;
+
+    private Integer warehouseTypeId;
+
+    private Integer unitOfMeasurementId;
+
+    private String fabricante;
+
+    private String distribuidor;
+
+    private String lote;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate caducidadDesde;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate caducidadHasta;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate reanalisisDesde;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate reanalisisHasta;
+}
@@ -0,0 +1,34 @@
+package com.labMetricas.LabMetricas.product.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva: conteos globales y errores por fila.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResultDto {
+    private int totalRows;
+    private int imported;
+    private int failed;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row; // Número de línea en el archivo (la cabecera es la línea 1)
+        private String lote;
+        private String message;
+    }
+}
@@ -0,0 +1,27 @@
+package com.labMetricas.LabMetricas.product.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de la búsqueda de texto: productos ordenados por relevancia y conteos por faceta.
+ * Los conteos de cada faceta se calculan sobre los resultados de la búsqueda.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDto {
+    private List<ProductResponseDto> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private Map<String, Long> statusFacets;
+    private Map<String, Long> warehouseTypeFacets;
+    private Map<String, Long> fabricanteFacets;
+}
@@ -0,0 +1,14 @@
+package com.labMetricas.LabMetricas.product.repository;
+
+import com.labMetricas.LabMetricas.enums.TipoAlertaProducto;
+import com.labMetricas.LabMetricas.product.model.ProductDateAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductDateAlertRepository extends JpaRepository<ProductDateAlert, Integer> {
+    List<ProductDateAlert> findByTipoAndProductIdIn(TipoAlertaProducto tipo, Collection<Integer> productIds);
+}
@@ -0,0 +1,461 @@
+package com.labMetricas.LabMetricas.product.repository;
+
+import com.labMetricas.LabMetricas.movement.model.ProductStockMovement;
+import com.labMetricas.LabMetricas.product.model.Product;
+import com.labMetricas.LabMetricas.product.model.ProductDiscountLog;
+import com.labMetricas.LabMetricas.qrcode.model.QrCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Escrituras masivas sobre products, qr_codes y products_stock_movements con sentencias JDBC por lotes.
+ * Se usa desde rutas de alto volumen donde persistir entidad por entidad con JPA cuesta un round trip por fila.
+ * Participa en la transacción de Spring activa.
+ */
+@Repository
+public class ProductJdbcRepository {
+
+    // Longitud de products.codigo y del sufijo aleatorio que lo hace único
+    private static final int CODIGO_MAX_LENGTH = 50;
+    private static final int CODE_SUFFIX_LENGTH = 8;
+
+    private static final String INSERT_QR_CODE =
+        "INSERT INTO qr_codes (qr_contenido, qr_digest, created_at, updated_at) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_PRODUCT =
+        "INSERT INTO products (stock_catalogue_id, product_status_id, qr_code_id, created_by_user_id, " +
+        "warehouse_type_id, unit_of_measurement_id, nombre, fecha, muestreo, codigo, codigo_producto, lote, " +
+        "lote_proveedor, fabricante, distribuidor, numero_analisis, caducidad, reanalisis, numero_contenedores, " +
+        "cantidad_total, descuentos, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, " +
+        "(SELECT " + codigoExpression("sc", "?", "?") + " FROM stock_catalogue sc WHERE sc.id = ?), " +
+        "?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_MOVEMENT =
+        "INSERT INTO products_stock_movements (user_id, stock_catalogue_id, tipo, cantidad, motivo, referencia, " +
+        "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String TOUCH_STOCK_CATALOGUE =
+        "UPDATE stock_catalogue SET updated_at = ? WHERE id = ?";
+
+    /**
+     * Alta completa de un producto en una sola sentencia: valida el catálogo, inserta QR, producto y movimiento
+     * de entrada y actualiza updated_at del catálogo. Si el catálogo no existe o está eliminado, ninguna CTE
+     * inserta nada y la consulta no devuelve filas. La auditoría la publica el servicio con AuditLogPublisher.
+     */
+    private static final String CREATE_PRODUCT =
+        "WITH sc AS (" +
+        "  SELECT id, name, sku FROM stock_catalogue WHERE id = :stockCatalogueId AND deleted_at IS NULL" +
+        "), qr AS (" +
+        "  INSERT INTO qr_codes (qr_contenido, qr_digest, created_at, updated_at) SELECT :qrHash, :qrDigest, :now, :now FROM sc RETURNING id" +
+        "), p AS (" +
+        "  INSERT INTO products (stock_catalogue_id, product_status_id, qr_code_id, created_by_user_id, " +
+        "    warehouse_type_id, unit_of_measurement_id, nombre, fecha, muestreo, codigo, codigo_producto, lote, " +
+        "    lote_proveedor, fabricante, distribuidor, numero_analisis, caducidad, reanalisis, numero_contenedores, " +
+        "    cantidad_total, descuentos, created_at, updated_at) " +
+        "  SELECT sc.id, :productStatusId, qr.id, CAST(:userId AS UUID), :warehouseTypeId, :unitOfMeasurementId, :nombre, " +
+        "    :fecha, :fechaMuestreo, " + codigoExpression("sc", ":lote", ":codeSuffix") + ", " +
+        "    :codigoProducto, :lote, :loteProveedor, :fabricante, :distribuidor, :numeroAnalisis, :caducidad, :reanalisis, " +
+        "    :numeroContenedores, :cantidadTotal, :descuentos, :now, :now " +
+        "  FROM sc, qr RETURNING id, codigo" +
+        "), mv AS (" +
+        "  INSERT INTO products_stock_movements (user_id, stock_catalogue_id, tipo, cantidad, referencia, created_at, updated_at) " +
+        "  SELECT CAST(:userId AS UUID), sc.id, 'entrada', :cantidad, :referencia, :now, :now FROM sc RETURNING id" +
+        "), touch AS (" +
+        "  UPDATE stock_catalogue SET updated_at = :now WHERE id IN (SELECT id FROM sc)" +
+        ") " +
+        "SELECT p.id AS product_id, p.codigo, qr.id AS qr_code_id, mv.id AS movement_id, sc.name AS catalogue_name " +
+        "FROM p, qr, mv, sc";
+
+    /**
+     * Descuento atómico: el UPDATE condicional sólo afecta la fila si hay cantidad suficiente, y el registro
+     * en product_discounts se inserta en la misma sentencia a partir de la fila devuelta.
+     * Dos descuentos concurrentes sobre el mismo lote se serializan en el bloqueo de fila del UPDATE y el
+     * segundo reevalúa la condición sobre la cantidad ya descontada, sin lecturas previas ni SELECT ... FOR UPDATE.
+     * La auditoría no se escribe aquí: la publica el servicio con AuditLogPublisher al confirmar.
+     */
+    private static final String APPLY_DISCOUNT =
+        "WITH upd AS (" +
+        "  UPDATE products SET cantidad_total = cantidad_total - :amount, updated_at = :now " +
+        "  WHERE id = :productId AND deleted_at IS NULL AND cantidad_total >= :amount " +
+        "  RETURNING id, nombre, lote, cantidad_total" +
+        "), log AS (" +
+        "  INSERT INTO product_discounts (product_id, product_nombre, product_lote, amount, description, " +
+        "    quantity_before, quantity_after, created_by_user_id, created_by_user_name, created_by_user_email, created_at) " +
+        "  SELECT id, nombre, lote, :amount, :description, cantidad_total + :amount, cantidad_total, " +
+        "    CAST(:userId AS UUID), :userName, :userEmail, :now FROM upd " +
+        "  RETURNING id, product_id, product_nombre, product_lote, amount, description, quantity_before, " +
+        "    quantity_after, created_by_user_id, created_by_user_name, created_by_user_email, created_at" +
+        ") " +
+        "SELECT * FROM log";
+
+    private static final String DISCOUNT_PRODUCT =
+        "UPDATE products SET cantidad_total = cantidad_total - ?, updated_at = ? " +
+        "WHERE id = ? AND deleted_at IS NULL AND cantidad_total >= ?";
+
+    private static final String INSERT_DISCOUNT_LOG =
+        "INSERT INTO product_discounts (product_id, product_nombre, product_lote, amount, description, " +
+        "quantity_before, quantity_after, created_by_user_id, created_by_user_name, created_by_user_email, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Crea un producto (con QR, movimiento de entrada y actualización del catálogo) en un solo round trip.
+     * El producto debe traer sus asociaciones con el ID ya resuelto y el QR con el hash ya generado.
+     * Devuelve vacío si el catálogo no existe o está eliminado.
+     */
+    public Optional<CreatedProduct> createProduct(Product product, String referencia, LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("stockCatalogueId", product.getStockCatalogue().getId(), Types.INTEGER)
+            .addValue("productStatusId", product.getProductStatus().getId(), Types.INTEGER)
+            .addValue("qrHash", product.getQrCode().getQrContenido(), Types.VARCHAR)
+            .addValue("qrDigest", QrCode.digestOf(product.getQrCode().getQrContenido()), Types.BINARY)
+            .addValue("userId", product.getCreatedByUser().getId(), Types.OTHER)
+            .addValue("warehouseTypeId", product.getWarehouseType() != null ? product.getWarehouseType().getId() : null, Types.INTEGER)
+            .addValue("unitOfMeasurementId", product.getUnitOfMeasurement() != null ? product.getUnitOfMeasurement().getId() : null, Types.INTEGER)
+            .addValue("nombre", product.getNombre(), Types.VARCHAR)
+            .addValue("fecha", product.getFecha(), Types.DATE)
+            .addValue("fechaMuestreo", product.getFechaMuestreo(), Types.DATE)
+            .addValue("codeSuffix", newCodeSuffix(), Types.VARCHAR)
+            .addValue("codigoProducto", product.getCodigoProducto(), Types.VARCHAR)
+            .addValue("lote", product.getLote(), Types.VARCHAR)
+            .addValue("loteProveedor", product.getLoteProveedor(), Types.VARCHAR)
+            .addValue("fabricante", product.getFabricante(), Types.VARCHAR)
+            .addValue("distribuidor", product.getDistribuidor(), Types.VARCHAR)
+            .addValue("numeroAnalisis", product.getNumeroAnalisis(), Types.VARCHAR)
+            .addValue("caducidad", product.getCaducidad(), Types.DATE)
+            .addValue("reanalisis", product.getReanalisis(), Types.DATE)
+            .addValue("numeroContenedores", product.getNumeroContenedores(), Types.INTEGER)
+            .addValue("cantidadTotal", product.getCantidadTotal(), Types.INTEGER)
+            .addValue("descuentos", product.getDescuentos(), Types.INTEGER)
+            .addValue("cantidad", BigDecimal.valueOf(product.getNumeroContenedores()), Types.NUMERIC)
+            .addValue("referencia", referencia, Types.VARCHAR)
+            .addValue("now", toTimestamp(now), Types.TIMESTAMP);
+
+        List<CreatedProduct> rows = namedParameterJdbcTemplate.query(CREATE_PRODUCT, params, (rs, rowNum) ->
+            new CreatedProduct(
+                rs.getInt("product_id"),
+                rs.getString("codigo"),
+                rs.getInt("qr_code_id"),
+                rs.getInt("movement_id"),
+                rs.getString("catalogue_name")));
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Aplica un descuento con un único round trip (UPDATE condicional + log de descuento).
+     * Devuelve vacío si el producto no existe, está eliminado o no tiene cantidad suficiente.
+     */
+    public Optional<ProductDiscountLog> applyDiscount(Integer productId, int amount, String description,
+                                                      UUID userId, String userName, String userEmail,
+                                                      LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("productId", productId, Types.INTEGER)
+            .addValue("amount", amount, Types.INTEGER)
+            .addValue("description", description, Types.VARCHAR)
+            .addValue("userId", userId, Types.OTHER)
+            .addValue("userName", userName, Types.VARCHAR)
+            .addValue("userEmail", userEmail, Types.VARCHAR)
+            .addValue("now", toTimestamp(now), Types.TIMESTAMP);
+
+        List<ProductDiscountLog> rows = namedParameterJdbcTemplate.query(APPLY_DISCOUNT, params, (rs, rowNum) -> {
+            ProductDiscountLog log = new ProductDiscountLog();
+            log.setId(rs.getInt("id"));
+            log.setProductId(rs.getInt("product_id"));
+            log.setProductNombre(rs.getString("product_nombre"));
+            log.setProductLote(rs.getString("product_lote"));
+            log.setAmount(rs.getInt("amount"));
+            log.setDescription(rs.getString("description"));
+            log.setQuantityBefore(rs.getInt("quantity_before"));
+            log.setQuantityAfter(rs.getInt("quantity_after"));
+            log.setCreatedByUserId(rs.getObject("created_by_user_id", UUID.class));
+            log.setCreatedByUserName(rs.getString("created_by_user_name"));
+            log.setCreatedByUserEmail(rs.getString("created_by_user_email"));
+            log.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+            return log;
+        });
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Inserta los QR en un solo lote y asigna el ID generado a cada objeto.
+     */
+    public void insertQrCodes(List<QrCode> qrCodes) {
+        List<Object[]> rows = new ArrayList<>(qrCodes.size());
+        for (QrCode qrCode : qrCodes) {
+            rows.add(new Object[]{
+                qrCode.getQrContenido(),
+                QrCode.digestOf(qrCode.getQrContenido()),
+                toTimestamp(qrCode.getCreatedAt()),
+                toTimestamp(qrCode.getUpdatedAt())
+            });
+        }
+        List<Integer> ids = executeBatchReturningIds(INSERT_QR_CODE, rows);
+        for (int i = 0; i < qrCodes.size(); i++) {
+            qrCodes.get(i).setId(ids.get(i));
+        }
+    }
+
+    /**
+     * Inserta los productos (con sus asociaciones ya resueltas y el QR ya insertado) en un solo lote.
+     * El código se genera en la sentencia igual que en el alta individual; no se toma de {@code getCodigo()}.
+     */
+    public void insertProducts(List<Product> products) {
+        List<Object[]> rows = new ArrayList<>(products.size());
+        for (Product p : products) {
+            rows.add(new Object[]{
+                p.getStockCatalogue().getId(),
+                p.getProductStatus().getId(),
+                p.getQrCode() != null ? p.getQrCode().getId() : null,
+                p.getCreatedByUser() != null ? p.getCreatedByUser().getId() : null,
+                p.getWarehouseType() != null ? p.getWarehouseType().getId() : null,
+                p.getUnitOfMeasurement() != null ? p.getUnitOfMeasurement().getId() : null,
+                p.getNombre(),
+                p.getFecha(),
+                p.getFechaMuestreo(),
+                // codigo: parámetros de la subconsulta (lote, sufijo, catálogo)
+                p.getLote(),
+                newCodeSuffix(),
+                p.getStockCatalogue().getId(),
+                p.getCodigoProducto(),
+                p.getLote(),
+                p.getLoteProveedor(),
+                p.getFabricante(),
+                p.getDistribuidor(),
+                p.getNumeroAnalisis(),
+                p.getCaducidad(),
+                p.getReanalisis(),
+                p.getNumeroContenedores(),
+                p.getCantidadTotal(),
+                p.getDescuentos(),
+                toTimestamp(p.getCreatedAt()),
+                toTimestamp(p.getUpdatedAt())
+            });
+        }
+        List<Integer> ids = executeBatchReturningIds(INSERT_PRODUCT, rows);
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setId(ids.get(i));
+        }
+    }
+
+    /**
+     * Inserta los movimientos de kardex en un solo lote.
+     */
+    public void insertMovements(List<ProductStockMovement> movements) {
+        List<Object[]> rows = new ArrayList<>(movements.size());
+        for (ProductStockMovement m : movements) {
+            rows.add(new Object[]{
+                m.getUser().getId(),
+                m.getStockCatalogue().getId(),
+                m.getTipo().name(),
+                m.getCantidad(),
+                m.getMotivo(),
+                m.getReferencia(),
+                toTimestamp(m.getCreatedAt()),
+                toTimestamp(m.getUpdatedAt())
+            });
+        }
+        List<Integer> ids = executeBatchReturningIds(INSERT_MOVEMENT, rows);
+        for (int i = 0; i < movements.size(); i++) {
+            movements.get(i).setId(ids.get(i));
+        }
+    }
+
+    /**
+     * Actualiza updated_at de los catálogos afectados en un solo lote.
+     */
+    public void touchStockCatalogues(Collection<Integer> stockCatalogueIds, LocalDateTime updatedAt) {
+        List<Object[]> rows = new ArrayList<>(stockCatalogueIds.size());
+        for (Integer id : stockCatalogueIds) {
+            rows.add(new Object[]{toTimestamp(updatedAt), id});
+        }
+        jdbcTemplate.batchUpdate(TOUCH_STOCK_CATALOGUE, rows);
+    }
+
+    /**
+     * Resuelve en una sola consulta los hashes de QR a IDs de productos activos, por el índice de qr_digest.
+     * Con {@code includeLegacy} también busca por qr_contenido los hashes que no resolvió el digest
+     * (filas aún sin migrar o con formato distinto a SHA-256 hexadecimal).
+     * Las claves del mapa son los hashes tal como llegaron.
+     */
+    public Map<String, Integer> findActiveProductIdsByQrHashes(Collection<String> qrHashes, boolean includeLegacy) {
+        if (qrHashes.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, List<String>> hashesByHex = new HashMap<>();
+        List<byte[]> digests = new ArrayList<>();
+        for (String qrHash : qrHashes) {
+            byte[] digest = QrCode.digestOf(qrHash);
+            if (digest != null) {
+                hashesByHex.computeIfAbsent(QrCode.hexOf(digest), key -> {
+                    digests.add(digest);
+                    return new ArrayList<>();
+                }).add(qrHash);
+            }
+        }
+
+        Map<String, Integer> result = new HashMap<>();
+        if (!digests.isEmpty()) {
+            jdbcTemplate.query(
+                "SELECT q.qr_digest, p.id FROM products p JOIN qr_codes q ON q.id = p.qr_code_id " +
+                "WHERE q.qr_digest = ANY (?) AND q.deleted_at IS NULL AND p.deleted_at IS NULL",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bytea", digests.toArray(new byte[0][]))),
+                rs -> {
+                    for (String qrHash : hashesByHex.getOrDefault(QrCode.hexOf(rs.getBytes(1)), List.of())) {
+                        result.put(qrHash, rs.getInt(2));
+                    }
+                });
+        }
+
+        if (includeLegacy) {
+            List<String> unresolved = qrHashes.stream().filter(qrHash -> !result.containsKey(qrHash)).toList();
+            if (!unresolved.isEmpty()) {
+                namedParameterJdbcTemplate.query(
+                    "SELECT q.qr_contenido, p.id FROM products p JOIN qr_codes q ON q.id = p.qr_code_id " +
+                    "WHERE q.qr_contenido IN (:hashes) AND q.deleted_at IS NULL AND p.deleted_at IS NULL",
+                    new MapSqlParameterSource("hashes", unresolved),
+                    rs -> {
+                        result.put(rs.getString(1), rs.getInt(2));
+                    });
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ejecuta los descuentos condicionales como un solo lote JDBC, en orden.
+     * Cada posición del arreglo devuelto es 1 si el descuento se aplicó y 0 si el producto no existe
+     * o no tenía cantidad suficiente en ese punto del lote.
+     */
+    public int[] discountProducts(List<Integer> productIds, List<Integer> amounts, LocalDateTime now) {
+        List<Object[]> rows = new ArrayList<>(productIds.size());
+        for (int i = 0; i < productIds.size(); i++) {
+            rows.add(new Object[]{amounts.get(i), toTimestamp(now), productIds.get(i), amounts.get(i)});
+        }
+        return jdbcTemplate.batchUpdate(DISCOUNT_PRODUCT, rows);
+    }
+
+    /**
+     * Lee nombre, lote y cantidad actual de los productos indicados (incluye eliminados, con su marca).
+     */
+    public Map<Integer, ProductQuantity> findQuantities(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, ProductQuantity> result = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+            "SELECT id, nombre, lote, cantidad_total, deleted_at IS NOT NULL AS deleted FROM products WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", productIds),
+            rs -> {
+                result.put(rs.getInt("id"), new ProductQuantity(
+                    rs.getString("nombre"),
+                    rs.getString("lote"),
+                    rs.getObject("cantidad_total", Integer.class),
+                    rs.getBoolean("deleted")));
+            });
+        return result;
+    }
+
+    /**
+     * Inserta los registros de descuento en un solo lote y asigna el ID generado a cada objeto.
+     */
+    public void insertDiscountLogs(List<ProductDiscountLog> logs) {
+        List<Object[]> rows = new ArrayList<>(logs.size());
+        for (ProductDiscountLog log : logs) {
+            rows.add(new Object[]{
+                log.getProductId(),
+                log.getProductNombre(),
+                log.getProductLote(),
+                log.getAmount(),
+                log.getDescription(),
+                log.getQuantityBefore(),
+                log.getQuantityAfter(),
+                log.getCreatedByUserId(),
+                log.getCreatedByUserName(),
+                log.getCreatedByUserEmail(),
+                toTimestamp(log.getCreatedAt())
+            });
+        }
+        List<Integer> ids = executeBatchReturningIds(INSERT_DISCOUNT_LOG, rows);
+        for (int i = 0; i < logs.size(); i++) {
+            logs.get(i).setId(ids.get(i));
+        }
+    }
+
+    private List<Integer> executeBatchReturningIds(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<Integer>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql, new String[]{"id"})) {
+                for (Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        ps.setObject(i + 1, row[i]);
+                    }
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                List<Integer> ids = new ArrayList<>(rows.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getInt(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    /**
+     * Expresión SQL del código de producto, compartida por el alta individual y la importación:
+     * SKU del catálogo (o SKU-id si no tiene), lote y sufijo aleatorio. La parte SKU-lote se recorta
+     * para que el sufijo quepa siempre en products.codigo (VARCHAR(50)), aunque SKU y lote sean largos.
+     */
+    private static String codigoExpression(String catalogueAlias, String lote, String suffix) {
+        return "LEFT(COALESCE(NULLIF(" + catalogueAlias + ".sku, ''), 'SKU-' || " + catalogueAlias + ".id) || '-' || "
+            + "CAST(" + lote + " AS VARCHAR), " + (CODIGO_MAX_LENGTH - 1 - CODE_SUFFIX_LENGTH) + ") || '-' || "
+            + "CAST(" + suffix + " AS VARCHAR)";
+    }
+
+    /**
+     * Sufijo aleatorio del código de producto (8 caracteres hexadecimales de un UUID): a diferencia de
+     * los milisegundos módulo 10000, no se repite entre altas del mismo lote hechas en el mismo instante.
+     */
+    private static String newCodeSuffix() {
+        return UUID.randomUUID().toString().substring(0, CODE_SUFFIX_LENGTH);
+    }
+
+    public record CreatedProduct(Integer productId, String codigo, Integer qrCodeId, Integer movementId, String catalogueName) {
+    }
+
+    public record ProductQuantity(String nombre, String lote, Integer cantidadTotal, boolean deleted) {
+    }
+}
@@ -1,25 +1,44 @@
 package com.labMetricas.LabMetricas.product.repository;
 
+import com.labMetricas.LabMetricas.catalogue.model.dto.CatalogueStatusTotals;
 import com.labMetricas.LabMetricas.product.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
     // Find by id and not deleted
     Optional<Product> findByIdAndDeletedAtIsNull(Integer id);
+
+    // Find by id and not deleted, fetching everything the response DTO reads
+    @EntityGraph(Product.LISTING_GRAPH)
+    Optional<Product> findWithDetailsByIdAndDeletedAtIsNull(Integer id);
+    
+    // Find several products by id (including deleted ones), fetching everything the response DTO reads
+    @EntityGraph(Product.LISTING_GRAPH)
+    List<Product> findWithDetailsByIdIn(Collection<Integer> ids);
+
+    // Products of a catalogue received within a date range, for label sheets (limited by the pageable)
+    @EntityGraph(Product.LISTING_GRAPH)
+    List<Product> findByStockCatalogueIdAndFechaBetweenAndDeletedAtIsNullOrderByFechaAscIdAsc(
+        Integer stockCatalogueId, LocalDate from, LocalDate to, Pageable pageable);
     
     // Find all non-deleted products
     List<Product> findByDeletedAtIsNull();
     
-    // Find all non-deleted products with pagination
-    Page<Product> findByDeletedAtIsNull(Pageable pageable);
-    
     // Find by lote
     Optional<Product> findByLote(String lote);
     
@@ -29,20 +48,57 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     // Find by stock catalogue and not deleted
     List<Product> findByStockCatalogueIdAndDeletedAtIsNull(Integer stockCatalogueId);
     
-    // Find by stock catalogue with pagination
-    Page<Product> findByStockCatalogueIdAndDeletedAtIsNull(Integer stockCatalogueId, Pageable pageable);
-    
-    // Find by product status and not deleted
-    Page<Product> findByProductStatusIdAndDeletedAtIsNull(Integer productStatusId, Pageable pageable);
-    
-    // Find by stock catalogue and product status
-    Page<Product> findByStockCatalogueIdAndProductStatusIdAndDeletedAtIsNull(Integer stockCatalogueId, Integer productStatusId, Pageable pageable);
-    
     // Find by QR code and not deleted
+    @EntityGraph(Product.LISTING_GRAPH)
     Optional<Product> findByQrCodeIdAndDeletedAtIsNull(Integer qrCodeId);
+
+    // Hash -> product in one query through the unique index on qr_codes.qr_digest
+    @EntityGraph(Product.LISTING_GRAPH)
+    @Query("SELECT p FROM Product p JOIN p.qrCode q " +
+           "WHERE q.qrDigest = :qrDigest AND q.deletedAt IS NULL AND p.deletedAt IS NULL")
+    Optional<Product> findActiveByQrDigest(@Param("qrDigest") byte[] qrDigest);
+
+    // Legacy lookup for QR rows not yet migrated to qr_digest
+    @EntityGraph(Product.LISTING_GRAPH)
+    @Query("SELECT p FROM Product p JOIN p.qrCode q " +
+           "WHERE q.qrContenido = :qrHash AND q.deletedAt IS NULL AND p.deletedAt IS NULL")
+    Optional<Product> findActiveByQrContenido(@Param("qrHash") String qrHash);
     
+    // Stock totals of several catalogues in one GROUP BY: one row per catalogue and status
+    @Query("SELECT new com.labMetricas.LabMetricas.catalogue.model.dto.CatalogueStatusTotals(" +
+           "p.stockCatalogue.id, s.id, s.name, COUNT(p), COALESCE(SUM(p.cantidadTotal), 0)) " +
+           "FROM Product p LEFT JOIN p.productStatus s " +
+           "WHERE p.deletedAt IS NULL AND p.stockCatalogue.id IN :stockCatalogueIds " +
+           "GROUP BY p.stockCatalogue.id, s.id, s.name")
+    List<CatalogueStatusTotals> aggregateTotalsByStockCatalogueIds(
+        @Param("stockCatalogueIds") Collection<Integer> stockCatalogueIds);
+
     // Find products by stock catalogue and status "terminado" (case insensitive)
     List<Product> findByStockCatalogueIdAndProductStatusNameIgnoreCaseAndDeletedAtIsNull(
         Integer stockCatalogueId, String statusName);
-}
 
+    // Filtered listing (see ProductSpecifications), fetching everything the response DTO reads
+    @Override
+    @EntityGraph(Product.LISTING_GRAPH)
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+
+    // Products whose caducidad entered the window since the last scan: either the horizon moved past
+    // their date (range on idx_products_caducidad) or they were created/edited with a date already inside it
+    // (range on idx_products_updated_at)
+    @Query("SELECT p FROM Product p WHERE p.deletedAt IS NULL AND (" +
+           "(p.caducidad > :previousHorizon AND p.caducidad <= :horizon) OR " +
+           "(p.updatedAt > :modifiedSince AND p.caducidad >= :today AND p.caducidad <= :horizon))")
+    List<Product> findEnteringExpiryWindow(@Param("today") LocalDate today,
+                                           @Param("previousHorizon") LocalDate previousHorizon,
+                                           @Param("horizon") LocalDate horizon,
+                                           @Param("modifiedSince") LocalDateTime modifiedSince);
+
+    // Same as findEnteringExpiryWindow for the reanalisis date
+    @Query("SELECT p FROM Product p WHERE p.deletedAt IS NULL AND (" +
+           "(p.reanalisis > :previousHorizon AND p.reanalisis <= :horizon) OR " +
+           "(p.updatedAt > :modifiedSince AND p.reanalisis >= :today AND p.reanalisis <= :horizon))")
+    List<Product> findEnteringReanalysisWindow(@Param("today") LocalDate today,
+                                               @Param("previousHorizon") LocalDate previousHorizon,
+                                               @Param("horizon") LocalDate horizon,
+                                               @Param("modifiedSince") LocalDateTime modifiedSince);
+}
@@ -0,0 +1,17 @@
+package com.labMetricas.LabMetricas.product.repository;
+
+import com.labMetricas.LabMetricas.product.model.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ProductRepositoryCustom {
+    // Fetch at most "limit" rows matching the specification, with the listing graph and without a count query
+    List<Product> findSlice(Specification<Product> spec, Sort sort, int limit);
+
+    // Forward-only stream over every row matching the specification, read from a server-side cursor in chunks of fetchSize.
+    // Must be consumed inside a transaction and closed afterwards
+    Stream<Product> streamAll(Specification<Product> spec, Sort sort, int fetchSize);
+}
@@ -0,0 +1,54 @@
+package com.labMetricas.LabMetricas.product.repository;
+
+import com.labMetricas.LabMetricas.product.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findSlice(Specification<Product> spec, Sort sort, int limit) {
+        TypedQuery<Product> typedQuery = createListingQuery(spec, sort);
+        typedQuery.setMaxResults(limit);
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public Stream<Product> streamAll(Specification<Product> spec, Sort sort, int fetchSize) {
+        TypedQuery<Product> typedQuery = createListingQuery(spec, sort);
+        typedQuery.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        typedQuery.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return typedQuery.getResultStream();
+    }
+
+    private TypedQuery<Product> createListingQuery(Specification<Product> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> root = query.from(Product.class);
+
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        TypedQuery<Product> typedQuery = entityManager.createQuery(query);
+        typedQuery.setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph(Product.LISTING_GRAPH));
+        return typedQuery;
+    }
+}
@@ -0,0 +1,58 @@
+package com.labMetricas.LabMetricas.product.search;
+
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurationContext;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurer;
+
+/**
+ * Analizadores del índice de productos.
+ * Registrado con hibernate.search.backend.analysis.configurer en application-prod.properties.
+ */
+public class ProductSearchAnalysisConfigurer implements LuceneAnalysisConfigurer {
+
+    // Texto libre (nombre, fabricante, catálogo): palabras en minúsculas y sin acentos
+    public static final String TEXTO = "texto";
+
+    // Igual que TEXTO, indexando además los prefijos de cada palabra para búsquedas mientras se escribe
+    public static final String TEXTO_PARCIAL = "texto_parcial";
+
+    // Códigos y lotes completos en minúsculas, como un solo término
+    public static final String CODIGO = "codigo";
+
+    // Todos los fragmentos de un código o lote, para encontrar "23-A" dentro de "LT-2023-A01"
+    public static final String CODIGO_PARCIAL = "codigo_parcial";
+
+    public static final String MINUSCULAS = "minusculas";
+
+    @Override
+    public void configure(LuceneAnalysisConfigurationContext context) {
+        context.analyzer(TEXTO).custom()
+            .tokenizer("standard")
+            .tokenFilter("lowercase")
+            .tokenFilter("asciiFolding");
+
+        context.analyzer(TEXTO_PARCIAL).custom()
+            .tokenizer("standard")
+            .tokenFilter("lowercase")
+            .tokenFilter("asciiFolding")
+            .tokenFilter("edgeNGram")
+                .param("minGramSize", "2")
+                .param("maxGramSize", "20");
+
+        context.analyzer(CODIGO).custom()
+            .tokenizer("keyword")
+            .tokenFilter("lowercase")
+            .tokenFilter("asciiFolding");
+
+        context.analyzer(CODIGO_PARCIAL).custom()
+            .tokenizer("keyword")
+            .tokenFilter("lowercase")
+            .tokenFilter("asciiFolding")
+            .tokenFilter("nGram")
+                .param("minGramSize", "2")
+                .param("maxGramSize", "30");
+
+        context.normalizer(MINUSCULAS).custom()
+            .tokenFilter("lowercase")
+            .tokenFilter("asciiFolding");
+    }
+}
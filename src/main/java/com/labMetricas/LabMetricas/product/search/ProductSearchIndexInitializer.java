@@ -0,0 +1,76 @@
+package com.labMetricas.LabMetricas.product.search;
+
+import com.labMetricas.LabMetricas.product.model.Product;
+import com.labMetricas.LabMetricas.product.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.mapping.SearchMapping;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reconstruye el índice de productos al arrancar cuando no coincide con la base de datos
+ * (primer despliegue, disco del índice vacío o base recreada). La reconstrucción corre en segundo plano.
+ *
+ * El índice Lucene es local a cada instancia (SEARCH_INDEX_DIR): la aplicación debe correr en un solo nodo.
+ * Con varias instancias, cada una sólo indexa lo que escribe ella y sus índices divergen sin que nada lo detecte.
+ * La comprobación compara sólo el número de documentos con el de filas, así que detecta documentos
+ * perdidos o sobrantes pero no documentos desactualizados; para esos casos (por ejemplo tras restaurar
+ * un respaldo del directorio del índice) se fuerza la reconstrucción con product.search.rebuild-on-startup=true.
+ */
+@Component
+public class ProductSearchIndexInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexInitializer.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${product.search.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIfOutOfSync() {
+        long databaseCount = productRepository.count();
+        SearchSession searchSession = Search.session(entityManager);
+        long indexCount = searchSession.search(Product.class)
+            .where(f -> f.matchAll())
+            .fetchTotalHitCount();
+
+        if (rebuildOnStartup) {
+            logger.info("Product search index rebuild forced by configuration (database: {}, index: {})",
+                databaseCount, indexCount);
+        } else if (databaseCount == indexCount) {
+            logger.info("Product search index in sync ({} documents)", indexCount);
+            return;
+        } else {
+            logger.info("Product search index out of sync (database: {}, index: {}), rebuilding", databaseCount, indexCount);
+        }
+        SearchMapping searchMapping = Search.mapping(entityManagerFactory);
+        searchMapping.scope(Product.class).massIndexer()
+            .threadsToLoadObjects(2)
+            .start()
+            .whenComplete((result, error) -> {
+                if (error != null) {
+                    logger.error("Error rebuilding product search index", error);
+                } else {
+                    logger.info("Product search index rebuilt");
+                }
+            });
+    }
+}
@@ -0,0 +1,43 @@
+package com.labMetricas.LabMetricas.product.search;
+
+import com.labMetricas.LabMetricas.product.model.Product;
+import com.labMetricas.LabMetricas.product.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Reindexa productos escritos fuera de Hibernate (sentencias JDBC), que la indexación automática no detecta.
+ * Los cambios hechos con JPA se indexan solos al confirmar la transacción.
+ * Sólo actualiza el índice local de esta instancia (ver {@link ProductSearchIndexInitializer}).
+ */
+@Component
+public class ProductSearchIndexer {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    /**
+     * Agenda la reindexación de los productos indicados; se aplica al confirmar la transacción en curso.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reindex(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        SearchSession searchSession = Search.session(entityManager);
+        for (Product product : productRepository.findWithDetailsByIdIn(productIds)) {
+            searchSession.indexingPlan().addOrUpdate(product);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.labMetricas.LabMetricas.product.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.labMetricas.LabMetricas.product.model.dto.ProductResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria (Caffeine, acotada por tamaño y tiempo) del detalle de producto,
+ * accesible por ID y por hash de QR. El escaneo de QR la consulta en cada lectura.
+ *
+ * Las escrituras sobre un producto deben llamar a {@link #evictAfterCommit(Integer)}:
+ * la entrada se elimina al confirmar la transacción, para no volver a cachear el estado anterior.
+ * Las lecturas toman {@link #generation()} antes de consultar la base de datos y lo pasan a
+ * {@link #put(ProductResponseDto, long)}: si hubo una eliminación entretanto, el detalle leído
+ * puede ser anterior al commit y no se guarda.
+ */
+@Component
+public class ProductDetailCache {
+
+    private final Cache<Integer, ProductResponseDto> byId;
+    private final Cache<String, Integer> idByQrHash;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductDetailCache(@Value("${product.cache.max-size:10000}") long maxSize,
+                              @Value("${product.cache.ttl-minutes:10}") long ttlMinutes) {
+        this.byId = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build();
+        // El hash de un QR no cambia de producto: sólo se invalida junto con el detalle
+        this.idByQrHash = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build();
+    }
+
+    public Optional<ProductResponseDto> getById(Integer id) {
+        return Optional.ofNullable(byId.getIfPresent(id));
+    }
+
+    public Optional<ProductResponseDto> getByQrHash(String qrHash) {
+        Integer id = idByQrHash.getIfPresent(qrHash);
+        return id != null ? getById(id) : Optional.empty();
+    }
+
+    /**
+     * Generación actual de la caché; cambia con cada eliminación.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Guarda el detalle sólo si no hubo eliminaciones desde {@code readGeneration}. La comprobación se hace
+     * dentro de compute sobre la misma clave, así que no se intercala con la invalidación de {@link #evict(Integer)}.
+     */
+    public void put(ProductResponseDto dto, long readGeneration) {
+        ProductResponseDto stored = byId.asMap().compute(dto.getId(),
+            (id, current) -> generation.get() == readGeneration ? dto : current);
+        if (stored == dto && dto.getQrHash() != null) {
+            idByQrHash.put(dto.getQrHash(), dto.getId());
+        }
+    }
+
+    public void evict(Integer id) {
+        // Primero la generación: cualquier put en curso con una lectura anterior queda descartado
+        generation.incrementAndGet();
+        ProductResponseDto cached = byId.getIfPresent(id);
+        byId.invalidate(id);
+        if (cached != null && cached.getQrHash() != null) {
+            idByQrHash.invalidate(cached.getQrHash());
+        }
+    }
+
+    /**
+     * Elimina el producto de la caché al confirmar la transacción en curso (o de inmediato si no hay transacción).
+     */
+    public void evictAfterCommit(Integer id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(id);
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("byId", toMap(byId.stats(), byId.estimatedSize()));
+        stats.put("byQrHash", toMap(idByQrHash.stats(), idByQrHash.estimatedSize()));
+        return stats;
+    }
+
+    private static Map<String, Object> toMap(CacheStats stats, long size) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", size);
+        map.put("hits", stats.hitCount());
+        map.put("misses", stats.missCount());
+        map.put("hitRate", stats.hitRate());
+        map.put("evictions", stats.evictionCount());
+        return map;
+    }
+}
@@ -0,0 +1,119 @@
+package com.labMetricas.LabMetricas.product.service;
+
+import com.labMetricas.LabMetricas.product.model.Product;
+import com.labMetricas.LabMetricas.product.model.dto.ProductFilterDto;
+import com.labMetricas.LabMetricas.product.repository.ProductRepository;
+import com.labMetricas.LabMetricas.product.specification.ProductSpecifications;
+import com.labMetricas.LabMetricas.util.CsvUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación completa de productos a CSV.
+ * Las filas se leen con un cursor de sólo avance (fetch size) y se escriben directamente en la respuesta;
+ * el contexto de persistencia se limpia por bloques, así que la memoria no depende del número de filas.
+ */
+@Service
+public class ProductExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportService.class);
+
+    private static final int FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ProductExportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public void writeCsv(ProductFilterDto filter, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CsvUtils.UTF8_BOM);
+        CsvUtils.writeRow(writer,
+            "id", "codigo", "nombre", "lote", "loteProveedor", "codigoProducto", "numeroAnalisis",
+            "fabricante", "distribuidor", "stockCatalogueId", "catalogo", "sku", "estado", "almacen",
+            "unidadMedida", "fechaIngreso", "fechaMuestreo", "fechaCaducidad", "reanalisis",
+            "numeroContenedores", "cantidadTotal", "descuentos", "qrHash", "creadoPor", "createdAt", "updatedAt");
+
+        long rows;
+        try {
+            rows = transactionTemplate.execute(status -> {
+                long count = 0;
+                try (Stream<Product> stream = productRepository.streamAll(
+                        ProductSpecifications.fromFilter(filter), Sort.by(Sort.Direction.ASC, "id"), FETCH_SIZE)) {
+                    Iterator<Product> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        writeProduct(writer, iterator.next());
+                        if (++count % FETCH_SIZE == 0) {
+                            // Soltar las entidades ya escritas
+                            entityManager.clear();
+                            writer.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        logger.info("Product export finished: {} rows", rows);
+    }
+
+    private void writeProduct(Writer writer, Product p) throws IOException {
+        CsvUtils.writeRow(writer,
+            p.getId(),
+            p.getCodigo(),
+            p.getNombre(),
+            p.getLote(),
+            p.getLoteProveedor(),
+            p.getCodigoProducto(),
+            p.getNumeroAnalisis(),
+            p.getFabricante(),
+            p.getDistribuidor(),
+            p.getStockCatalogue() != null ? p.getStockCatalogue().getId() : null,
+            p.getStockCatalogue() != null ? p.getStockCatalogue().getName() : null,
+            p.getStockCatalogue() != null ? p.getStockCatalogue().getSku() : null,
+            p.getProductStatus() != null ? p.getProductStatus().getName() : null,
+            p.getWarehouseType() != null ? p.getWarehouseType().getCode() : null,
+            p.getUnitOfMeasurement() != null ? p.getUnitOfMeasurement().getCode() : null,
+            p.getFecha(),
+            p.getFechaMuestreo(),
+            p.getCaducidad(),
+            p.getReanalisis(),
+            p.getNumeroContenedores(),
+            p.getCantidadTotal(),
+            p.getDescuentos(),
+            p.getQrCode() != null ? p.getQrCode().getQrHash() : null,
+            p.getCreatedByUser() != null ? p.getCreatedByUser().getEmail() : null,
+            p.getCreatedAt(),
+            p.getUpdatedAt());
+    }
+}
@@ -0,0 +1,420 @@
+package com.labMetricas.LabMetricas.product.service;
+
+import com.labMetricas.LabMetricas.auditLog.model.AuditChanges;
+import com.labMetricas.LabMetricas.auditLog.model.AuditEvent;
+import com.labMetricas.LabMetricas.auditLog.service.AuditLogPublisher;
+import com.labMetricas.LabMetricas.catalogue.model.StockCatalogue;
+import com.labMetricas.LabMetricas.catalogue.repository.StockCatalogueRepository;
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
+import com.labMetricas.LabMetricas.enums.TipoMovimiento;
+import com.labMetricas.LabMetricas.enums.TypeResponse;
+import com.labMetricas.LabMetricas.movement.model.ProductStockMovement;
+import com.labMetricas.LabMetricas.product.model.Product;
+import com.labMetricas.LabMetricas.product.model.dto.CreateProductDto;
+import com.labMetricas.LabMetricas.product.model.dto.ProductImportResultDto;
+import com.labMetricas.LabMetricas.product.repository.ProductJdbcRepository;
+import com.labMetricas.LabMetricas.product.search.ProductSearchIndexer;
+import com.labMetricas.LabMetricas.qrcode.model.QrCode;
+import com.labMetricas.LabMetricas.qrcode.service.QrCodeService;
+import com.labMetricas.LabMetricas.status.model.ProductStatus;
+import com.labMetricas.LabMetricas.status.repository.ProductStatusRepository;
+import com.labMetricas.LabMetricas.unitofmeasurement.model.UnitOfMeasurement;
+import com.labMetricas.LabMetricas.unitofmeasurement.repository.UnitOfMeasurementRepository;
+import com.labMetricas.LabMetricas.user.model.User;
+import com.labMetricas.LabMetricas.user.repository.UserRepository;
+import com.labMetricas.LabMetricas.util.CsvReader;
+import com.labMetricas.LabMetricas.util.CsvUtils;
+import com.labMetricas.LabMetricas.util.ResponseObject;
+import com.labMetricas.LabMetricas.warehousetype.model.WarehouseType;
+import com.labMetricas.LabMetricas.warehousetype.repository.WarehouseTypeRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de productos desde CSV.
+ * El archivo se lee registro por registro (los campos entre comillas pueden ocupar varias líneas) y se procesa en bloques de BATCH_SIZE filas: las referencias
+ * (catálogo, estado, almacén, unidad) se validan con una consulta por tipo y bloque, y los QR,
+ * productos y movimientos de kardex se insertan con sentencias JDBC por lotes en una transacción por bloque.
+ */
+@Service
+public class ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(
+        "stockcatalogueid", "productstatusid", "nombre", "lote", "loteproveedor",
+        "fechaingreso", "numerocontenedores", "cantidadtotal"
+    );
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private StockCatalogueRepository stockCatalogueRepository;
+
+    @Autowired
+    private ProductStatusRepository productStatusRepository;
+
+    @Autowired
+    private WarehouseTypeRepository warehouseTypeRepository;
+
+    @Autowired
+    private UnitOfMeasurementRepository unitOfMeasurementRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuditLogPublisher auditLogPublisher;
+
+    @Autowired
+    private QrCodeService qrCodeService;
+
+    @Autowired
+    private ProductSearchIndexer productSearchIndexer;
+
+    @Autowired
+    private Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ProductImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ResponseEntity<ResponseObject> importProducts(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: File is required", null, TypeResponse.ERROR)
+            );
+        }
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        if (!filename.endsWith(".csv")) {
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: Only CSV files are supported (export the spreadsheet as CSV UTF-8)", null, TypeResponse.ERROR)
+            );
+        }
+
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User currentUser = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+            ProductImportResultDto result = new ProductImportResultDto();
+
+            try (CsvReader reader = new CsvReader(
+                    new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)))) {
+                List<String> header = reader.readRecord();
+                if (header == null) {
+                    return ResponseEntity.badRequest().body(
+                        new ResponseObject("Validation error: File is empty", null, TypeResponse.ERROR)
+                    );
+                }
+                Map<String, Integer> columns = parseHeader(header);
+                List<String> missing = REQUIRED_COLUMNS.stream().filter(c -> !columns.containsKey(c)).toList();
+                if (!missing.isEmpty()) {
+                    return ResponseEntity.badRequest().body(
+                        new ResponseObject("Validation error: Missing columns " + missing, null, TypeResponse.ERROR)
+                    );
+                }
+
+                List<ParsedRow> batch = new ArrayList<>(BATCH_SIZE);
+                List<String> fields;
+                while ((fields = reader.readRecord()) != null) {
+                    if (fields.size() == 1 && fields.get(0).isBlank()) {
+                        continue;
+                    }
+                    result.setTotalRows(result.getTotalRows() + 1);
+                    ParsedRow row = parseRow(reader.getRecordLineNumber(), fields, columns, result);
+                    if (row != null) {
+                        batch.add(row);
+                    }
+                    if (batch.size() == BATCH_SIZE) {
+                        processBatch(batch, currentUser, result);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    processBatch(batch, currentUser, result);
+                }
+            }
+
+            logger.info("Product import finished: {} rows, {} imported, {} failed",
+                result.getTotalRows(), result.getImported(), result.getFailed());
+
+            return ResponseEntity.ok(
+                new ResponseObject("Product import completed", result, TypeResponse.SUCCESS)
+            );
+        } catch (RuntimeException e) {
+            logger.error("Validation error during product import: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
+        } catch (Exception e) {
+            logger.error("Error importing products", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                new ResponseObject("Error importing products: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
+        }
+    }
+
+    /**
+     * Valida las referencias del bloque y, en una sola transacción, inserta QR, productos y movimientos por lotes.
+     */
+    private void processBatch(List<ParsedRow> batch, User currentUser, ProductImportResultDto result) {
+        Map<Integer, StockCatalogue> catalogues = loadActive(
+            collectIds(batch, dto -> dto.getStockCatalogueId()),
+            ids -> stockCatalogueRepository.findAllById(ids).stream().filter(c -> c.getDeletedAt() == null).toList(),
+            StockCatalogue::getId);
+        Map<Integer, ProductStatus> statuses = loadActive(
+            collectIds(batch, dto -> dto.getProductStatusId()),
+            ids -> productStatusRepository.findAllById(ids).stream().filter(st -> st.getDeletedAt() == null).toList(),
+            ProductStatus::getId);
+        Map<Integer, WarehouseType> warehouseTypes = loadActive(
+            collectIds(batch, dto -> dto.getWarehouseTypeId()),
+            ids -> warehouseTypeRepository.findAllById(ids).stream().filter(w -> w.getDeletedAt() == null).toList(),
+            WarehouseType::getId);
+        Map<Integer, UnitOfMeasurement> units = loadActive(
+            collectIds(batch, dto -> dto.getUnitOfMeasurementId()),
+            ids -> unitOfMeasurementRepository.findAllById(ids).stream().filter(u -> u.getDeletedAt() == null).toList(),
+            UnitOfMeasurement::getId);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<QrCode> qrCodes = new ArrayList<>();
+        List<Product> products = new ArrayList<>();
+        List<ProductStockMovement> movements = new ArrayList<>();
+        List<ParsedRow> accepted = new ArrayList<>();
+
+        for (ParsedRow row : batch) {
+            CreateProductDto dto = row.dto();
+            StockCatalogue stockCatalogue = catalogues.get(dto.getStockCatalogueId());
+            ProductStatus productStatus = statuses.get(dto.getProductStatusId());
+            WarehouseType warehouseType = dto.getWarehouseTypeId() != null ? warehouseTypes.get(dto.getWarehouseTypeId()) : null;
+            UnitOfMeasurement unit = dto.getUnitOfMeasurementId() != null ? units.get(dto.getUnitOfMeasurementId()) : null;
+
+            String error = null;
+            if (stockCatalogue == null) {
+                error = "Stock catalogue not found or deleted";
+            } else if (productStatus == null) {
+                error = "Product status not found or deleted";
+            } else if (dto.getWarehouseTypeId() != null && warehouseType == null) {
+                error = "Warehouse type not found or deleted";
+            } else if (dto.getUnitOfMeasurementId() != null && unit == null) {
+                error = "Unit of measurement not found or deleted";
+            }
+            if (error != null) {
+                addError(result, row.lineNumber(), dto.getLote(), error);
+                continue;
+            }
+
+            QrCode qrCode = new QrCode();
+            qrCode.setQrContenido(qrCodeService.generateQrHash(dto.getLote()));
+            qrCode.setCreatedAt(now);
+            qrCode.setUpdatedAt(now);
+            qrCodes.add(qrCode);
+
+            Product product = new Product();
+            product.setStockCatalogue(stockCatalogue);
+            product.setProductStatus(productStatus);
+            product.setQrCode(qrCode);
+            product.setCreatedByUser(currentUser);
+            product.setWarehouseType(warehouseType);
+            product.setUnitOfMeasurement(unit);
+            product.setNombre(dto.getNombre().trim());
+            product.setLote(dto.getLote());
+            product.setLoteProveedor(dto.getLoteProveedor());
+            product.setFabricante(dto.getFabricante());
+            product.setDistribuidor(dto.getDistribuidor());
+            product.setCodigoProducto(dto.getCodigoProducto());
+            product.setNumeroAnalisis(dto.getNumeroAnalisis());
+            product.setFecha(dto.getFechaIngreso());
+            product.setCaducidad(dto.getFechaCaducidad());
+            product.setReanalisis(dto.getReanalisis());
+            product.setFechaMuestreo(dto.getFechaMuestreo());
+            product.setNumeroContenedores(dto.getNumeroContenedores());
+            product.setCantidadTotal(dto.getCantidadTotal());
+            product.setDescuentos(dto.getDescuentos() != null ? dto.getDescuentos() : 0);
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            products.add(product);
+
+            ProductStockMovement movement = new ProductStockMovement();
+            movement.setUser(currentUser);
+            movement.setStockCatalogue(stockCatalogue);
+            movement.setTipo(TipoMovimiento.entrada);
+            movement.setCantidad(BigDecimal.valueOf(dto.getNumeroContenedores()));
+            movement.setReferencia(truncate("Ingreso Inicial - Lote " + dto.getLote(), 100));
+            movement.setCreatedAt(now);
+            movement.setUpdatedAt(now);
+            movements.add(movement);
+            accepted.add(row);
+        }
+
+        if (products.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productJdbcRepository.insertQrCodes(qrCodes);
+                productJdbcRepository.insertProducts(products);
+                productJdbcRepository.insertMovements(movements);
+                productJdbcRepository.touchStockCatalogues(
+                    products.stream().map(p -> p.getStockCatalogue().getId()).collect(Collectors.toCollection(LinkedHashSet::new)),
+                    now);
+
+                // Un evento por producto para que cada uno tenga su alta en el historial por entidad
+                auditLogPublisher.publishAll(products.stream()
+                    .map(p -> AuditEvent.of(AuditAction.IMPORT, AuditEntityType.PRODUCT, p.getId(), p.getNombre(),
+                        AuditChanges.of("lote", p.getLote(), "catalogo", p.getStockCatalogue().getName()),
+                        currentUser.getId(), now))
+                    .toList());
+
+                // Los INSERT por JDBC no pasan por Hibernate: indexar el bloque al confirmar
+                productSearchIndexer.reindex(products.stream().map(Product::getId).toList());
+            });
+            result.setImported(result.getImported() + products.size());
+        } catch (Exception e) {
+            // El bloque completo se revierte: se reporta cada fila del bloque como fallida
+            logger.error("Error inserting product import batch", e);
+            for (ParsedRow row : accepted) {
+                addError(result, row.lineNumber(), row.dto().getLote(), "Batch insert failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private ParsedRow parseRow(long lineNumber, List<String> fields, Map<String, Integer> columns, ProductImportResultDto result) {
+        String lote = value(fields, columns, "lote");
+        try {
+            CreateProductDto dto = new CreateProductDto();
+            dto.setStockCatalogueId(parseInteger(value(fields, columns, "stockcatalogueid")));
+            dto.setProductStatusId(parseInteger(value(fields, columns, "productstatusid")));
+            dto.setWarehouseTypeId(parseInteger(value(fields, columns, "warehousetypeid")));
+            dto.setUnitOfMeasurementId(parseInteger(value(fields, columns, "unitofmeasurementid")));
+            dto.setNombre(value(fields, columns, "nombre"));
+            dto.setLote(lote);
+            dto.setLoteProveedor(value(fields, columns, "loteproveedor"));
+            dto.setFabricante(value(fields, columns, "fabricante"));
+            dto.setDistribuidor(value(fields, columns, "distribuidor"));
+            dto.setCodigoProducto(value(fields, columns, "codigoproducto"));
+            dto.setNumeroAnalisis(value(fields, columns, "numeroanalisis"));
+            dto.setFechaIngreso(parseDate(value(fields, columns, "fechaingreso")));
+            dto.setFechaCaducidad(parseDate(value(fields, columns, "fechacaducidad")));
+            dto.setReanalisis(parseDate(value(fields, columns, "reanalisis")));
+            dto.setFechaMuestreo(parseDate(value(fields, columns, "fechamuestreo")));
+            dto.setNumeroContenedores(parseInteger(value(fields, columns, "numerocontenedores")));
+            dto.setCantidadTotal(parseInteger(value(fields, columns, "cantidadtotal")));
+            dto.setDescuentos(parseInteger(value(fields, columns, "descuentos")));
+
+            // Mismas reglas que POST /api/products
+            Set<ConstraintViolation<CreateProductDto>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                addError(result, lineNumber, lote, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+                return null;
+            }
+            return new ParsedRow(lineNumber, dto);
+        } catch (RuntimeException e) {
+            addError(result, lineNumber, lote, "Invalid value: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(List<String> names) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            // Quitar BOM de archivos exportados desde Excel
+            if (i == 0 && !name.isEmpty() && name.charAt(0) == CsvUtils.UTF8_BOM) {
+                name = name.substring(1);
+            }
+            columns.put(name.trim().toLowerCase(Locale.ROOT), i);
+        }
+        return columns;
+    }
+
+    private static String value(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String raw = fields.get(index).trim();
+        return raw.isEmpty() ? null : raw;
+    }
+
+    private static Integer parseInteger(String value) {
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    private static LocalDate parseDate(String value) {
+        return value != null ? LocalDate.parse(value) : null;
+    }
+
+    private static Set<Integer> collectIds(List<ParsedRow> batch, Function<CreateProductDto, Integer> extractor) {
+        Set<Integer> ids = new HashSet<>();
+        for (ParsedRow row : batch) {
+            Integer id = extractor.apply(row.dto());
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static <T> Map<Integer, T> loadActive(Set<Integer> ids, Function<Set<Integer>, List<T>> loader, Function<T, Integer> idOf) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return loader.apply(ids).stream().collect(Collectors.toMap(idOf, Function.identity()));
+    }
+
+    private static void addError(ProductImportResultDto result, long lineNumber, String lote, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new ProductImportResultDto.RowError(lineNumber, lote, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private record ParsedRow(long lineNumber, CreateProductDto dto) {
+    }
+}
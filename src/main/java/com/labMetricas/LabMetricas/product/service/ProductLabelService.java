@@ -0,0 +1,310 @@
+package com.labMetricas.LabMetricas.product.service;
+
+import com.google.zxing.WriterException;
+import com.labMetricas.LabMetricas.product.model.Product;
+import com.labMetricas.LabMetricas.product.model.dto.LabelSheetRequestDto;
+import com.labMetricas.LabMetricas.product.repository.ProductRepository;
+import com.labMetricas.LabMetricas.qrcode.service.QrCodeService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Hojas de etiquetas para imprimir: cada etiqueta lleva el QR del producto con nombre, lote, caducidad
+ * y código de almacén. Las páginas (A4 a 200 ppp, 3 x 8 etiquetas) se dibujan en paralelo en un pool
+ * acotado compartido y se escriben en un ZIP de PNG conforme se terminan, en orden, sin armar el documento completo.
+ */
+@Service
+public class ProductLabelService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductLabelService.class);
+
+    public static final int MAX_LABELS = 2000;
+
+    private static final int PAGE_WIDTH = 1654;
+    private static final int PAGE_HEIGHT = 2339;
+    private static final int PAGE_MARGIN = 40;
+    private static final int COLUMNS = 3;
+    private static final int ROWS = 8;
+    private static final int LABELS_PER_PAGE = COLUMNS * ROWS;
+    private static final int CELL_PADDING = 12;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Paleta de 1 bit: los PNG de página quedan pequeños y el QR conserva bordes nítidos al imprimir
+    private static final IndexColorModel BLACK_AND_WHITE = new IndexColorModel(1, 2,
+        new byte[]{0, (byte) 0xFF}, new byte[]{0, (byte) 0xFF}, new byte[]{0, (byte) 0xFF});
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private QrCodeService qrCodeService;
+
+    @Value("${product.labels.threads:0}")
+    private int threads;
+
+    private ThreadPoolExecutor executor;
+    private int maxPagesInFlight;
+
+    @PostConstruct
+    void start() {
+        int poolSize = threads > 0 ? threads : Math.min(4, Runtime.getRuntime().availableProcessors());
+        AtomicInteger counter = new AtomicInteger();
+        // Cola acotada: si se llena, la página se dibuja en el hilo de la petición en lugar de acumularse
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(poolSize * 4),
+            runnable -> {
+                Thread thread = new Thread(runnable, "label-render-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        this.maxPagesInFlight = poolSize * 2;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public record LabelData(String qrHash, String nombre, String lote, LocalDate caducidad, String warehouseCode) {
+    }
+
+    /**
+     * Resuelve los productos a etiquetar (en el orden pedido, o por fecha de ingreso para un catálogo).
+     * Lanza RuntimeException con el motivo si la petición no es válida.
+     */
+    public List<LabelData> resolveLabels(LabelSheetRequestDto request) {
+        List<Product> products;
+        if (request.getProductIds() != null && !request.getProductIds().isEmpty()) {
+            Set<Integer> ids = request.getProductIds().stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+            if (ids.size() > MAX_LABELS) {
+                throw new RuntimeException("At most " + MAX_LABELS + " labels per request");
+            }
+            Map<Integer, Product> found = productRepository.findWithDetailsByIdIn(ids).stream()
+                .filter(p -> p.getDeletedAt() == null)
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+            List<Integer> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+            if (!missing.isEmpty()) {
+                throw new RuntimeException("Products not found: " + missing);
+            }
+            products = ids.stream().map(found::get).toList();
+        } else if (request.getStockCatalogueId() != null) {
+            if (request.getFechaDesde() == null || request.getFechaHasta() == null) {
+                throw new RuntimeException("fechaDesde and fechaHasta are required with stockCatalogueId");
+            }
+            if (request.getFechaDesde().isAfter(request.getFechaHasta())) {
+                throw new RuntimeException("fechaDesde must not be after fechaHasta");
+            }
+            // Una fila de más basta para saber si el rango supera el límite sin cargar todo el catálogo
+            products = productRepository.findByStockCatalogueIdAndFechaBetweenAndDeletedAtIsNullOrderByFechaAscIdAsc(
+                request.getStockCatalogueId(), request.getFechaDesde(), request.getFechaHasta(),
+                PageRequest.of(0, MAX_LABELS + 1));
+            if (products.size() > MAX_LABELS) {
+                throw new RuntimeException("At most " + MAX_LABELS + " labels per request; narrow the date range");
+            }
+        } else {
+            throw new RuntimeException("productIds or stockCatalogueId with a date range is required");
+        }
+        if (products.isEmpty()) {
+            throw new RuntimeException("No products found for the requested labels");
+        }
+
+        List<LabelData> labels = new ArrayList<>(products.size());
+        for (Product product : products) {
+            if (product.getQrCode() == null) {
+                throw new RuntimeException("Product " + product.getId() + " has no QR code");
+            }
+            labels.add(new LabelData(
+                product.getQrCode().getQrHash(),
+                product.getNombre(),
+                product.getLote(),
+                product.getCaducidad(),
+                product.getWarehouseType() != null ? product.getWarehouseType().getCode() : null));
+        }
+        return labels;
+    }
+
+    /**
+     * Escribe las hojas como un ZIP de PNG (una entrada por página). Cada página se entrega en cuanto está lista
+     * y las anteriores ya se escribieron; como máximo hay unas pocas páginas por petición en vuelo.
+     */
+    public void writeSheets(List<LabelData> labels, OutputStream outputStream) throws IOException {
+        List<List<LabelData>> pages = new ArrayList<>();
+        for (int i = 0; i < labels.size(); i += LABELS_PER_PAGE) {
+            pages.add(labels.subList(i, Math.min(i + LABELS_PER_PAGE, labels.size())));
+        }
+
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        // Los PNG ya van comprimidos
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        int submitted = 0;
+        int written = 0;
+        try {
+            while (written < pages.size()) {
+                while (submitted < pages.size() && inFlight.size() < maxPagesInFlight) {
+                    List<LabelData> page = pages.get(submitted++);
+                    inFlight.add(executor.submit(() -> renderPage(page)));
+                }
+                byte[] png = inFlight.removeFirst().get();
+                zip.putNextEntry(new ZipEntry(String.format("etiquetas-%03d.png", ++written)));
+                zip.write(png);
+                zip.closeEntry();
+                zip.flush();
+            }
+            zip.finish();
+            logger.info("Label sheets written: {} labels in {} pages", labels.size(), pages.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Label rendering interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error rendering label sheet: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            // Si el cliente cortó la descarga o falló una página, no seguir dibujando las demás
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private byte[] renderPage(List<LabelData> labels) throws WriterException, IOException {
+        BufferedImage page = new BufferedImage(PAGE_WIDTH, PAGE_HEIGHT, BufferedImage.TYPE_BYTE_BINARY, BLACK_AND_WHITE);
+        Graphics2D graphics = page.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, PAGE_WIDTH, PAGE_HEIGHT);
+            graphics.setColor(Color.BLACK);
+
+            int cellWidth = (PAGE_WIDTH - 2 * PAGE_MARGIN) / COLUMNS;
+            int cellHeight = (PAGE_HEIGHT - 2 * PAGE_MARGIN) / ROWS;
+            for (int i = 0; i < labels.size(); i++) {
+                int x = PAGE_MARGIN + (i % COLUMNS) * cellWidth;
+                int y = PAGE_MARGIN + (i / COLUMNS) * cellHeight;
+                drawLabel(graphics, labels.get(i), x, y, cellWidth, cellHeight);
+            }
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(page, "PNG", baos);
+        return baos.toByteArray();
+    }
+
+    private void drawLabel(Graphics2D graphics, LabelData label, int x, int y, int width, int height)
+            throws WriterException {
+        // Línea de corte
+        graphics.setStroke(new BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f, new float[]{6f, 6f}, 0f));
+        graphics.drawRect(x, y, width - 1, height - 1);
+
+        int qrSize = height - 2 * CELL_PADDING;
+        graphics.drawImage(qrCodeService.generateQrCodeBitmap(label.qrHash(), qrSize), x + CELL_PADDING, y + CELL_PADDING, null);
+
+        int textX = x + qrSize + 2 * CELL_PADDING;
+        int textWidth = width - qrSize - 3 * CELL_PADDING;
+        int lineY = y + CELL_PADDING + 30;
+
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 24));
+        lineY = drawWrapped(graphics, label.nombre() != null ? label.nombre() : "", textX, lineY, textWidth, 3);
+
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 20));
+        lineY += 8;
+        drawFitted(graphics, "Lote: " + valueOrDash(label.lote()), textX, lineY, textWidth);
+        lineY += 28;
+        drawFitted(graphics, "Cad.: " + (label.caducidad() != null ? label.caducidad().format(DATE_FORMAT) : "-"),
+            textX, lineY, textWidth);
+        lineY += 28;
+        drawFitted(graphics, "Almacén: " + valueOrDash(label.warehouseCode()), textX, lineY, textWidth);
+    }
+
+    /**
+     * Dibuja el texto en varias líneas (cortando por palabras) hasta {@code maxLines}; devuelve la Y siguiente.
+     */
+    private int drawWrapped(Graphics2D graphics, String text, int x, int y, int width, int maxLines) {
+        FontMetrics metrics = graphics.getFontMetrics();
+        String[] words = text.trim().split("\\s+");
+        StringBuilder line = new StringBuilder();
+        int lines = 0;
+        for (int i = 0; i < words.length && lines < maxLines; i++) {
+            String candidate = line.isEmpty() ? words[i] : line + " " + words[i];
+            if (metrics.stringWidth(candidate) <= width || line.isEmpty()) {
+                line.setLength(0);
+                line.append(candidate);
+                continue;
+            }
+            boolean last = ++lines == maxLines;
+            drawFitted(graphics, last ? line + " " + words[i] : line.toString(), x, y, width);
+            y += metrics.getHeight();
+            line.setLength(0);
+            line.append(words[i]);
+            if (last) {
+                return y;
+            }
+        }
+        if (!line.isEmpty() && lines < maxLines) {
+            drawFitted(graphics, line.toString(), x, y, width);
+            y += metrics.getHeight();
+        }
+        return y;
+    }
+
+    /**
+     * Dibuja el texto en una línea, recortándolo con "..." si no cabe en el ancho.
+     */
+    private void drawFitted(Graphics2D graphics, String text, int x, int y, int width) {
+        FontMetrics metrics = graphics.getFontMetrics();
+        if (metrics.stringWidth(text) > width) {
+            int end = text.length();
+            while (end > 0 && metrics.stringWidth(text.substring(0, end) + "...") > width) {
+                end--;
+            }
+            text = text.substring(0, end) + "...";
+        }
+        graphics.drawString(text, x, y);
+    }
+
+    private static String valueOrDash(String value) {
+        return value != null && !value.isBlank() ? value : "-";
+    }
+}
@@ -0,0 +1,118 @@
+package com.labMetricas.LabMetricas.product.service;
+
+import com.labMetricas.LabMetricas.enums.TypeResponse;
+import com.labMetricas.LabMetricas.product.model.Product;
+import com.labMetricas.LabMetricas.product.model.dto.ProductResponseDto;
+import com.labMetricas.LabMetricas.product.model.dto.ProductSearchResultDto;
+import com.labMetricas.LabMetricas.util.CursorPageResponse;
+import com.labMetricas.LabMetricas.util.ResponseObject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.search.engine.search.aggregation.AggregationKey;
+import org.hibernate.search.engine.search.predicate.dsl.BooleanPredicateClausesStep;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Búsqueda de texto sobre el índice Lucene de productos (Hibernate Search).
+ * Coincidencias parciales en nombre, lote, lote de proveedor, código y fabricante, ordenadas por relevancia,
+ * con conteos por estado, tipo de almacén y fabricante.
+ */
+@Service
+public class ProductSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+
+    private static final int MAX_FACET_TERMS = 20;
+
+    private static final AggregationKey<Map<String, Long>> STATUS_FACET = AggregationKey.of("status");
+    private static final AggregationKey<Map<String, Long>> WAREHOUSE_TYPE_FACET = AggregationKey.of("warehouseType");
+    private static final AggregationKey<Map<String, Long>> FABRICANTE_FACET = AggregationKey.of("fabricante");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Transactional(readOnly = true)
+    public ResponseEntity<ResponseObject> search(String query, Integer statusId, Integer warehouseTypeId,
+                                                 String fabricante, int page, int size) {
+        try {
+            if (query == null || query.isBlank()) {
+                return ResponseEntity.badRequest().body(
+                    new ResponseObject("Validation error: Search text is required", null, TypeResponse.ERROR)
+                );
+            }
+            String text = query.trim();
+            int pageSize = CursorPageResponse.normalizeSize(size);
+            int pageNumber = Math.max(page, 0);
+
+            SearchResult<Product> result = Search.session(entityManager).search(Product.class)
+                .where(f -> {
+                    BooleanPredicateClausesStep<?> bool = f.bool();
+                    bool.must(f.bool()
+                        // Código o lote exacto: la coincidencia más relevante
+                        .should(f.match().fields("lote", "loteProveedor", "codigo", "codigoProducto", "stockCatalogue.sku")
+                            .matching(text).boost(4f))
+                        // Fragmento de código o lote
+                        .should(f.match().fields("lote_parcial", "loteProveedor_parcial", "codigo_parcial", "codigoProducto_parcial")
+                            .matching(text).boost(2f))
+                        // Palabras completas de nombre, fabricante, distribuidor o catálogo
+                        .should(f.match().field("nombre").boost(3f).field("fabricante").field("distribuidor").field("stockCatalogue.name")
+                            .matching(text))
+                        // Inicio de palabras del nombre
+                        .should(f.match().field("nombre_parcial").matching(text)));
+                    bool.mustNot(f.exists().field("deletedAt"));
+                    if (statusId != null) {
+                        bool.filter(f.match().field("productStatus.id").matching(statusId));
+                    }
+                    if (warehouseTypeId != null) {
+                        bool.filter(f.match().field("warehouseType.id").matching(warehouseTypeId));
+                    }
+                    if (fabricante != null && !fabricante.isBlank()) {
+                        bool.filter(f.match().field("fabricante_faceta").matching(fabricante.trim()));
+                    }
+                    return bool;
+                })
+                .aggregation(STATUS_FACET, f -> f.terms().field("productStatus.name", String.class).maxTermCount(MAX_FACET_TERMS))
+                .aggregation(WAREHOUSE_TYPE_FACET, f -> f.terms().field("warehouseType.code", String.class).maxTermCount(MAX_FACET_TERMS))
+                .aggregation(FABRICANTE_FACET, f -> f.terms().field("fabricante_faceta", String.class).maxTermCount(MAX_FACET_TERMS))
+                .loading(o -> o.graph(Product.LISTING_GRAPH, GraphSemantic.FETCH))
+                .fetch(pageNumber * pageSize, pageSize);
+
+            List<ProductResponseDto> content = result.hits().stream()
+                .map(productService::convertToResponseDto)
+                .toList();
+
+            ProductSearchResultDto response = new ProductSearchResultDto(
+                content,
+                pageNumber,
+                pageSize,
+                result.total().hitCount(),
+                result.aggregation(STATUS_FACET),
+                result.aggregation(WAREHOUSE_TYPE_FACET),
+                result.aggregation(FABRICANTE_FACET)
+            );
+
+            return ResponseEntity.ok(
+                new ResponseObject("Products retrieved successfully", response, TypeResponse.SUCCESS)
+            );
+        } catch (Exception e) {
+            logger.error("Error searching products", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                new ResponseObject("Error searching products", null, TypeResponse.ERROR)
+            );
+        }
+    }
+}
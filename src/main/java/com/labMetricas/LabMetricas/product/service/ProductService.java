@@ -2,21 +2,25 @@ package com.labMetricas.LabMetricas.product.service;
 
 import com.labMetricas.LabMetricas.catalogue.model.StockCatalogue;
 import com.labMetricas.LabMetricas.catalogue.repository.StockCatalogueRepository;
-import com.labMetricas.LabMetricas.enums.TipoMovimiento;
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
 import com.labMetricas.LabMetricas.enums.TypeResponse;
-import com.labMetricas.LabMetricas.movement.model.ProductStockMovement;
-import com.labMetricas.LabMetricas.movement.repository.ProductStockMovementRepository;
 import com.labMetricas.LabMetricas.product.model.Product;
 import com.labMetricas.LabMetricas.product.model.ProductDiscountLog;
+import com.labMetricas.LabMetricas.product.model.dto.BatchProductDiscountItemDto;
+import com.labMetricas.LabMetricas.product.model.dto.BatchProductDiscountResultDto;
 import com.labMetricas.LabMetricas.product.model.dto.CreateProductDiscountDto;
 import com.labMetricas.LabMetricas.product.model.dto.ProductDiscountLogDto;
 import com.labMetricas.LabMetricas.product.model.dto.CreateProductDto;
+import com.labMetricas.LabMetricas.product.model.dto.ProductFilterDto;
 import com.labMetricas.LabMetricas.product.model.dto.ProductResponseDto;
 import com.labMetricas.LabMetricas.product.model.dto.UpdateProductDto;
 import com.labMetricas.LabMetricas.product.repository.ProductDiscountLogRepository;
+import com.labMetricas.LabMetricas.product.repository.ProductJdbcRepository;
 import com.labMetricas.LabMetricas.product.repository.ProductRepository;
+import com.labMetricas.LabMetricas.product.search.ProductSearchIndexer;
+import com.labMetricas.LabMetricas.product.specification.ProductSpecifications;
 import com.labMetricas.LabMetricas.qrcode.model.QrCode;
-import com.labMetricas.LabMetricas.qrcode.repository.QrCodeRepository;
 import com.labMetricas.LabMetricas.status.model.ProductStatus;
 import com.labMetricas.LabMetricas.status.repository.ProductStatusRepository;
 import com.labMetricas.LabMetricas.unitofmeasurement.model.UnitOfMeasurement;
@@ -24,10 +28,15 @@ import com.labMetricas.LabMetricas.unitofmeasurement.repository.UnitOfMeasuremen
 import com.labMetricas.LabMetricas.user.model.User;
 import com.labMetricas.LabMetricas.user.repository.UserRepository;
 import com.labMetricas.LabMetricas.qrcode.service.QrCodeService;
-import com.labMetricas.LabMetricas.auditLog.model.AuditLog;
-import com.labMetricas.LabMetricas.auditLog.repository.AuditLogRepository;
+import com.labMetricas.LabMetricas.qrcode.service.QrImageCache;
+import com.labMetricas.LabMetricas.auditLog.model.AuditChanges;
+import com.labMetricas.LabMetricas.auditLog.model.AuditEvent;
+import com.labMetricas.LabMetricas.auditLog.service.AuditLogPublisher;
+import com.labMetricas.LabMetricas.util.CursorPageResponse;
+import com.labMetricas.LabMetricas.util.KeysetCursor;
 import com.labMetricas.LabMetricas.util.PageResponse;
 import com.labMetricas.LabMetricas.util.ResponseObject;
+import com.labMetricas.LabMetricas.util.SortParser;
 import com.labMetricas.LabMetricas.warehousetype.model.WarehouseType;
 import com.labMetricas.LabMetricas.warehousetype.repository.WarehouseTypeRepository;
 
@@ -39,6 +48,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -47,14 +57,14 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import com.google.zxing.WriterException;
 
@@ -62,6 +72,19 @@ import com.google.zxing.WriterException;
 public class ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
 
+    // Columnas por las que se permite ordenar el listado. Tienen índice en products: createdAt, updatedAt, lote,
+    // fabricante, distribuidor, caducidad y reanalisis; nombre, fecha y cantidadTotal no, así que ordenar por
+    // ellas sin un filtro selectivo ordena en memoria todas las filas que cumplen el filtro
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of(
+        "createdAt", "updatedAt", "nombre", "lote", "fabricante", "distribuidor",
+        "fecha", "caducidad", "reanalisis", "cantidadTotal"
+    );
+
+    // Máximo de descuentos por petición del endpoint por lotes
+    private static final int MAX_DISCOUNT_BATCH_SIZE = 500;
+
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+
     @Autowired
     private ProductRepository productRepository;
 
@@ -71,12 +94,6 @@ public class ProductService {
     @Autowired
     private ProductStatusRepository productStatusRepository;
 
-    @Autowired
-    private QrCodeRepository qrCodeRepository;
-
-    @Autowired
-    private ProductStockMovementRepository productStockMovementRepository;
-
     @Autowired
     private UserRepository userRepository;
 
@@ -84,7 +101,7 @@ public class ProductService {
     private QrCodeService qrCodeService;
 
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditLogPublisher auditLogPublisher;
 
     @Autowired
     private WarehouseTypeRepository warehouseTypeRepository;
@@ -95,23 +112,20 @@ public class ProductService {
     @Autowired
     private ProductDiscountLogRepository productDiscountLogRepository;
 
-    // Método helper para crear logs de auditoría mejorados
-    private void createAuditLog(String action, User user, Product product) {
-        try {
-            AuditLog auditLog = new AuditLog();
-            auditLog.setAction(action);
-            auditLog.setUser(user);
-            auditLog.setCreatedAt(LocalDateTime.now());
-            auditLogRepository.save(auditLog);
-            
-            logger.info("Audit log created: {} by user: {} for product: {}", action, 
-                user != null ? user.getEmail() : "ANONYMOUS",
-                product != null ? product.getId() : "N/A");
-        } catch (Exception e) {
-            logger.error("Error creating audit log: {}", action, e);
-            // No lanzar excepción para no interrumpir el flujo principal
-        }
-    }
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    @Autowired
+    private ReferenceDataSnapshot referenceDataSnapshot;
+
+    @Autowired
+    private QrImageCache qrImageCache;
+
+    @Autowired
+    private ProductSearchIndexer productSearchIndexer;
 
     @Transactional
     public ResponseEntity<ResponseObject> createProductDiscount(Integer productId, CreateProductDiscountDto dto) {
@@ -122,56 +136,35 @@ public class ProductService {
                 );
             }
 
-            Product product = productRepository.findByIdAndDeletedAtIsNull(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found or deleted"));
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User currentUser = userRepository.findByEmail(auth.getName()).orElse(null);
 
-            Integer before = product.getCantidadTotal() != null ? product.getCantidadTotal() : 0;
             Integer amount = dto.getAmount();
-            if (amount > before) {
+            String description = dto.getDescription() != null ? dto.getDescription().trim() : null;
+
+            // Descuento y log en una sola sentencia condicional: sin lectura previa ni bloqueo pesimista
+            Optional<ProductDiscountLog> applied = productJdbcRepository.applyDiscount(
+                    productId,
+                    amount,
+                    description,
+                    currentUser != null ? currentUser.getId() : null,
+                    currentUser != null ? currentUser.getName() : null,
+                    currentUser != null ? currentUser.getEmail() : null,
+                    LocalDateTime.now()
+            );
+
+            if (applied.isEmpty()) {
+                // Ninguna fila cumplió la condición: distinguir producto inexistente de cantidad insuficiente
+                productRepository.findByIdAndDeletedAtIsNull(productId)
+                        .orElseThrow(() -> new RuntimeException("Product not found or deleted"));
                 return ResponseEntity.badRequest().body(
                         new ResponseObject("Validation error: Discount amount cannot be greater than current quantity", null, TypeResponse.ERROR)
                 );
             }
 
-            Integer after = before - amount;
-
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userRepository.findByEmail(auth.getName()).orElse(null);
-
-            product.setCantidadTotal(after);
-            product.setUpdatedAt(LocalDateTime.now());
-            Product updatedProduct = productRepository.save(product);
-
-            ProductDiscountLog log = new ProductDiscountLog();
-            log.setProductId(updatedProduct.getId());
-            log.setProductNombre(updatedProduct.getNombre());
-            log.setProductLote(updatedProduct.getLote());
-            log.setAmount(amount);
-            log.setDescription(dto.getDescription() != null ? dto.getDescription().trim() : null);
-            log.setQuantityBefore(before);
-            log.setQuantityAfter(after);
-            log.setCreatedAt(LocalDateTime.now());
-
-            if (currentUser != null) {
-                log.setCreatedByUserId(currentUser.getId());
-                log.setCreatedByUserName(currentUser.getName());
-                log.setCreatedByUserEmail(currentUser.getEmail());
-            }
-
-            ProductDiscountLog savedLog = productDiscountLogRepository.save(log);
-
-            String auditMessage = String.format(
-                    "DESCUENTO DE PRODUCTO - Usuario: %s | Producto: %s (ID: %d) | Lote: %s | Cantidad: %d -> %d | Descuento: %d%s",
-                    currentUser != null ? (currentUser.getName() != null ? currentUser.getName() : currentUser.getEmail()) : "ANONYMOUS",
-                    updatedProduct.getNombre(),
-                    updatedProduct.getId(),
-                    updatedProduct.getLote(),
-                    before,
-                    after,
-                    amount,
-                    (dto.getDescription() != null && !dto.getDescription().trim().isEmpty()) ? (" | Descripción: " + dto.getDescription().trim()) : ""
-            );
-            createAuditLog(auditMessage, currentUser, updatedProduct);
+            ProductDiscountLog savedLog = applied.get();
+            productDetailCache.evictAfterCommit(productId);
+            auditLogPublisher.publish(discountAuditEvent(savedLog));
 
             ProductDiscountLogDto responseDto = new ProductDiscountLogDto(
                     savedLog.getId(),
@@ -190,7 +183,7 @@ public class ProductService {
 
             Map<String, Object> responseData = new HashMap<>();
             responseData.put("discount", responseDto);
-            responseData.put("cantidadTotal", updatedProduct.getCantidadTotal());
+            responseData.put("cantidadTotal", savedLog.getQuantityAfter());
 
             return ResponseEntity.ok(
                     new ResponseObject("Discount created successfully", responseData, TypeResponse.SUCCESS)
@@ -208,6 +201,179 @@ public class ProductService {
         }
     }
 
+    /**
+     * Aplica en una sola transacción un lote de descuentos capturados por los escáneres.
+     * Los descuentos condicionales, los registros de descuento y la auditoría se escriben con lotes JDBC;
+     * cada elemento obtiene su propio resultado y los que fallan no afectan a los demás.
+     */
+    @Transactional
+    public ResponseEntity<ResponseObject> createProductDiscountsBatch(List<BatchProductDiscountItemDto> items) {
+        try {
+            if (items == null || items.isEmpty()) {
+                return ResponseEntity.badRequest().body(
+                        new ResponseObject("Validation error: At least one discount is required", null, TypeResponse.ERROR)
+                );
+            }
+            if (items.size() > MAX_DISCOUNT_BATCH_SIZE) {
+                return ResponseEntity.badRequest().body(
+                        new ResponseObject("Validation error: A batch cannot contain more than " + MAX_DISCOUNT_BATCH_SIZE + " discounts", null, TypeResponse.ERROR)
+                );
+            }
+
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User currentUser = userRepository.findByEmail(auth.getName()).orElse(null);
+            LocalDateTime now = LocalDateTime.now();
+
+            BatchProductDiscountResultDto[] results = new BatchProductDiscountResultDto[items.size()];
+
+            // Resolver todos los hashes de QR con una sola consulta
+            Set<String> qrHashes = new HashSet<>();
+            for (BatchProductDiscountItemDto item : items) {
+                if (item != null && item.getProductId() == null && item.getQrHash() != null && !item.getQrHash().isBlank()) {
+                    qrHashes.add(item.getQrHash().trim());
+                }
+            }
+            Map<String, Integer> productIdsByHash = productJdbcRepository.findActiveProductIdsByQrHashes(
+                    qrHashes, qrHashes.stream().anyMatch(qrHash -> qrCodeService.needsLegacyLookup(QrCode.digestOf(qrHash))));
+
+            List<Integer> pendingIndexes = new ArrayList<>();
+            List<Integer> pendingProductIds = new ArrayList<>();
+            List<Integer> pendingAmounts = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                BatchProductDiscountItemDto item = items.get(i);
+                String error = null;
+                Integer productId = null;
+                if (item == null || item.getAmount() == null || item.getAmount() <= 0) {
+                    error = "Amount must be positive";
+                } else if (item.getDescription() != null && item.getDescription().length() > 500) {
+                    error = "Description must be less than 500 characters";
+                } else if (item.getProductId() != null) {
+                    productId = item.getProductId();
+                } else if (item.getQrHash() != null && !item.getQrHash().isBlank()) {
+                    productId = productIdsByHash.get(item.getQrHash().trim());
+                    if (productId == null) {
+                        error = "Product not found for this QR code";
+                    }
+                } else {
+                    error = "Product ID or QR hash is required";
+                }
+
+                if (error != null) {
+                    results[i] = new BatchProductDiscountResultDto(i, productId,
+                            item != null ? item.getQrHash() : null, false, error, null, null);
+                } else {
+                    pendingIndexes.add(i);
+                    pendingProductIds.add(productId);
+                    pendingAmounts.add(item.getAmount());
+                }
+            }
+
+            List<ProductDiscountLog> logs = new ArrayList<>();
+            List<Integer> logIndexes = new ArrayList<>();
+
+            if (!pendingIndexes.isEmpty()) {
+                // Un lote de UPDATE condicionales, en el orden recibido
+                int[] updated = productJdbcRepository.discountProducts(pendingProductIds, pendingAmounts, now);
+
+                // Las filas descontadas quedan bloqueadas por esta transacción: la cantidad leída es la final del lote
+                Map<Integer, ProductJdbcRepository.ProductQuantity> quantities =
+                        productJdbcRepository.findQuantities(new HashSet<>(pendingProductIds));
+
+                // Reconstruir antes/después de cada descuento recorriendo el lote hacia atrás desde la cantidad final
+                Map<Integer, Integer> running = new HashMap<>();
+                ProductDiscountLog[] logsByPending = new ProductDiscountLog[pendingIndexes.size()];
+                for (int p = pendingIndexes.size() - 1; p >= 0; p--) {
+                    int index = pendingIndexes.get(p);
+                    Integer productId = pendingProductIds.get(p);
+                    BatchProductDiscountItemDto item = items.get(index);
+                    ProductJdbcRepository.ProductQuantity quantity = quantities.get(productId);
+
+                    if (updated[p] <= 0) {
+                        String error = quantity == null || quantity.deleted()
+                                ? "Product not found or deleted"
+                                : "Discount amount cannot be greater than current quantity";
+                        results[index] = new BatchProductDiscountResultDto(index, productId, item.getQrHash(), false, error, null, null);
+                        continue;
+                    }
+
+                    int after = running.getOrDefault(productId, quantity.cantidadTotal());
+                    int before = after + item.getAmount();
+                    running.put(productId, before);
+
+                    ProductDiscountLog log = new ProductDiscountLog();
+                    log.setProductId(productId);
+                    log.setProductNombre(quantity.nombre());
+                    log.setProductLote(quantity.lote());
+                    log.setAmount(item.getAmount());
+                    log.setDescription(item.getDescription() != null ? item.getDescription().trim() : null);
+                    log.setQuantityBefore(before);
+                    log.setQuantityAfter(after);
+                    log.setCreatedAt(now);
+                    if (currentUser != null) {
+                        log.setCreatedByUserId(currentUser.getId());
+                        log.setCreatedByUserName(currentUser.getName());
+                        log.setCreatedByUserEmail(currentUser.getEmail());
+                    }
+                    logsByPending[p] = log;
+                }
+
+                for (int p = 0; p < logsByPending.length; p++) {
+                    if (logsByPending[p] != null) {
+                        logs.add(logsByPending[p]);
+                        logIndexes.add(pendingIndexes.get(p));
+                    }
+                }
+            }
+
+            if (!logs.isEmpty()) {
+                productJdbcRepository.insertDiscountLogs(logs);
+                logs.stream().map(ProductDiscountLog::getProductId).distinct().forEach(productDetailCache::evictAfterCommit);
+
+                auditLogPublisher.publishAll(logs.stream().map(ProductService::discountAuditEvent).toList());
+
+                for (int k = 0; k < logs.size(); k++) {
+                    ProductDiscountLog log = logs.get(k);
+                    int index = logIndexes.get(k);
+                    ProductDiscountLogDto discountDto = new ProductDiscountLogDto(
+                            log.getId(),
+                            log.getProductId(),
+                            log.getProductNombre(),
+                            log.getProductLote(),
+                            log.getAmount(),
+                            log.getDescription(),
+                            log.getQuantityBefore(),
+                            log.getQuantityAfter(),
+                            log.getCreatedByUserId(),
+                            log.getCreatedByUserName(),
+                            log.getCreatedByUserEmail(),
+                            log.getCreatedAt()
+                    );
+                    results[index] = new BatchProductDiscountResultDto(index, log.getProductId(), items.get(index).getQrHash(),
+                            true, "Discount created successfully", discountDto, log.getQuantityAfter());
+                }
+            }
+
+            logger.info("Batch discounts processed: {} applied, {} failed", logs.size(), items.size() - logs.size());
+
+            return ResponseEntity.ok(
+                    new ResponseObject(
+                            String.format("Batch discounts processed: %d applied, %d failed", logs.size(), items.size() - logs.size()),
+                            List.of(results),
+                            TypeResponse.SUCCESS)
+            );
+        } catch (RuntimeException e) {
+            logger.error("Validation error during batch discount creation: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(
+                    new ResponseObject("Validation error: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
+        } catch (Exception e) {
+            logger.error("Error creating batch product discounts", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new ResponseObject("Error creating batch product discounts: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
+        }
+    }
+
     public ResponseEntity<ResponseObject> getProductDiscounts(Integer productId) {
         try {
             if (!productRepository.existsById(productId)) {
@@ -258,15 +424,10 @@ public class ProductService {
             existingProduct.setDeletedAt(LocalDateTime.now());
             existingProduct.setUpdatedAt(LocalDateTime.now());
             Product deletedProduct = productRepository.save(existingProduct);
+            productDetailCache.evictAfterCommit(deletedProduct.getId());
 
-            String auditMessage = String.format(
-                    "ELIMINACIÓN DE PRODUCTO - Usuario: %s | Producto: %s (ID: %d) | Lote: %s",
-                    currentUser != null ? (currentUser.getName() != null ? currentUser.getName() : currentUser.getEmail()) : "ANONYMOUS",
-                    deletedProduct.getNombre(),
-                    deletedProduct.getId(),
-                    deletedProduct.getLote()
-            );
-            createAuditLog(auditMessage, currentUser, deletedProduct);
+            auditLogPublisher.publish(AuditAction.DELETE, AuditEntityType.PRODUCT, deletedProduct.getId(),
+                    deletedProduct.getNombre(), AuditChanges.of("lote", deletedProduct.getLote()), currentUser);
 
             return ResponseEntity.ok(
                     new ResponseObject("Product deleted successfully", null, TypeResponse.SUCCESS)
@@ -287,44 +448,47 @@ public class ProductService {
     @Transactional
     public ResponseEntity<ResponseObject> createProduct(CreateProductDto createProductDto) {
         try {
-            // PASO A: Validaciones
+            // PASO A: Validaciones contra la copia en memoria de los catálogos de referencia
             logger.info("Starting product creation transaction for lote: {}", createProductDto.getLote());
 
-            // Validar que stock_catalogue_id existe
-            StockCatalogue stockCatalogue = stockCatalogueRepository.findByIdAndDeletedAtIsNull(createProductDto.getStockCatalogueId())
-                .orElseThrow(() -> new RuntimeException("Stock catalogue not found or deleted"));
-
-            // Validar que product_status_id existe
-            ProductStatus productStatus = productStatusRepository.findByIdAndDeletedAtIsNull(createProductDto.getProductStatusId())
+            ProductStatus productStatus = referenceDataSnapshot.findProductStatus(createProductDto.getProductStatusId())
                 .orElseThrow(() -> new RuntimeException("Product status not found or deleted"));
 
-            // Validar warehouse type si se proporciona
             WarehouseType warehouseType = null;
             if (createProductDto.getWarehouseTypeId() != null) {
-                warehouseType = warehouseTypeRepository.findByIdAndDeletedAtIsNull(createProductDto.getWarehouseTypeId())
+                warehouseType = referenceDataSnapshot.findWarehouseType(createProductDto.getWarehouseTypeId())
                     .orElseThrow(() -> new RuntimeException("Warehouse type not found or deleted"));
             }
 
-            // Validar unit of measurement si se proporciona
             UnitOfMeasurement unitOfMeasurement = null;
             if (createProductDto.getUnitOfMeasurementId() != null) {
-                unitOfMeasurement = unitOfMeasurementRepository.findByIdAndDeletedAtIsNull(createProductDto.getUnitOfMeasurementId())
+                unitOfMeasurement = referenceDataSnapshot.findUnitOfMeasurement(createProductDto.getUnitOfMeasurementId())
                     .orElseThrow(() -> new RuntimeException("Unit of measurement not found or deleted"));
             }
 
-            // Obtener usuario autenticado
+            // Usuario autenticado: el filtro JWT ya deja la entidad User como principal
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = auth.getPrincipal() instanceof User principal
+                ? principal
+                : userRepository.findByEmail(auth.getName())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            // PASO B: Armar el producto; el catálogo se valida dentro de la misma sentencia de alta
+            StockCatalogue stockCatalogue = new StockCatalogue();
+            stockCatalogue.setId(createProductDto.getStockCatalogueId());
+
+            String qrHash = qrCodeService.generateQrHash(createProductDto.getLote());
+            QrCode qrCode = new QrCode();
+            qrCode.setQrContenido(qrHash);
 
-            // PASO B: Guardar Producto
-            logger.info("Creating product entity...");
             Product product = new Product();
             product.setStockCatalogue(stockCatalogue);
             product.setProductStatus(productStatus);
+            product.setQrCode(qrCode);
             product.setCreatedByUser(currentUser);
             product.setWarehouseType(warehouseType);
             product.setUnitOfMeasurement(unitOfMeasurement);
+            product.setNombre(createProductDto.getNombre() != null ? createProductDto.getNombre().trim() : null);
             product.setLote(createProductDto.getLote());
             product.setLoteProveedor(createProductDto.getLoteProveedor());
             product.setFechaMuestreo(createProductDto.getFechaMuestreo());
@@ -338,80 +502,30 @@ public class ProductService {
             product.setNumeroContenedores(createProductDto.getNumeroContenedores());
             product.setCantidadTotal(createProductDto.getCantidadTotal());
             product.setDescuentos(createProductDto.getDescuentos() != null ? createProductDto.getDescuentos() : 0);
-            
-            // Calcular automáticamente cantidadSobrante y totalSobrante: cantidadTotal - descuentos
-            Integer descuentosValue = product.getDescuentos() != null ? product.getDescuentos() : 0;
-            BigDecimal cantidadSobranteCalculada = BigDecimal.valueOf(product.getCantidadTotal() - descuentosValue);
-
-            product.setCreatedAt(LocalDateTime.now());
-            product.setUpdatedAt(LocalDateTime.now());
 
-            // Asignar nombre (se define desde la request)
-            product.setNombre(createProductDto.getNombre() != null ? createProductDto.getNombre().trim() : null);
-            product.setCodigo(generateProductCode(stockCatalogue, createProductDto.getLote()));
+            // PASO C: Producto + QR + movimiento (Kardex) + timestamp del catálogo en un solo round trip
+            ProductJdbcRepository.CreatedProduct created = productJdbcRepository.createProduct(
+                    product, "Ingreso Inicial - Lote " + createProductDto.getLote(), LocalDateTime.now())
+                .orElseThrow(() -> new RuntimeException("Stock catalogue not found or deleted"));
+            logger.info("Product saved with ID: {} (QR ID: {}, movement ID: {})",
+                created.productId(), created.qrCodeId(), created.movementId());
 
-            Product savedProduct = productRepository.save(product);
-            logger.info("Product saved with ID: {}", savedProduct.getId());
+            auditLogPublisher.publish(AuditAction.CREATE, AuditEntityType.PRODUCT, created.productId(), product.getNombre(),
+                AuditChanges.of("lote", product.getLote(), "estado", product.getProductStatus().getName(),
+                    "catalogo", created.catalogueName()),
+                currentUser);
 
-            // PASO C: Generar y Guardar QR
-            logger.info("Generating QR code...");
-            String qrHash = generateQrHash(savedProduct.getId(), createProductDto.getLote());
-            
-            QrCode qrCode = new QrCode();
-            qrCode.setQrContenido(qrHash);
-            qrCode.setCreatedAt(LocalDateTime.now());
-            qrCode.setUpdatedAt(LocalDateTime.now());
-            
-            QrCode savedQrCode = qrCodeRepository.save(qrCode);
-            logger.info("QR code saved with ID: {}", savedQrCode.getId());
-
-            // Asociar QR al Product
-            savedProduct.setQrCode(savedQrCode);
-            productRepository.save(savedProduct);
-            logger.info("QR code associated to product");
-
-            // PASO D: Registrar Movimiento (Kardex)
-            logger.info("Creating stock movement...");
-            ProductStockMovement movement = new ProductStockMovement();
-            movement.setUser(currentUser);
-            movement.setStockCatalogue(stockCatalogue);
-            movement.setTipo(TipoMovimiento.entrada);
-            movement.setCantidad(BigDecimal.valueOf(createProductDto.getNumeroContenedores()));
-            movement.setReferencia("Ingreso Inicial - Lote " + createProductDto.getLote());
-            movement.setCreatedAt(LocalDateTime.now());
-            movement.setUpdatedAt(LocalDateTime.now());
-            
-            ProductStockMovement savedMovement = productStockMovementRepository.save(movement);
-            logger.info("Stock movement saved with ID: {}", savedMovement.getId());
-
-            // PASO E: Actualizar timestamp del StockCatalogue (los conteos se calculan dinámicamente desde los productos)
-            logger.info("Updating stock catalogue timestamp...");
-            stockCatalogue.setUpdatedAt(LocalDateTime.now());
-            
-            StockCatalogue updatedStockCatalogue = stockCatalogueRepository.save(stockCatalogue);
-            logger.info("Stock catalogue updated. Product count will be calculated dynamically.");
+            productSearchIndexer.reindex(List.of(created.productId()));
 
             // Preparar respuesta
             Map<String, Object> responseData = new HashMap<>();
-            responseData.put("productId", savedProduct.getId());
-            responseData.put("qrCodeId", savedQrCode.getId());
+            responseData.put("productId", created.productId());
+            responseData.put("qrCodeId", created.qrCodeId());
             responseData.put("qrHash", qrHash);
-            responseData.put("movementId", savedMovement.getId());
+            responseData.put("movementId", created.movementId());
 
             logger.info("Product creation transaction completed successfully for lote: {}", createProductDto.getLote());
 
-            // Registrar log de auditoría mejorado con información detallada
-            String auditMessage = String.format(
-                "CREACIÓN DE PRODUCTO - Usuario: %s | Producto: %s (ID: %d) | Lote: %s | Estado: %s | Catálogo: %s",
-                currentUser.getName() != null ? currentUser.getName() : currentUser.getEmail(),
-                savedProduct.getNombre(),
-                savedProduct.getId(),
-                savedProduct.getLote(),
-                productStatus.getName(),
-                stockCatalogue.getName()
-            );
-            createAuditLog(auditMessage, currentUser, savedProduct);
-
             return ResponseEntity.status(HttpStatus.CREATED).body(
                 new ResponseObject("Product created successfully", responseData, TypeResponse.SUCCESS)
             );
@@ -430,42 +544,47 @@ public class ProductService {
     }
 
     /**
-     * Genera un hash único para el QR code concatenando Product_ID + Lote + Timestamp
+     * Busca un producto activo por ID (con caché del detalle)
      */
-    private String generateQrHash(Integer productId, String lote) {
+    public ResponseEntity<ResponseObject> getProductById(Integer id) {
         try {
-            String timestamp = String.valueOf(System.currentTimeMillis());
-            String rawHash = productId + "_" + lote + "_" + timestamp;
-            
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(rawHash.getBytes(StandardCharsets.UTF_8));
-            
-            // Convertir a hexadecimal
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            logger.error("Error generating QR hash", e);
-            // Fallback: usar concatenación simple
-            return productId + "_" + lote + "_" + System.currentTimeMillis();
+            Optional<ProductResponseDto> cached = productDetailCache.getById(id);
+            if (cached.isPresent()) {
+                return ResponseEntity.ok(
+                    new ResponseObject("Product retrieved successfully", cached.get(), TypeResponse.SUCCESS)
+                );
+            }
+
+            long cacheGeneration = productDetailCache.generation();
+            Product product = productRepository.findWithDetailsByIdAndDeletedAtIsNull(id)
+                .orElseThrow(() -> new RuntimeException("Product not found or deleted"));
+
+            ProductResponseDto responseDto = convertToResponseDto(product);
+            productDetailCache.put(responseDto, cacheGeneration);
+
+            return ResponseEntity.ok(
+                new ResponseObject("Product retrieved successfully", responseDto, TypeResponse.SUCCESS)
+            );
+        } catch (RuntimeException e) {
+            logger.error("Error retrieving product {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                new ResponseObject("Product not found: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
+        } catch (Exception e) {
+            logger.error("Error retrieving product", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                new ResponseObject("Error retrieving product", null, TypeResponse.ERROR)
+            );
         }
     }
 
     /**
-     * Genera un código único para el producto
+     * Estadísticas de la caché de detalle de producto (aciertos, fallos, tamaño)
      */
-    private String generateProductCode(StockCatalogue stockCatalogue, String lote) {
-        String sku = stockCatalogue.getSku() != null && !stockCatalogue.getSku().isEmpty() 
-            ? stockCatalogue.getSku() 
-            : "SKU-" + stockCatalogue.getId();
-        return sku + "-" + lote + "-" + System.currentTimeMillis() % 10000;
+    public ResponseEntity<ResponseObject> getProductCacheStats() {
+        return ResponseEntity.ok(
+            new ResponseObject("Product cache stats retrieved successfully", productDetailCache.stats(), TypeResponse.SUCCESS)
+        );
     }
 
     /**
@@ -475,16 +594,26 @@ public class ProductService {
         try {
             logger.info("Searching product by QR hash: {}", qrHash);
 
-            // Buscar QR code por hash
-            QrCode qrCode = qrCodeRepository.findByQrContenidoAndDeletedAtIsNull(qrHash)
-                .orElseThrow(() -> new RuntimeException("QR code not found"));
+            Optional<ProductResponseDto> cached = productDetailCache.getByQrHash(qrHash);
+            if (cached.isPresent()) {
+                return ResponseEntity.ok(
+                    new ResponseObject("Product retrieved successfully", cached.get(), TypeResponse.SUCCESS)
+                );
+            }
 
-            // Buscar producto asociado al QR
-            Product product = productRepository.findByQrCodeIdAndDeletedAtIsNull(qrCode.getId())
+            // Hash -> producto en una sola consulta por el índice de qr_digest
+            long cacheGeneration = productDetailCache.generation();
+            byte[] qrDigest = QrCode.digestOf(qrHash);
+            Optional<Product> found = qrDigest != null ? productRepository.findActiveByQrDigest(qrDigest) : Optional.empty();
+            if (found.isEmpty() && qrCodeService.needsLegacyLookup(qrDigest)) {
+                found = productRepository.findActiveByQrContenido(qrHash);
+            }
+            Product product = found
                 .orElseThrow(() -> new RuntimeException("Product not found for this QR code"));
 
             // Convertir a DTO con nombres legibles
             ProductResponseDto responseDto = convertToResponseDto(product);
+            productDetailCache.put(responseDto, cacheGeneration);
 
             logger.info("Product found by QR hash: Product ID {}", product.getId());
 
@@ -510,7 +639,7 @@ public class ProductService {
             logger.info("Starting product update transaction for product ID: {}", updateProductDto.getId());
 
             // Buscar producto existente
-            Product existingProduct = productRepository.findByIdAndDeletedAtIsNull(updateProductDto.getId())
+            Product existingProduct = productRepository.findWithDetailsByIdAndDeletedAtIsNull(updateProductDto.getId())
                 .orElseThrow(() -> new RuntimeException("Product not found or deleted"));
 
             // Validar y actualizar stock catalogue si se proporciona
@@ -526,8 +655,7 @@ public class ProductService {
                 .orElse(null);
 
             // Guardar estado anterior para el log
-            ProductStatus oldStatus = existingProduct.getProductStatus();
-            String oldStatusName = oldStatus != null ? oldStatus.getName() : "N/A";
+            Map<String, Object> before = auditSnapshot(existingProduct);
 
             // Validar y actualizar warehouse type si se proporciona
             if (updateProductDto.getWarehouseTypeId() != null) {
@@ -544,9 +672,8 @@ public class ProductService {
             }
 
             // Validar y actualizar product status si se proporciona (permite cambiar estado)
-            ProductStatus newStatus = null;
             if (updateProductDto.getProductStatusId() != null) {
-                newStatus = productStatusRepository.findByIdAndDeletedAtIsNull(updateProductDto.getProductStatusId())
+                ProductStatus newStatus = productStatusRepository.findByIdAndDeletedAtIsNull(updateProductDto.getProductStatusId())
                     .orElseThrow(() -> new RuntimeException("Product status not found or deleted"));
                 existingProduct.setProductStatus(newStatus);
             }
@@ -603,27 +730,14 @@ public class ProductService {
             existingProduct.setUpdatedAt(LocalDateTime.now());
 
             Product updatedProduct = productRepository.save(existingProduct);
+            productDetailCache.evictAfterCommit(updatedProduct.getId());
             ProductResponseDto responseDto = convertToResponseDto(updatedProduct);
 
             logger.info("Product updated successfully: Product ID {}", updatedProduct.getId());
 
-            // Registrar log de auditoría mejorado con información detallada
-            String statusChangeInfo = "";
-            if (newStatus != null && !oldStatusName.equals(newStatus.getName())) {
-                statusChangeInfo = String.format(" | Cambio de estado: %s -> %s", oldStatusName, newStatus.getName());
-            } else if (updatedProduct.getProductStatus() != null) {
-                statusChangeInfo = String.format(" | Estado: %s", updatedProduct.getProductStatus().getName());
-            }
-            
-            String auditMessage = String.format(
-                "MODIFICACIÓN DE PRODUCTO - Usuario: %s | Producto: %s (ID: %d) | Lote: %s%s",
-                currentUser != null ? (currentUser.getName() != null ? currentUser.getName() : currentUser.getEmail()) : "ANONYMOUS",
-                updatedProduct.getNombre(),
-                updatedProduct.getId(),
-                updatedProduct.getLote(),
-                statusChangeInfo
-            );
-            createAuditLog(auditMessage, currentUser, updatedProduct);
+            // Registrar sólo los campos que cambiaron
+            auditLogPublisher.publish(AuditAction.UPDATE, AuditEntityType.PRODUCT, updatedProduct.getId(),
+                updatedProduct.getNombre(), AuditChanges.diff(before, auditSnapshot(updatedProduct)), currentUser);
 
             return ResponseEntity.ok(
                 new ResponseObject("Product updated successfully", responseDto, TypeResponse.SUCCESS)
@@ -642,27 +756,15 @@ public class ProductService {
     }
 
     /**
-     * Lista productos con filtros opcionales
+     * Lista productos con filtros opcionales combinables y orden por varias columnas
      */
-    public ResponseEntity<ResponseObject> getAllProducts(int page, int size, Integer stockCatalogueId, Integer productStatusId) {
+    public ResponseEntity<ResponseObject> getAllProducts(int page, int size, ProductFilterDto filter, List<String> sort) {
         try {
-            Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-            Page<Product> productsPage;
-
-            if (stockCatalogueId != null && productStatusId != null) {
-                // Filtrar por ambos
-                productsPage = productRepository.findByStockCatalogueIdAndProductStatusIdAndDeletedAtIsNull(
-                    stockCatalogueId, productStatusId, pageable);
-            } else if (stockCatalogueId != null) {
-                // Filtrar solo por catálogo
-                productsPage = productRepository.findByStockCatalogueIdAndDeletedAtIsNull(stockCatalogueId, pageable);
-            } else if (productStatusId != null) {
-                // Filtrar solo por estado
-                productsPage = productRepository.findByProductStatusIdAndDeletedAtIsNull(productStatusId, pageable);
-            } else {
-                // Sin filtros
-                productsPage = productRepository.findByDeletedAtIsNull(pageable);
-            }
+            Sort sortOrder = SortParser.parse(sort, SORTABLE_PROPERTIES, Sort.by(Sort.Direction.DESC, "createdAt"))
+                .and(Sort.by(Sort.Direction.DESC, "id"));
+            Pageable pageable = PageRequest.of(page, size, sortOrder);
+
+            Page<Product> productsPage = productRepository.findAll(ProductSpecifications.fromFilter(filter), pageable);
 
             // Convertir a DTOs
             PageResponse<ProductResponseDto> pageResponse = new PageResponse<>(
@@ -674,6 +776,11 @@ public class ProductService {
             return ResponseEntity.ok(
                 new ResponseObject("Products retrieved successfully", pageResponse, TypeResponse.SUCCESS)
             );
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid products listing parameters: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
         } catch (Exception e) {
             logger.error("Error retrieving products", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
@@ -682,11 +789,85 @@ public class ProductService {
         }
     }
 
+    /**
+     * Lista productos paginando por cursor (created_at, id) sin ejecutar COUNT(*).
+     * Acepta los mismos filtros que el listado paginado; el orden es siempre createdAt DESC, id DESC.
+     */
+    public ResponseEntity<ResponseObject> getProductsByCursor(String cursor, int size, ProductFilterDto filter) {
+        try {
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+            int pageSize = CursorPageResponse.normalizeSize(size);
+
+            Specification<Product> spec = ProductSpecifications.fromFilter(filter);
+            if (keysetCursor != null) {
+                spec = spec.and(ProductSpecifications.after(keysetCursor));
+            }
+
+            List<Product> rows = productRepository.findSlice(spec, KEYSET_SORT, pageSize + 1);
+
+            CursorPageResponse<ProductResponseDto> pageResponse = CursorPageResponse.of(
+                rows, pageSize,
+                p -> new KeysetCursor(p.getCreatedAt(), p.getId()),
+                this::convertToResponseDto
+            );
+
+            return ResponseEntity.ok(
+                new ResponseObject("Products retrieved successfully", pageResponse, TypeResponse.SUCCESS)
+            );
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid cursor for products listing: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(
+                new ResponseObject("Validation error: " + e.getMessage(), null, TypeResponse.ERROR)
+            );
+        } catch (Exception e) {
+            logger.error("Error retrieving products by cursor", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                new ResponseObject("Error retrieving products", null, TypeResponse.ERROR)
+            );
+        }
+    }
+
+    // Mismo evento para el descuento individual y el de lote
+    private static AuditEvent discountAuditEvent(ProductDiscountLog log) {
+        Map<String, Object> changes = AuditChanges.of(
+                "lote", log.getProductLote(),
+                "cantidadTotal", AuditChanges.change(log.getQuantityBefore(), log.getQuantityAfter()),
+                "descuento", log.getAmount());
+        if (log.getDescription() != null && !log.getDescription().isEmpty()) {
+            changes.put("descripcion", log.getDescription());
+        }
+        return AuditEvent.of(AuditAction.DISCOUNT, AuditEntityType.PRODUCT, log.getProductId(), log.getProductNombre(),
+                changes, log.getCreatedByUserId(), log.getCreatedAt());
+    }
+
+    // Campos editables de un producto tal como se comparan en la auditoría de modificaciones
+    private static Map<String, Object> auditSnapshot(Product product) {
+        return AuditChanges.of(
+                "nombre", product.getNombre(),
+                "lote", product.getLote(),
+                "loteProveedor", product.getLoteProveedor(),
+                "fabricante", product.getFabricante(),
+                "distribuidor", product.getDistribuidor(),
+                "codigoProducto", product.getCodigoProducto(),
+                "numeroAnalisis", product.getNumeroAnalisis(),
+                "estado", product.getProductStatus() != null ? product.getProductStatus().getName() : null,
+                "catalogo", product.getStockCatalogue() != null ? product.getStockCatalogue().getName() : null,
+                "tipoAlmacen", product.getWarehouseType() != null ? product.getWarehouseType().getName() : null,
+                "unidadMedida", product.getUnitOfMeasurement() != null ? product.getUnitOfMeasurement().getName() : null,
+                "fecha", product.getFecha(),
+                "caducidad", product.getCaducidad(),
+                "fechaMuestreo", product.getFechaMuestreo(),
+                "reanalisis", product.getReanalisis(),
+                "numeroContenedores", product.getNumeroContenedores(),
+                "cantidadTotal", product.getCantidadTotal(),
+                "descuentos", product.getDescuentos());
+    }
+
     /**
      * Convierte Product a ProductResponseDto con nombres legibles
      * Primero datos del producto, luego datos del stock
      */
-    private ProductResponseDto convertToResponseDto(Product product) {
+    ProductResponseDto convertToResponseDto(Product product) {
         ProductResponseDto dto = new ProductResponseDto();
         
         // Información del producto (primero)
@@ -719,7 +900,7 @@ public class ProductService {
         // Información del QR
         if (product.getQrCode() != null) {
             dto.setQrCodeId(product.getQrCode().getId());
-            dto.setQrHash(product.getQrCode().getQrContenido());
+            dto.setQrHash(product.getQrCode().getQrHash());
         }
 
         // Información del creador
@@ -759,26 +940,32 @@ public class ProductService {
      * Genera la imagen QR del producto a partir de su hash
      */
     public byte[] generateQrCodeImage(String qrHash) {
-        try {
-            logger.info("Generating QR code image for hash: {}", qrHash);
+        return generateQrCodeImage(qrHash, QrCodeService.RenderOptions.DEFAULT).bytes();
+    }
 
-            // Validar que el hash existe
-            if (!qrCodeRepository.findByQrContenidoAndDeletedAtIsNull(qrHash).isPresent()) {
+    /**
+     * Indica si el hash corresponde a un QR activo.
+     */
+    public boolean qrHashExists(String qrHash) {
+        return qrCodeService.validateQrHash(qrHash);
+    }
+
+    /**
+     * QR del producto en el formato y parámetros pedidos, servido desde la caché de imágenes.
+     * Sólo se valida el hash y se renderiza cuando la variante no está en memoria ni en disco.
+     */
+    public QrImageCache.QrImage generateQrCodeImage(String qrHash, QrCodeService.RenderOptions options) {
+        return qrImageCache.get(qrHash, options.variant(), options.format().extension(), () -> {
+            if (!qrCodeService.validateQrHash(qrHash)) {
                 throw new RuntimeException("QR hash not found");
             }
-
-            // Generar la imagen del QR
-            byte[] qrImage = qrCodeService.generateQrCodeImage(qrHash);
-            
-            logger.info("QR code image generated successfully for hash: {}", qrHash);
-            
-            // NO registrar log de auditoría para consultas/generación de imágenes (evitar spam)
-            
-            return qrImage;
-        } catch (WriterException | IOException e) {
-            logger.error("Error generating QR code image", e);
-            throw new RuntimeException("Error generating QR code image: " + e.getMessage());
-        }
+            try {
+                // NO registrar log de auditoría para consultas/generación de imágenes (evitar spam)
+                return qrCodeService.render(qrHash, options);
+            } catch (WriterException | IOException e) {
+                logger.error("Error generating QR code image", e);
+                throw new RuntimeException("Error generating QR code image: " + e.getMessage());
+            }
+        });
     }
 }
-
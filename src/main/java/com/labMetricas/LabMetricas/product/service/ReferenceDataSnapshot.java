@@ -0,0 +1,94 @@
+package com.labMetricas.LabMetricas.product.service;
+
+import com.labMetricas.LabMetricas.status.model.ProductStatus;
+import com.labMetricas.LabMetricas.status.repository.ProductStatusRepository;
+import com.labMetricas.LabMetricas.unitofmeasurement.model.UnitOfMeasurement;
+import com.labMetricas.LabMetricas.unitofmeasurement.repository.UnitOfMeasurementRepository;
+import com.labMetricas.LabMetricas.warehousetype.model.WarehouseType;
+import com.labMetricas.LabMetricas.warehousetype.repository.WarehouseTypeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Copia en memoria de los catálogos de referencia que se validan al crear un producto
+ * (estados, tipos de almacén y unidades de medida activos). Son tablas pequeñas que casi
+ * no cambian, así que se recargan completas al vencer el TTL o cuando sus servicios
+ * avisan de una escritura mediante {@link #invalidate()}.
+ */
+@Component
+public class ReferenceDataSnapshot {
+
+    @Autowired
+    private ProductStatusRepository productStatusRepository;
+
+    @Autowired
+    private WarehouseTypeRepository warehouseTypeRepository;
+
+    @Autowired
+    private UnitOfMeasurementRepository unitOfMeasurementRepository;
+
+    @Value("${product.reference-data.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private volatile Snapshot snapshot;
+
+    public Optional<ProductStatus> findProductStatus(Integer id) {
+        return Optional.ofNullable(id).map(current().productStatuses()::get);
+    }
+
+    public Optional<WarehouseType> findWarehouseType(Integer id) {
+        return Optional.ofNullable(id).map(current().warehouseTypes()::get);
+    }
+
+    public Optional<UnitOfMeasurement> findUnitOfMeasurement(Integer id) {
+        return Optional.ofNullable(id).map(current().units()::get);
+    }
+
+    /**
+     * Descarta la copia actual; la siguiente consulta vuelve a cargar los catálogos.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot local = snapshot;
+        if (local == null || local.isExpired()) {
+            synchronized (this) {
+                local = snapshot;
+                if (local == null || local.isExpired()) {
+                    local = load();
+                    snapshot = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private Snapshot load() {
+        Map<Integer, ProductStatus> statuses = productStatusRepository.findByDeletedAtIsNull().stream()
+            .collect(Collectors.toUnmodifiableMap(ProductStatus::getId, Function.identity()));
+        Map<Integer, WarehouseType> warehouseTypes = warehouseTypeRepository.findAll().stream()
+            .filter(wt -> wt.getDeletedAt() == null)
+            .collect(Collectors.toUnmodifiableMap(WarehouseType::getId, Function.identity()));
+        Map<Integer, UnitOfMeasurement> units = unitOfMeasurementRepository.findAll().stream()
+            .filter(uom -> uom.getDeletedAt() == null)
+            .collect(Collectors.toUnmodifiableMap(UnitOfMeasurement::getId, Function.identity()));
+        return new Snapshot(statuses, warehouseTypes, units, System.nanoTime() + ttlSeconds * 1_000_000_000L);
+    }
+
+    private record Snapshot(Map<Integer, ProductStatus> productStatuses,
+                            Map<Integer, WarehouseType> warehouseTypes,
+                            Map<Integer, UnitOfMeasurement> units,
+                            long expiresAtNanos) {
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+}
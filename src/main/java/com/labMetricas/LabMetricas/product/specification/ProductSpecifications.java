@@ -0,0 +1,78 @@
+package com.labMetricas.LabMetricas.product.specification;
+
+import com.labMetricas.LabMetricas.product.model.Product;
+import com.labMetricas.LabMetricas.product.model.dto.ProductFilterDto;
+import com.labMetricas.LabMetricas.util.KeysetCursor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Construye el filtro dinámico de productos a partir de ProductFilterDto.
+ * Cada criterio es una Specification independiente; solo se agregan los que vienen informados.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> fromFilter(ProductFilterDto filter) {
+        List<Specification<Product>> specs = new ArrayList<>();
+        specs.add(notDeleted());
+
+        if (filter != null) {
+            addIfPresent(specs, filter.getStockCatalogueId(), "stockCatalogue");
+            addIfPresent(specs, filter.getStatusId(), "productStatus");
+            addIfPresent(specs, filter.getWarehouseTypeId(), "warehouseType");
+            addIfPresent(specs, filter.getUnitOfMeasurementId(), "unitOfMeasurement");
+            addTextIfPresent(specs, filter.getFabricante(), "fabricante");
+            addTextIfPresent(specs, filter.getDistribuidor(), "distribuidor");
+            addTextIfPresent(specs, filter.getLote(), "lote");
+            addDateRange(specs, "caducidad", filter.getCaducidadDesde(), filter.getCaducidadHasta());
+            addDateRange(specs, "reanalisis", filter.getReanalisisDesde(), filter.getReanalisisHasta());
+        }
+
+        return Specification.allOf(specs);
+    }
+
+    public static Specification<Product> notDeleted() {
+        return (root, query, cb) -> cb.isNull(root.get("deletedAt"));
+    }
+
+    /**
+     * Filas estrictamente posteriores al cursor en el orden (createdAt DESC, id DESC).
+     */
+    public static Specification<Product> after(KeysetCursor cursor) {
+        return (root, query, cb) -> cb.or(
+            cb.lessThan(root.get("createdAt"), cursor.getCreatedAt()),
+            cb.and(
+                cb.equal(root.get("createdAt"), cursor.getCreatedAt()),
+                cb.lessThan(root.get("id"), cursor.getId())
+            )
+        );
+    }
+
+    private static void addIfPresent(List<Specification<Product>> specs, Integer id, String association) {
+        if (id != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get(association).get("id"), id));
+        }
+    }
+
+    private static void addTextIfPresent(List<Specification<Product>> specs, String value, String attribute) {
+        if (value != null && !value.trim().isEmpty()) {
+            String trimmed = value.trim();
+            specs.add((root, query, cb) -> cb.equal(root.get(attribute), trimmed));
+        }
+    }
+
+    private static void addDateRange(List<Specification<Product>> specs, String attribute, LocalDate from, LocalDate to) {
+        if (from != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDate>get(attribute), from));
+        }
+        if (to != null) {
+            specs.add((root, query, cb) -> cb.lessThanOrEqualTo(root.<LocalDate>get(attribute), to));
+        }
+    }
+}
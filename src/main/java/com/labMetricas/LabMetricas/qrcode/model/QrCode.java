@@ -5,6 +5,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -12,9 +15,12 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 
 @Entity
-@Table(name = "qr_codes")
+@Table(name = "qr_codes", indexes = {
+    @Index(name = "ux_qr_codes_qr_digest", columnList = "qr_digest", unique = true)
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -28,6 +34,13 @@ public class QrCode {
     @Column(name = "qr_contenido", nullable = false, columnDefinition = "TEXT")
     private String qrContenido;
 
+    /**
+     * SHA-256 del QR en binario (32 bytes). Es la columna indexada por la que se resuelven los escaneos;
+     * qr_contenido se sigue escribiendo mientras convivan filas sin migrar e instancias anteriores.
+     */
+    @Column(name = "qr_digest", columnDefinition = "BYTEA")
+    private byte[] qrDigest;
+
     @Column(name = "created_at", updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime createdAt;
 
@@ -36,5 +49,41 @@ public class QrCode {
 
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
-}
 
+    @PrePersist
+    @PreUpdate
+    void syncDigest() {
+        if (qrDigest == null) {
+            qrDigest = digestOf(qrContenido);
+        }
+    }
+
+    /**
+     * Convierte el hash hexadecimal que viaja en la API a los 32 bytes almacenados.
+     * Devuelve null si el valor no es un SHA-256 en hexadecimal (QR heredados con otro formato).
+     */
+    public static byte[] digestOf(String qrHash) {
+        if (qrHash == null || qrHash.length() != 64) {
+            return null;
+        }
+        try {
+            return HexFormat.of().parseHex(qrHash);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Forma hexadecimal del digest, la única representación que se expone en la API.
+     */
+    public static String hexOf(byte[] qrDigest) {
+        return qrDigest != null ? HexFormat.of().formatHex(qrDigest) : null;
+    }
+
+    /**
+     * Hash del QR tal como se expone en la API (derivado del digest cuando existe).
+     */
+    public String getQrHash() {
+        return qrDigest != null ? hexOf(qrDigest) : qrContenido;
+    }
+}
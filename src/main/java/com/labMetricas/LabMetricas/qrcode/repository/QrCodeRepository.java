@@ -15,6 +15,11 @@ public interface QrCodeRepository extends JpaRepository<QrCode, Integer> {
     // Find by qr contenido and not deleted
     Optional<QrCode> findByQrContenidoAndDeletedAtIsNull(String qrContenido);
     
+    // Find by digest (unique index) and not deleted
+    boolean existsByQrDigestAndDeletedAtIsNull(byte[] qrDigest);
+
+    boolean existsByQrContenidoAndDeletedAtIsNull(String qrContenido);
+
     // Find by id and not deleted
     Optional<QrCode> findByIdAndDeletedAtIsNull(Integer id);
     
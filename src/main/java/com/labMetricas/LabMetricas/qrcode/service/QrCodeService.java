@@ -6,6 +6,7 @@ import com.google.zxing.WriterException;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.labMetricas.LabMetricas.qrcode.model.QrCode;
 import com.labMetricas.LabMetricas.qrcode.repository.QrCodeRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,12 +14,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
-import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.UUID;
 
 @Service
 public class QrCodeService {
@@ -27,56 +33,196 @@ public class QrCodeService {
     @Autowired
     private QrCodeRepository qrCodeRepository;
 
-    private static final int QR_CODE_SIZE = 300;
+    @Autowired
+    private QrDigestBackfill qrDigestBackfill;
+
+    public static final int DEFAULT_SIZE = 300;
+    public static final int MIN_SIZE = 64;
+    public static final int MAX_SIZE = 2048;
+    public static final int DEFAULT_MARGIN = 1;
+    public static final int MAX_MARGIN = 16;
+    public static final ErrorCorrectionLevel DEFAULT_ERROR_CORRECTION = ErrorCorrectionLevel.H;
     private static final String IMAGE_FORMAT = "PNG";
 
+    public enum OutputFormat {
+        PNG("png", "image/png"),
+        SVG("svg", "image/svg+xml");
+
+        private final String extension;
+        private final String mediaType;
+
+        OutputFormat(String extension, String mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public String mediaType() {
+            return mediaType;
+        }
+    }
+
+    /**
+     * Parámetros de salida del QR: formato, tamaño en píxeles por lado, margen (zona de silencio, en módulos)
+     * y nivel de corrección de errores. Un nivel más bajo produce menos módulos y una salida más pequeña.
+     */
+    public record RenderOptions(OutputFormat format, int size, int margin, ErrorCorrectionLevel errorCorrection) {
+
+        public static final RenderOptions DEFAULT =
+            new RenderOptions(OutputFormat.PNG, DEFAULT_SIZE, DEFAULT_MARGIN, DEFAULT_ERROR_CORRECTION);
+
+        public RenderOptions {
+            if (format == null || errorCorrection == null) {
+                throw new IllegalArgumentException("Format and error correction level are required");
+            }
+            if (size < MIN_SIZE || size > MAX_SIZE) {
+                throw new IllegalArgumentException("Size must be between " + MIN_SIZE + " and " + MAX_SIZE);
+            }
+            if (margin < 0 || margin > MAX_MARGIN) {
+                throw new IllegalArgumentException("Margin must be between 0 and " + MAX_MARGIN);
+            }
+        }
+
+        /**
+         * Identificador estable de la variante, usado como parte de la clave de caché y del ETag.
+         */
+        public String variant() {
+            return format.extension() + "-s" + size + "-m" + margin + "-" + errorCorrection.name();
+        }
+    }
+
     /**
      * Genera una imagen QR a partir del hash del producto
      * @param qrHash El hash único del producto
      * @return Array de bytes de la imagen PNG del QR
      */
     public byte[] generateQrCodeImage(String qrHash) throws WriterException, IOException {
-        logger.info("Generating QR code image for hash: {}", qrHash);
+        return render(qrHash, RenderOptions.DEFAULT);
+    }
+
+    /**
+     * Genera el QR en el formato y con los parámetros indicados.
+     */
+    public byte[] render(String qrHash, RenderOptions options) throws WriterException, IOException {
+        byte[] bytes = options.format() == OutputFormat.SVG
+            ? generateQrCodeSvg(qrHash, options)
+            : generateQrCodePng(qrHash, options);
+        logger.debug("QR code rendered for hash: {} ({}, {} bytes)", qrHash, options.variant(), bytes.length);
+        return bytes;
+    }
+
+    /**
+     * Genera la imagen PNG del QR.
+     * Los módulos se escriben directamente en el buffer de una imagen de 1 bit por píxel,
+     * que además produce el PNG más pequeño y rápido de codificar.
+     */
+    private byte[] generateQrCodePng(String qrHash, RenderOptions options) throws WriterException, IOException {
+        BitMatrix bitMatrix = encode(qrHash, options.size(), options.margin(), options.errorCorrection());
+        BufferedImage qrImage = toBinaryImage(bitMatrix);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(qrImage, IMAGE_FORMAT, baos);
+        return baos.toByteArray();
+    }
 
-        // Configuración del QR Code
+    /**
+     * Genera el QR como SVG vectorial: la matriz se codifica a un píxel por módulo y cada tramo horizontal
+     * de módulos oscuros se emite como un segmento de un único path, escalado al tamaño pedido con viewBox.
+     * No hay rasterizado ni compresión, y el resultado se imprime nítido a cualquier resolución.
+     */
+    private byte[] generateQrCodeSvg(String qrHash, RenderOptions options) throws WriterException {
+        BitMatrix modules = encode(qrHash, 0, options.margin(), options.errorCorrection());
+        int width = modules.getWidth();
+        int height = modules.getHeight();
+
+        StringBuilder path = new StringBuilder(width * height / 2);
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!modules.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && modules.get(x, y)) {
+                    x++;
+                }
+                path.append('M').append(start).append(' ').append(y)
+                    .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+
+        String svg = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + options.size() + "\" height=\"" + options.size()
+            + "\" viewBox=\"0 0 " + width + " " + height + "\" shape-rendering=\"crispEdges\">"
+            + "<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>"
+            + "<path fill=\"#000\" d=\"" + path + "\"/>"
+            + "</svg>";
+        return svg.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Imagen del QR en memoria (1 bit por píxel), para componerla en otras imágenes sin codificar PNG.
+     */
+    public BufferedImage generateQrCodeBitmap(String qrHash, int size) throws WriterException {
+        return toBinaryImage(encode(qrHash, size, DEFAULT_MARGIN, DEFAULT_ERROR_CORRECTION));
+    }
+
+    /**
+     * Codifica el hash; con size 0 la matriz resultante tiene un píxel por módulo (incluido el margen).
+     */
+    private BitMatrix encode(String qrHash, int size, int margin, ErrorCorrectionLevel errorCorrection)
+            throws WriterException {
         Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+        hints.put(EncodeHintType.ERROR_CORRECTION, errorCorrection);
         hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-        hints.put(EncodeHintType.MARGIN, 1);
-
-        // Crear el QR Code Writer
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(qrHash, BarcodeFormat.QR_CODE, QR_CODE_SIZE, QR_CODE_SIZE, hints);
+        hints.put(EncodeHintType.MARGIN, margin);
+        return new QRCodeWriter().encode(qrHash, BarcodeFormat.QR_CODE, size, size, hints);
+    }
 
-        // Convertir BitMatrix a BufferedImage
+    /**
+     * Copia la matriz a una imagen TYPE_BYTE_BINARY (paleta 0 = negro, 1 = blanco, 8 píxeles por byte)
+     * escribiendo los bytes de cada fila en el raster, sin pasar por Graphics2D.
+     */
+    static BufferedImage toBinaryImage(BitMatrix bitMatrix) {
         int width = bitMatrix.getWidth();
         int height = bitMatrix.getHeight();
-        BufferedImage qrImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        qrImage.createGraphics();
-
-        Graphics2D graphics = (Graphics2D) qrImage.getGraphics();
-        graphics.setColor(Color.WHITE);
-        graphics.fillRect(0, 0, width, height);
-        graphics.setColor(Color.BLACK);
-
-        // Dibujar el QR Code
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                if (bitMatrix.get(x, y)) {
-                    graphics.fillRect(x, y, 1, 1);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        int rowBytes = (width + 7) / 8;
+
+        for (int y = 0; y < height; y++) {
+            int rowOffset = y * rowBytes;
+            for (int i = 0; i < rowBytes; i++) {
+                int packed = 0xFF;
+                int baseX = i * 8;
+                for (int bit = 0; bit < 8 && baseX + bit < width; bit++) {
+                    if (bitMatrix.get(baseX + bit, y)) {
+                        packed &= ~(0x80 >>> bit);
+                    }
                 }
+                pixels[rowOffset + i] = (byte) packed;
             }
         }
+        return image;
+    }
 
-        graphics.dispose();
-
-        // Convertir BufferedImage a byte array
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(qrImage, IMAGE_FORMAT, baos);
-        byte[] imageBytes = baos.toByteArray();
-
-        logger.info("QR code image generated successfully. Size: {} bytes", imageBytes.length);
-        return imageBytes;
+    /**
+     * Genera un hash SHA-256 (hex) único para un nuevo QR sin depender del ID del producto,
+     * de modo que el QR puede insertarse antes (o junto con) el producto.
+     */
+    public String generateQrHash(String lote) {
+        String rawHash = UUID.randomUUID() + "_" + lote + "_" + System.nanoTime();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawHash.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 es obligatorio en toda JVM; no debería ocurrir
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     /**
@@ -92,7 +238,19 @@ public class QrCodeService {
      * Valida que el hash existe en la base de datos
      */
     public boolean validateQrHash(String qrHash) {
-        return qrCodeRepository.findByQrContenidoAndDeletedAtIsNull(qrHash).isPresent();
+        byte[] digest = QrCode.digestOf(qrHash);
+        if (digest != null && qrCodeRepository.existsByQrDigestAndDeletedAtIsNull(digest)) {
+            return true;
+        }
+        return needsLegacyLookup(digest) && qrCodeRepository.existsByQrContenidoAndDeletedAtIsNull(qrHash);
+    }
+
+    /**
+     * Indica si un hash que no se encontró por digest debe buscarse también por qr_contenido:
+     * hashes con formato heredado, o cualquier hash mientras la migración a qr_digest no ha terminado.
+     */
+    public boolean needsLegacyLookup(byte[] digest) {
+        return digest == null || !qrDigestBackfill.isComplete();
     }
 }
 
@@ -0,0 +1,94 @@
+package com.labMetricas.LabMetricas.qrcode.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migra en segundo plano los QR existentes a la columna qr_digest, por lotes cortos de IDs para no bloquear
+ * la tabla ni detener la aplicación. Mientras no termine, las búsquedas por hash consultan también
+ * qr_contenido para las filas que todavía no tienen digest.
+ */
+@Component
+public class QrDigestBackfill {
+    private static final Logger logger = LoggerFactory.getLogger(QrDigestBackfill.class);
+
+    // Dentro del lote se toma un solo QR por digest y se omiten los que ya existen en otra fila
+    // (hashes duplicados heredados); esas filas quedan sin digest y mantienen la búsqueda por qr_contenido
+    private static final String BACKFILL_BATCH =
+        "UPDATE qr_codes q SET qr_digest = c.digest " +
+        "FROM (SELECT DISTINCT ON (decode(qr_contenido, 'hex')) id, decode(qr_contenido, 'hex') AS digest " +
+        "      FROM qr_codes WHERE id > ? AND id <= ? AND qr_digest IS NULL AND qr_contenido ~ '^[0-9a-fA-F]{64}$' " +
+        "      ORDER BY decode(qr_contenido, 'hex'), id) c " +
+        "WHERE q.id = c.id AND NOT EXISTS (SELECT 1 FROM qr_codes d WHERE d.qr_digest = c.digest)";
+
+    // Filas con hash hexadecimal que todavía no tienen digest, en cualquier rango de IDs
+    private static final String PENDING_ROWS =
+        "SELECT EXISTS (SELECT 1 FROM qr_codes WHERE qr_digest IS NULL AND qr_contenido ~ '^[0-9a-fA-F]{64}$')";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${qr.digest.backfill.batch-size:1000}")
+    private int batchSize;
+
+    private volatile boolean complete;
+
+    private int watermark;
+
+    /**
+     * Indica si la última pasada no encontró filas con hash hexadecimal sin digest; a partir de ahí basta
+     * con el índice. Se recalcula en cada pasada, así que vuelve a false si aparecen filas nuevas sin digest.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread worker = new Thread(this::backfill, "qr-digest-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Repasa las filas nuevas sin digest que escriban instancias anteriores durante un despliegue escalonado.
+     */
+    @Scheduled(initialDelayString = "${qr.digest.backfill.interval-ms:600000}",
+               fixedDelayString = "${qr.digest.backfill.interval-ms:600000}")
+    public void catchUp() {
+        backfill();
+    }
+
+    private synchronized void backfill() {
+        try {
+            Integer maxId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM qr_codes WHERE id > ? AND qr_digest IS NULL", Integer.class, watermark);
+            if (maxId != null) {
+                logger.info("Backfilling qr_digest for QR IDs {} to {}", watermark + 1, maxId);
+                long updated = 0;
+                // Cada lote se confirma por separado (autocommit), así los bloqueos duran lo que un lote
+                for (int from = watermark; from < maxId; from += batchSize) {
+                    updated += jdbcTemplate.update(BACKFILL_BATCH, from, Math.min(from + batchSize, maxId));
+                }
+                watermark = maxId;
+                logger.info("qr_digest backfill pass completed ({} rows)", updated);
+            }
+            boolean pending = Boolean.TRUE.equals(jdbcTemplate.queryForObject(PENDING_ROWS, Boolean.class));
+            if (pending) {
+                logger.info("QR rows without qr_digest remain; lookups keep falling back to qr_contenido");
+            } else if (!complete) {
+                logger.info("No QR rows without qr_digest remain; lookups use the digest index only");
+            }
+            complete = !pending;
+        } catch (Exception e) {
+            logger.error("Error backfilling qr_digest; lookups keep falling back to qr_contenido", e);
+        }
+    }
+}
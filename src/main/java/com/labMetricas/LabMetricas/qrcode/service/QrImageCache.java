@@ -0,0 +1,143 @@
+package com.labMetricas.LabMetricas.qrcode.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.labMetricas.LabMetricas.qrcode.model.QrCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Caché de imágenes QR ya codificadas, direccionada por contenido: la imagen de un hash con una misma
+ * variante (tamaño, formato) nunca cambia, así que la clave identifica los bytes y sirve también de ETag fuerte.
+ * Nivel en memoria (Caffeine, acotado por bytes) respaldado por archivos en disco local que sobreviven reinicios.
+ * Sólo las variantes de {@code qr.image.cache.disk-variants} (por defecto, la del QR estándar) se guardan en disco:
+ * la variante la elige el cliente y el endpoint es público, así que el resto vive sólo en memoria, acotado por bytes.
+ */
+@Component
+public class QrImageCache {
+    private static final Logger logger = LoggerFactory.getLogger(QrImageCache.class);
+
+    // Cambiar si cambia el renderizado, para que los clientes no reutilicen imágenes anteriores
+    private static final String RENDER_VERSION = "v2";
+
+    private final Cache<String, byte[]> memory;
+    private final Path directory;
+    private final Set<String> diskVariants;
+
+    public QrImageCache(@Value("${qr.image.cache.max-bytes:33554432}") long maxBytes,
+                        @Value("${qr.image.cache.dir:./data/qr-images}") String directory,
+                        @Value("${qr.image.cache.disk-variants:}") Set<String> diskVariants) {
+        this.memory = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, byte[] bytes) -> bytes.length)
+            .build();
+        this.directory = Path.of(directory);
+        this.diskVariants = diskVariants == null || diskVariants.isEmpty()
+            ? Set.of(QrCodeService.RenderOptions.DEFAULT.variant())
+            : Set.copyOf(diskVariants);
+    }
+
+    public record QrImage(byte[] bytes, String etag) {
+    }
+
+    /**
+     * ETag fuerte de la imagen, calculable sin leer ni generar los bytes.
+     */
+    public String etag(String qrHash, String variant) {
+        return "\"" + key(qrHash, variant) + "\"";
+    }
+
+    /**
+     * Compara un encabezado If-None-Match con el ETag: lista separada por comas, comparación débil
+     * (se ignora el prefijo {@code W/}) y {@code *} coincide con cualquier representación existente.
+     */
+    public static boolean matchesIfNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Devuelve la imagen desde memoria o disco; si no existe, la genera con {@code renderer} y la guarda en memoria
+     * y, si la variante está en la lista de variantes persistidas, también en disco.
+     */
+    public QrImage get(String qrHash, String variant, String extension, Supplier<byte[]> renderer) {
+        String key = key(qrHash, variant);
+        byte[] bytes = memory.get(key, k -> persistsToDisk(variant)
+            ? loadOrRender(k, extension, renderer)
+            : renderer.get());
+        return new QrImage(bytes, "\"" + key + "\"");
+    }
+
+    boolean persistsToDisk(String variant) {
+        return diskVariants.contains(variant);
+    }
+
+    private byte[] loadOrRender(String key, String extension, Supplier<byte[]> renderer) {
+        Path file = directory.resolve(key + "." + extension);
+        try {
+            if (Files.isRegularFile(file)) {
+                return Files.readAllBytes(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read cached QR image {}", file, e);
+        }
+
+        byte[] bytes = renderer.get();
+        try {
+            Files.createDirectories(directory);
+            // Escritura atómica: otro hilo o instancia nunca lee un archivo a medio escribir
+            Path tmp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write cached QR image {}", file, e);
+        }
+        return bytes;
+    }
+
+    /**
+     * Clave segura para nombre de archivo: el hash normalizado a hexadecimal en minúsculas
+     * (o su SHA-256 si es un QR heredado con otro formato), la variante y la versión del renderizado.
+     */
+    String key(String qrHash, String variant) {
+        byte[] digest = QrCode.digestOf(qrHash);
+        String normalized = digest != null ? QrCode.hexOf(digest) : sha256Hex(qrHash);
+        return normalized + "-" + variant + "-" + RENDER_VERSION;
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
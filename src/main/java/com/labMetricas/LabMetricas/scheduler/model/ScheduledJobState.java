@@ -0,0 +1,44 @@
+package com.labMetricas.LabMetricas.scheduler.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Marca de agua persistida de una tarea programada, para que cada ejecución procese sólo lo nuevo.
+ */
+@Entity
+@Table(name = "scheduled_job_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledJobState {
+
+    @Id
+    @Column(name = "job_name", columnDefinition = "VARCHAR(100)", length = 100)
+    private String jobName;
+
+    // Última fecha de horizonte ya revisada (hoy + ventana en la ejecución anterior)
+    @Column(name = "date_watermark", columnDefinition = "DATE")
+    private LocalDate dateWatermark;
+
+    // Instante desde el que se deben revisar filas modificadas en la próxima ejecución
+    @Column(name = "updated_watermark")
+    private LocalDateTime updatedWatermark;
+
+    // Último ID ya procesado, para tareas que consumen filas en orden de inserción
+    @Column(name = "id_watermark")
+    private Long idWatermark;
+
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+}
@@ -0,0 +1,9 @@
+package com.labMetricas.LabMetricas.scheduler.repository;
+
+import com.labMetricas.LabMetricas.scheduler.model.ScheduledJobState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScheduledJobStateRepository extends JpaRepository<ScheduledJobState, String> {
+}
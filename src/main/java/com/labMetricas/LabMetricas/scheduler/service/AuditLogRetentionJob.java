@@ -0,0 +1,84 @@
+package com.labMetricas.LabMetricas.scheduler.service;
+
+import com.labMetricas.LabMetricas.auditLog.service.AuditLogArchiveService;
+import com.labMetricas.LabMetricas.auditLog.service.AuditLogPartitionManager;
+import com.labMetricas.LabMetricas.auditLog.service.AuditLogPartitionManager.AuditLogPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.YearMonth;
+
+/**
+ * Retención de auditoría: las particiones mensuales de audit_logs más antiguas que {@code audit.retention.months}
+ * se vuelcan a un archivo NDJSON comprimido y después se separan y eliminan.
+ *
+ * Cada partición se procesa en su propia transacción con el advisory lock de la tarea: si el archivo no se
+ * puede escribir, la transacción se revierte y la partición sigue en la base hasta la próxima ejecución.
+ */
+@Service
+public class AuditLogRetentionJob {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogRetentionJob.class);
+
+    private static final String JOB_NAME = "audit-log-retention";
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private AuditLogPartitionManager auditLogPartitionManager;
+
+    @Autowired
+    private AuditLogArchiveService auditLogArchiveService;
+
+    @Value("${audit.retention.months:12}")
+    private int retentionMonths;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public AuditLogRetentionJob(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${audit.retention.cron:0 40 1 * * *}")
+    public void run() {
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        for (AuditLogPartition partition : auditLogPartitionManager.listPartitions()) {
+            if (!partition.month().isBefore(oldestKept)) {
+                break;
+            }
+            try {
+                Boolean done = transactionTemplate.execute(status -> archiveAndDrop(partition));
+                if (!Boolean.TRUE.equals(done)) {
+                    logger.debug("Audit log retention skipped: another instance holds the lock");
+                    return;
+                }
+            } catch (Exception e) {
+                logger.error("Error archiving audit_logs partition {}", partition.name(), e);
+                return;
+            }
+        }
+    }
+
+    private boolean archiveAndDrop(AuditLogPartition partition) {
+        if (!jobLockService.tryLock(JOB_NAME)) {
+            return false;
+        }
+        try {
+            auditLogArchiveService.writeArchive(partition);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        auditLogPartitionManager.detachAndDrop(partition);
+        logger.info("Audit log partition {} archived and dropped", partition.name());
+        return true;
+    }
+}
@@ -0,0 +1,29 @@
+package com.labMetricas.LabMetricas.scheduler.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Candado distribuido respaldado por PostgreSQL (advisory lock a nivel de transacción).
+ * Cuando varias instancias ejecutan la misma tarea a la vez, sólo la que obtiene el candado trabaja;
+ * el candado se libera solo al terminar la transacción, incluso si la instancia cae.
+ */
+@Service
+public class JobLockService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Intenta tomar el candado de la tarea sin esperar. Debe llamarse dentro de la transacción que hace el trabajo.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryLock(String jobName) {
+        Boolean acquired = jdbcTemplate.queryForObject(
+            "SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, jobName);
+        return Boolean.TRUE.equals(acquired);
+    }
+}
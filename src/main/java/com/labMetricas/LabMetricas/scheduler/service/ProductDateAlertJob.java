@@ -0,0 +1,190 @@
+package com.labMetricas.LabMetricas.scheduler.service;
+
+import com.labMetricas.LabMetricas.Notice.model.Notice;
+import com.labMetricas.LabMetricas.Notice.repository.NoticeRepository;
+import com.labMetricas.LabMetricas.NoticeRecipient.model.NoticeRecipient;
+import com.labMetricas.LabMetricas.NoticeRecipient.model.NoticeRecipientInterface;
+import com.labMetricas.LabMetricas.enums.TipoAlertaProducto;
+import com.labMetricas.LabMetricas.product.model.Product;
+import com.labMetricas.LabMetricas.product.model.ProductDateAlert;
+import com.labMetricas.LabMetricas.product.repository.ProductDateAlertRepository;
+import com.labMetricas.LabMetricas.product.repository.ProductRepository;
+import com.labMetricas.LabMetricas.scheduler.model.ScheduledJobState;
+import com.labMetricas.LabMetricas.scheduler.repository.ScheduledJobStateRepository;
+import com.labMetricas.LabMetricas.user.model.User;
+import com.labMetricas.LabMetricas.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Revisa periódicamente los productos que entran en la ventana de caducidad o de reanálisis
+ * y genera un aviso (Notice) para supervisores y administradores.
+ *
+ * Es incremental: sólo consulta las fechas entre el horizonte revisado en la ejecución anterior y el actual,
+ * más los productos creados o editados desde entonces. Puede ejecutarse en varias instancias a la vez:
+ * un advisory lock de PostgreSQL garantiza que sólo una revise en cada ciclo.
+ */
+@Service
+public class ProductDateAlertJob {
+    private static final Logger logger = LoggerFactory.getLogger(ProductDateAlertJob.class);
+
+    private static final String JOB_NAME = "product-date-alerts";
+    private static final Set<String> RECIPIENT_ROLES = Set.of("SUPERVISOR", "ADMIN");
+    private static final int MAX_LISTED_PRODUCTS = 50;
+
+    // Margen hacia atrás al revisar productos modificados, para no perder transacciones que confirmaron tarde
+    private static final long MODIFIED_LAG_MINUTES = 5;
+
+    @Value("${product.alerts.window-days:30}")
+    private int windowDays;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private ScheduledJobStateRepository scheduledJobStateRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductDateAlertRepository productDateAlertRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NoticeRepository noticeRepository;
+
+    @Autowired
+    private NoticeRecipientInterface noticeRecipientRepository;
+
+    @Scheduled(cron = "${product.alerts.cron:0 15 * * * *}")
+    @Transactional
+    public void run() {
+        if (!jobLockService.tryLock(JOB_NAME)) {
+            logger.debug("Product date alert scan skipped: another instance holds the lock");
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        LocalDate horizon = today.plusDays(windowDays);
+
+        ScheduledJobState state = scheduledJobStateRepository.findById(JOB_NAME).orElseGet(() -> {
+            ScheduledJobState initial = new ScheduledJobState();
+            initial.setJobName(JOB_NAME);
+            return initial;
+        });
+
+        // Primera ejecución: revisar toda la ventana [hoy, horizonte]
+        LocalDate previousHorizon = state.getDateWatermark() != null && !state.getDateWatermark().isBefore(today)
+            ? state.getDateWatermark()
+            : today.minusDays(1);
+        LocalDateTime modifiedSince = state.getUpdatedWatermark() != null ? state.getUpdatedWatermark() : now;
+
+        List<Product> expiring = productRepository.findEnteringExpiryWindow(today, previousHorizon, horizon, modifiedSince);
+        List<Product> reanalysis = productRepository.findEnteringReanalysisWindow(today, previousHorizon, horizon, modifiedSince);
+
+        List<User> recipients = null;
+        int notified = 0;
+        if (!expiring.isEmpty() || !reanalysis.isEmpty()) {
+            recipients = userRepository.findActiveByRoleNames(RECIPIENT_ROLES);
+            notified += raiseAlerts(TipoAlertaProducto.caducidad, expiring, Product::getCaducidad, recipients, now);
+            notified += raiseAlerts(TipoAlertaProducto.reanalisis, reanalysis, Product::getReanalisis, recipients, now);
+        }
+
+        state.setDateWatermark(horizon);
+        state.setUpdatedWatermark(now.minusMinutes(MODIFIED_LAG_MINUTES));
+        state.setLastRunAt(now);
+        scheduledJobStateRepository.save(state);
+
+        logger.info("Product date alert scan finished: {} new alerts up to {}", notified, horizon);
+    }
+
+    /**
+     * Descarta los productos ya avisados para esa misma fecha y crea un aviso con los restantes.
+     */
+    private int raiseAlerts(TipoAlertaProducto tipo, List<Product> candidates, Function<Product, LocalDate> dueDateOf,
+                            List<User> recipients, LocalDateTime now) {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> alreadyAlerted = productDateAlertRepository
+            .findByTipoAndProductIdIn(tipo, candidates.stream().map(Product::getId).toList())
+            .stream()
+            .map(a -> a.getProductId() + "|" + a.getDueDate())
+            .collect(Collectors.toSet());
+
+        List<Product> pending = candidates.stream()
+            .filter(p -> !alreadyAlerted.contains(p.getId() + "|" + dueDateOf.apply(p)))
+            .sorted(Comparator.comparing(dueDateOf))
+            .toList();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Notice notice = new Notice();
+        notice.setTitle(tipo == TipoAlertaProducto.caducidad
+            ? String.format("Productos por caducar en %d días (%d)", windowDays, pending.size())
+            : String.format("Productos con reanálisis en %d días (%d)", windowDays, pending.size()));
+        notice.setDescription(buildDescription(tipo, pending, dueDateOf));
+        notice.setStatus(true);
+        notice.setCreatedAt(now);
+        notice.setUpdatedAt(now);
+        Notice savedNotice = noticeRepository.save(notice);
+
+        List<NoticeRecipient> noticeRecipients = new ArrayList<>(recipients.size());
+        for (User user : recipients) {
+            NoticeRecipient recipient = new NoticeRecipient();
+            recipient.setId(new NoticeRecipient.NoticeRecipientId(savedNotice.getId(), user.getId()));
+            recipient.setNotice(savedNotice);
+            recipient.setUser(user);
+            noticeRecipients.add(recipient);
+        }
+        noticeRecipientRepository.saveAll(noticeRecipients);
+
+        List<ProductDateAlert> alerts = new ArrayList<>(pending.size());
+        for (Product product : pending) {
+            ProductDateAlert alert = new ProductDateAlert();
+            alert.setProductId(product.getId());
+            alert.setTipo(tipo);
+            alert.setDueDate(dueDateOf.apply(product));
+            alert.setNoticeId(savedNotice.getId());
+            alert.setCreatedAt(now);
+            alerts.add(alert);
+        }
+        productDateAlertRepository.saveAll(alerts);
+
+        return pending.size();
+    }
+
+    private String buildDescription(TipoAlertaProducto tipo, List<Product> products, Function<Product, LocalDate> dueDateOf) {
+        String label = tipo == TipoAlertaProducto.caducidad ? "Caduca" : "Reanálisis";
+        StringBuilder description = new StringBuilder();
+        products.stream().limit(MAX_LISTED_PRODUCTS).forEach(p -> description
+            .append("- ").append(p.getNombre())
+            .append(" | Lote: ").append(p.getLote())
+            .append(" | ").append(label).append(": ").append(dueDateOf.apply(p))
+            .append("\n"));
+        if (products.size() > MAX_LISTED_PRODUCTS) {
+            description.append("... y ").append(products.size() - MAX_LISTED_PRODUCTS).append(" productos más");
+        }
+        return description.toString().trim();
+    }
+}
@@ -1,14 +1,18 @@
 package com.labMetricas.LabMetricas.status.service;
 
+import com.labMetricas.LabMetricas.auditLog.Audited;
+import com.labMetricas.LabMetricas.auditLog.model.AuditChanges;
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
 import com.labMetricas.LabMetricas.enums.TypeResponse;
+import com.labMetricas.LabMetricas.product.service.ReferenceDataSnapshot;
 import com.labMetricas.LabMetricas.status.model.ProductStatus;
 import com.labMetricas.LabMetricas.status.model.dto.ProductStatusDto;
 import com.labMetricas.LabMetricas.status.repository.ProductStatusRepository;
 import com.labMetricas.LabMetricas.user.model.User;
 import com.labMetricas.LabMetricas.user.repository.UserRepository;
 import com.labMetricas.LabMetricas.util.ResponseObject;
-import com.labMetricas.LabMetricas.auditLog.model.AuditLog;
-import com.labMetricas.LabMetricas.auditLog.repository.AuditLogRepository;
+import com.labMetricas.LabMetricas.auditLog.service.AuditLogPublisher;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +25,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,34 +39,12 @@ public class ProductStatusService {
     private UserRepository userRepository;
 
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditLogPublisher auditLogPublisher;
 
-    // Método helper para crear logs de auditoría
-    private void createAuditLog(String action) {
-        try {
-            // Obtener el usuario actual autenticado
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = null;
-            
-            if (authentication != null && authentication.isAuthenticated()) {
-                String email = authentication.getName();
-                currentUser = userRepository.findByEmail(email).orElse(null);
-            }
-            
-            AuditLog auditLog = new AuditLog();
-            auditLog.setAction(action);
-            auditLog.setUser(currentUser);
-            auditLog.setCreatedAt(LocalDateTime.now());
-            auditLogRepository.save(auditLog);
-            
-            logger.debug("Audit log created: {} by user: {}", action, 
-                currentUser != null ? currentUser.getEmail() : "ANONYMOUS");
-        } catch (Exception e) {
-            logger.error("Error creating audit log: {}", action, e);
-            // No lanzar excepción para no interrumpir el flujo principal
-        }
-    }
+    @Autowired
+    private ReferenceDataSnapshot referenceDataSnapshot;
 
+    @Audited(action = AuditAction.CREATE, entity = AuditEntityType.PRODUCT_STATUS)
     @Transactional
     public ResponseEntity<ResponseObject> createProductStatus(ProductStatusDto productStatusDto) {
         try {
@@ -86,13 +69,11 @@ public class ProductStatusService {
             productStatus.setUpdatedAt(LocalDateTime.now());
 
             ProductStatus savedProductStatus = productStatusRepository.save(productStatus);
+            referenceDataSnapshot.invalidate();
             ProductStatusDto responseDto = convertToDto(savedProductStatus);
 
             logger.info("Product status created successfully: {}", savedProductStatus.getName());
 
-            // Registrar log de auditoría
-            createAuditLog(String.format("Se agregó un estado de producto: %s", savedProductStatus.getName()));
-
             return ResponseEntity.status(HttpStatus.CREATED).body(
                 new ResponseObject("Product status created successfully", responseDto, TypeResponse.SUCCESS)
             );
@@ -119,6 +100,9 @@ public class ProductStatusService {
                 );
             }
 
+            Map<String, Object> before = AuditChanges.of(
+                "nombre", existingProductStatus.getName(), "descripcion", existingProductStatus.getDescription());
+
             // Update product status details
             existingProductStatus.setName(productStatusDto.getName());
             existingProductStatus.setDescription(productStatusDto.getDescription());
@@ -126,6 +110,7 @@ public class ProductStatusService {
 
             // Save updated product status
             ProductStatus updatedProductStatus = productStatusRepository.save(existingProductStatus);
+            referenceDataSnapshot.invalidate();
 
             // Convert to DTO for response
             ProductStatusDto responseDto = convertToDto(updatedProductStatus);
@@ -133,8 +118,9 @@ public class ProductStatusService {
             logger.info("Product status updated successfully: {}", updatedProductStatus.getName());
 
             // Registrar log de auditoría
-            createAuditLog(String.format("Se actualizó el estado de producto: %s (ID: %d)", 
-                updatedProductStatus.getName(), updatedProductStatus.getId()));
+            auditLogPublisher.publish(AuditAction.UPDATE, AuditEntityType.PRODUCT_STATUS, updatedProductStatus.getId(),
+                updatedProductStatus.getName(), AuditChanges.diff(before, AuditChanges.of(
+                    "nombre", updatedProductStatus.getName(), "descripcion", updatedProductStatus.getDescription())));
 
             return ResponseEntity.ok(
                 new ResponseObject("Product status updated successfully", responseDto, TypeResponse.SUCCESS)
@@ -197,6 +183,7 @@ public class ProductStatusService {
             productStatus.setDeletedAt(LocalDateTime.now());
             productStatus.setUpdatedAt(LocalDateTime.now());
             productStatusRepository.save(productStatus);
+            referenceDataSnapshot.invalidate();
 
             logger.info("Product status deleted successfully: {}", productStatus.getName());
 
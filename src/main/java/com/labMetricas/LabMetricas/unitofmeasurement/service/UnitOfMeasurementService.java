@@ -3,6 +3,7 @@ package com.labMetricas.LabMetricas.unitofmeasurement.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.labMetricas.LabMetricas.product.service.ReferenceDataSnapshot;
 import com.labMetricas.LabMetricas.unitofmeasurement.model.UnitOfMeasurement;
 import com.labMetricas.LabMetricas.unitofmeasurement.repository.UnitOfMeasurementRepository;
 
@@ -16,6 +17,9 @@ public class UnitOfMeasurementService {
     @Autowired
     private UnitOfMeasurementRepository unitOfMeasurementRepository;
 
+    @Autowired
+    private ReferenceDataSnapshot referenceDataSnapshot;
+
     public List<UnitOfMeasurement> getAllUnits() {
         return unitOfMeasurementRepository.findAll().stream()
             .filter(uom -> uom.getDeletedAt() == null)
@@ -41,12 +45,16 @@ public class UnitOfMeasurementService {
     public UnitOfMeasurement createUnit(UnitOfMeasurement unit) {
         unit.setCreatedAt(LocalDateTime.now());
         unit.setUpdatedAt(LocalDateTime.now());
-        return unitOfMeasurementRepository.save(unit);
+        UnitOfMeasurement saved = unitOfMeasurementRepository.save(unit);
+        referenceDataSnapshot.invalidate();
+        return saved;
     }
 
     public UnitOfMeasurement updateUnit(UnitOfMeasurement unit) {
         unit.setUpdatedAt(LocalDateTime.now());
-        return unitOfMeasurementRepository.save(unit);
+        UnitOfMeasurement saved = unitOfMeasurementRepository.save(unit);
+        referenceDataSnapshot.invalidate();
+        return saved;
     }
 
     public void deleteUnit(Integer id) {
@@ -55,6 +63,7 @@ public class UnitOfMeasurementService {
             UnitOfMeasurement uom = unit.get();
             uom.setDeletedAt(LocalDateTime.now());
             unitOfMeasurementRepository.save(uom);
+            referenceDataSnapshot.invalidate();
         }
     }
 }
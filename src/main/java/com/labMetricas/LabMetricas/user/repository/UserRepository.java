@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,4 +40,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     void deleteByEmail(String email);
 
     List<User> findByRole(Role role);
+
+    @Query("SELECT u FROM User u JOIN FETCH u.role r WHERE r.name IN :roleNames AND u.status = true AND u.deletedAt IS NULL")
+    List<User> findActiveByRoleNames(@Param("roleNames") Collection<String> roleNames);
 } 
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.labMetricas.LabMetricas.user.service;
 
+import com.labMetricas.LabMetricas.auditLog.Audited;
+import com.labMetricas.LabMetricas.auditLog.model.AuditChanges;
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
 import com.labMetricas.LabMetricas.enums.TypeResponse;
 import com.labMetricas.LabMetricas.role.repository.RoleRepository;
 import com.labMetricas.LabMetricas.user.model.User;
@@ -8,8 +12,7 @@ import com.labMetricas.LabMetricas.user.model.dto.ChangePasswordDto;
 import com.labMetricas.LabMetricas.user.model.dto.UserDto;
 import com.labMetricas.LabMetricas.util.ResponseObject;
 import com.labMetricas.LabMetricas.config.ProductionEmailService;
-import com.labMetricas.LabMetricas.auditLog.model.AuditLog;
-import com.labMetricas.LabMetricas.auditLog.repository.AuditLogRepository;
+import com.labMetricas.LabMetricas.auditLog.service.AuditLogPublisher;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +28,7 @@ import org.springframework.stereotype.Service;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -50,38 +54,11 @@ public class UserService {
     private ProductionEmailService productionEmailService;
 
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditLogPublisher auditLogPublisher;
 
     @Value("${frontend.url}")
     private String frontendUrl;
 
-    // Método helper para crear logs de auditoría
-    private void createAuditLog(String action, User user) {
-        try {
-            // Obtener el usuario actual autenticado
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = null;
-            
-            if (authentication != null && authentication.isAuthenticated()) {
-                String email = authentication.getName();
-                Optional<User> userOpt = userRepository.findByEmail(email);
-                currentUser = userOpt.orElse(null);
-            }
-            
-            AuditLog auditLog = new AuditLog();
-            auditLog.setAction(action);
-            auditLog.setUser(currentUser);
-            auditLog.setCreatedAt(LocalDateTime.now());
-            auditLogRepository.save(auditLog);
-            
-            logger.debug("Audit log created: {} by user: {}", action, 
-                currentUser != null ? currentUser.getEmail() : "ANONYMOUS");
-        } catch (Exception e) {
-            logger.error("Error creating audit log: {}", action, e);
-            // No lanzar excepción para no interrumpir el flujo principal
-        }
-    }
-
     // Method to send welcome email with temporary password
     private void sendWelcomeEmail(String email, String temporaryPassword, String name) {
         try {
@@ -159,6 +136,8 @@ public class UserService {
         );
     }
 
+    // Sólo las propiedades declaradas: UserDto también tiene campos de contraseña
+    @Audited(action = AuditAction.CREATE, entity = AuditEntityType.USER, fields = "email")
     @Transactional
     public ResponseEntity<ResponseObject> createUser(UserDto userDto) {
         try {
@@ -196,9 +175,6 @@ public class UserService {
             responseDto.setTemporaryPassword(rawPassword);
             sendWelcomeEmail(savedUser.getEmail(), rawPassword, savedUser.getName());
             
-            // Registrar log de auditoría
-            createAuditLog(String.format("Se agregó un usuario: %s (%s)", savedUser.getName(), savedUser.getEmail()), savedUser);
-            
             return ResponseEntity.status(HttpStatus.CREATED).body(
                 new ResponseObject("User created successfully", responseDto, TypeResponse.SUCCESS)
             );
@@ -219,6 +195,7 @@ public class UserService {
 
             // Store old email for notification
             String oldEmail = existingUser.getEmail();
+            Map<String, Object> before = auditSnapshot(existingUser);
 
             // Update user details
             existingUser.setName(userDto.getName());
@@ -259,7 +236,8 @@ public class UserService {
             UserDto responseDto = convertToDto(updatedUser);
 
             // Registrar log de auditoría
-            createAuditLog(String.format("Se actualizó el usuario: %s (%s)", updatedUser.getName(), updatedUser.getEmail()), updatedUser);
+            auditLogPublisher.publish(AuditAction.UPDATE, AuditEntityType.USER, updatedUser.getId(), updatedUser.getName(),
+                AuditChanges.diff(before, auditSnapshot(updatedUser)));
 
             return ResponseEntity.ok(
                 new ResponseObject("User updated successfully", responseDto, TypeResponse.SUCCESS)
@@ -341,7 +319,8 @@ public class UserService {
             userRepository.save(user);
 
             // Registrar log de auditoría
-            createAuditLog(String.format("Se eliminó el usuario: %s (%s)", user.getName(), user.getEmail()), user);
+            auditLogPublisher.publish(AuditAction.DELETE, AuditEntityType.USER, user.getId(), user.getName(),
+                AuditChanges.of("email", user.getEmail()));
 
             return ResponseEntity.ok(
                 new ResponseObject("User deleted successfully", null, TypeResponse.SUCCESS)
@@ -380,7 +359,8 @@ public class UserService {
             sendPasswordChangeConfirmation(currentUser);
 
             // Registrar log de auditoría
-            createAuditLog(String.format("Se cambió la contraseña del usuario: %s (%s)", currentUser.getName(), currentUser.getEmail()), currentUser);
+            auditLogPublisher.publish(AuditAction.PASSWORD_CHANGE, AuditEntityType.USER, currentUser.getId(), currentUser.getName(),
+                AuditChanges.of("email", currentUser.getEmail()), currentUser);
 
             return ResponseEntity.ok(
                 new ResponseObject("Password changed successfully", null, TypeResponse.SUCCESS)
@@ -408,9 +388,8 @@ public class UserService {
             sendUserStatusChangeNotification(updatedUser, oldStatus);
 
             // Registrar log de auditoría
-            String statusText = updatedUser.getStatus() ? "Activo" : "Inactivo";
-            createAuditLog(String.format("Se cambió el estado del usuario: %s (%s) a %s", 
-                updatedUser.getName(), updatedUser.getEmail(), statusText), updatedUser);
+            auditLogPublisher.publish(AuditAction.STATUS_CHANGE, AuditEntityType.USER, updatedUser.getId(), updatedUser.getName(),
+                AuditChanges.of("estado", AuditChanges.change(statusText(oldStatus), statusText(updatedUser.getStatus()))));
 
             return ResponseEntity.ok(
                 new ResponseObject("User status updated successfully", convertToDto(updatedUser), TypeResponse.SUCCESS)
@@ -455,6 +434,19 @@ public class UserService {
         }
     }
 
+    private static Map<String, Object> auditSnapshot(User user) {
+        return AuditChanges.of(
+            "nombre", user.getName(),
+            "email", user.getEmail(),
+            "puesto", user.getPosition(),
+            "telefono", user.getPhone(),
+            "rol", user.getRole() != null ? user.getRole().getName() : null);
+    }
+
+    private static String statusText(Boolean status) {
+        return Boolean.TRUE.equals(status) ? "Activo" : "Inactivo";
+    }
+
     // Method to delete user by email
     @Transactional
     public ResponseEntity<ResponseObject> deleteUserByEmail(String email) {
@@ -468,7 +460,8 @@ public class UserService {
             userRepository.saveAndFlush(user);
 
             // Registrar log de auditoría
-            createAuditLog(String.format("Se eliminó el usuario con email: %s", email), user);
+            auditLogPublisher.publish(AuditAction.DELETE, AuditEntityType.USER, user.getId(), user.getName(),
+                AuditChanges.of("email", email));
 
             return ResponseEntity.ok(
                 new ResponseObject("User deleted successfully", null, TypeResponse.SUCCESS)
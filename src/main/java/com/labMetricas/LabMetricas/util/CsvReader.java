@@ -0,0 +1,94 @@
+package com.labMetricas.LabMetricas.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector de registros CSV (RFC 4180) por streaming. A diferencia de leer línea por línea,
+ * un campo entre comillas puede contener separadores, comillas dobles escapadas ("") y saltos de línea.
+ * Las comillas sólo abren un campo al inicio del mismo; en medio de un campo sin comillas son literales.
+ */
+public class CsvReader implements Closeable {
+
+    private final BufferedReader reader;
+    private long lineNumber;
+    private long recordLineNumber;
+
+    public CsvReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Lee el siguiente registro, o null al final del archivo.
+     * Lanza IllegalArgumentException si un campo entre comillas no se cierra antes del final.
+     */
+    public List<String> readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        recordLineNumber = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        boolean fieldStart = true;
+
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (inQuotes) {
+                    if (c == '"') {
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            current.append('"');
+                            i++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"' && fieldStart) {
+                    inQuotes = true;
+                    fieldStart = false;
+                } else if (c == CsvUtils.SEPARATOR) {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                    fieldStart = true;
+                } else {
+                    current.append(c);
+                    fieldStart = false;
+                }
+            }
+            if (!inQuotes) {
+                break;
+            }
+            // El campo entre comillas continúa en la línea siguiente
+            line = reader.readLine();
+            if (line == null) {
+                throw new IllegalArgumentException(
+                    "Unterminated quoted field in record starting at line " + recordLineNumber);
+            }
+            lineNumber++;
+            current.append('\n');
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    /**
+     * Línea física (desde 1) en la que empieza el último registro leído.
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,44 @@
+package com.labMetricas.LabMetricas.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Utilidades mínimas de CSV (RFC 4180) para exportaciones por streaming; la lectura está en {@link CsvReader}.
+ * Los campos entre comillas pueden contener separadores, comillas dobles escapadas ("") y saltos de línea.
+ */
+public final class CsvUtils {
+    public static final char SEPARATOR = ',';
+
+    // Marca de orden de bytes: Excel la necesita para leer el CSV como UTF-8 (acentos)
+    public static final char UTF8_BOM = '\uFEFF';
+
+    private CsvUtils() {
+    }
+
+    public static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        boolean needsQuotes = text.indexOf(SEPARATOR) >= 0 || text.indexOf('"') >= 0
+            || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Escribe una fila completa (valores escapados, separados por coma y terminada en CRLF).
+     */
+    public static void writeRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            writer.write(escape(values[i]));
+        }
+        writer.write("\r\n");
+    }
+}
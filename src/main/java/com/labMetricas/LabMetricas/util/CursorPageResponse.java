@@ -0,0 +1,78 @@
+package com.labMetricas.LabMetricas.util;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Respuesta paginada por cursor (keyset). A diferencia de PageResponse no ejecuta COUNT(*):
+ * se pide un registro extra para saber si existe una página siguiente.
+ */
+public class CursorPageResponse<T> {
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private List<T> content;
+    private int pageSize;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public CursorPageResponse(List<T> content, int pageSize, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.pageSize = pageSize;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Construye la respuesta a partir de una consulta que pidió {@code pageSize + 1} filas.
+     */
+    public static <E, T> CursorPageResponse<T> of(List<E> rows, int pageSize,
+                                                 Function<E, KeysetCursor> cursorOf,
+                                                 Function<E, T> mapper) {
+        boolean hasNext = rows.size() > pageSize;
+        List<E> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext && !page.isEmpty()
+            ? cursorOf.apply(page.get(page.size() - 1)).encode()
+            : null;
+        return new CursorPageResponse<>(page.stream().map(mapper).toList(), pageSize, hasNext, nextCursor);
+    }
+
+    /**
+     * Normaliza el tamaño solicitado al rango permitido.
+     */
+    public static int normalizeSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // Getters and setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,56 @@
+package com.labMetricas.LabMetricas.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posición opaca dentro de un listado ordenado por (created_at DESC, id DESC).
+ * Se serializa como Base64 URL-safe para que el cliente solo la reenvíe en ?cursor=.
+ */
+public class KeysetCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final Integer id;
+
+    public KeysetCursor(LocalDateTime createdAt, Integer id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente. Un cursor vacío indica la primera página y devuelve null.
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                Integer.valueOf(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.labMetricas.LabMetricas.util;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Convierte parámetros ?sort=campo:asc,otro:desc en un Sort validado contra una lista blanca,
+ * para que el cliente no pueda ordenar por columnas sin índice ni por atributos inexistentes.
+ */
+public final class SortParser {
+
+    private SortParser() {
+    }
+
+    public static Sort parse(List<String> sortParams, Set<String> allowedProperties, Sort defaultSort) {
+        if (sortParams == null || sortParams.isEmpty()) {
+            return defaultSort;
+        }
+
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String param : sortParams) {
+            if (param == null || param.isBlank()) {
+                continue;
+            }
+            String[] parts = param.trim().split(":");
+            String property = parts[0].trim();
+            if (!allowedProperties.contains(property)) {
+                throw new IllegalArgumentException("Unsupported sort property: " + property);
+            }
+            Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromString(parts[1].trim())
+                : Sort.Direction.ASC;
+            orders.add(new Sort.Order(direction, property));
+        }
+
+        return orders.isEmpty() ? defaultSort : Sort.by(orders);
+    }
+}
@@ -7,6 +7,9 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.search.engine.backend.types.Aggregable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -19,13 +22,16 @@ import java.util.List;
 @Getter
 @Setter
 public class WarehouseType {
+    @GenericField
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @KeywordField(aggregable = Aggregable.YES)
     @Column(name = "code", nullable = false, unique = true, length = 10)
     private String code; // MPS, MES, MEM, MPM
 
+    @KeywordField
     @Column(name = "name", nullable = false, length = 100)
     private String name; // Nombre descriptivo del almacén
 
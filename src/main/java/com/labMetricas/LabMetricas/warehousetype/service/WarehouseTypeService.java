@@ -3,6 +3,7 @@ package com.labMetricas.LabMetricas.warehousetype.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.labMetricas.LabMetricas.product.service.ReferenceDataSnapshot;
 import com.labMetricas.LabMetricas.warehousetype.model.WarehouseType;
 import com.labMetricas.LabMetricas.warehousetype.repository.WarehouseTypeRepository;
 
@@ -16,6 +17,9 @@ public class WarehouseTypeService {
     @Autowired
     private WarehouseTypeRepository warehouseTypeRepository;
 
+    @Autowired
+    private ReferenceDataSnapshot referenceDataSnapshot;
+
     public List<WarehouseType> getAllWarehouseTypes() {
         return warehouseTypeRepository.findAll().stream()
             .filter(wt -> wt.getDeletedAt() == null)
@@ -33,12 +37,16 @@ public class WarehouseTypeService {
     public WarehouseType createWarehouseType(WarehouseType warehouseType) {
         warehouseType.setCreatedAt(LocalDateTime.now());
         warehouseType.setUpdatedAt(LocalDateTime.now());
-        return warehouseTypeRepository.save(warehouseType);
+        WarehouseType saved = warehouseTypeRepository.save(warehouseType);
+        referenceDataSnapshot.invalidate();
+        return saved;
     }
 
     public WarehouseType updateWarehouseType(WarehouseType warehouseType) {
         warehouseType.setUpdatedAt(LocalDateTime.now());
-        return warehouseTypeRepository.save(warehouseType);
+        WarehouseType saved = warehouseTypeRepository.save(warehouseType);
+        referenceDataSnapshot.invalidate();
+        return saved;
     }
 
     public void deleteWarehouseType(Integer id) {
@@ -47,6 +55,7 @@ public class WarehouseTypeService {
             WarehouseType wt = warehouseType.get();
             wt.setDeletedAt(LocalDateTime.now());
             warehouseTypeRepository.save(wt);
+            referenceDataSnapshot.invalidate();
         }
     }
 }
@@ -0,0 +1,68 @@
+package com.labMetricas.LabMetricas.auditLog.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditChangesTest {
+
+    @Test
+    void ofKeepsOrderAndAllowsNulls() {
+        Map<String, Object> values = AuditChanges.of("lote", "L1", "fabricante", null, "cantidad", 5);
+
+        assertEquals(List.of("lote", "fabricante", "cantidad"), List.copyOf(values.keySet()));
+        assertNull(values.get("fabricante"));
+        assertTrue(values.containsKey("fabricante"));
+    }
+
+    @Test
+    void ofRejectsAnOddNumberOfArguments() {
+        assertThrows(IllegalArgumentException.class, () -> AuditChanges.of("lote"));
+    }
+
+    @Test
+    void diffKeepsOnlyChangedFields() {
+        Map<String, Object> before = AuditChanges.of("nombre", "Agua", "lote", "L1", "fabricante", null);
+        Map<String, Object> after = AuditChanges.of("nombre", "Agua", "lote", "L2", "fabricante", "ACME");
+
+        Map<String, Object> diff = AuditChanges.diff(before, after);
+
+        assertEquals(List.of("lote", "fabricante"), List.copyOf(diff.keySet()));
+        assertEquals(AuditChanges.change("L1", "L2"), diff.get("lote"));
+        assertEquals(AuditChanges.change(null, "ACME"), diff.get("fabricante"));
+    }
+
+    @Test
+    void diffReportsFieldsOnlyPresentOnOneSide() {
+        Map<String, Object> diff = AuditChanges.diff(
+            AuditChanges.of("estado", "Activo"),
+            AuditChanges.of("catalogo", "Reactivos", "vacio", null));
+
+        assertEquals(AuditChanges.change("Activo", null), diff.get("estado"));
+        assertEquals(AuditChanges.change(null, "Reactivos"), diff.get("catalogo"));
+        assertFalse(diff.containsKey("vacio"));
+    }
+
+    @Test
+    void diffOfEqualSnapshotsIsEmpty() {
+        Map<String, Object> snapshot = AuditChanges.of("nombre", "Agua", "cantidad", 3);
+
+        assertTrue(AuditChanges.diff(snapshot, AuditChanges.of("nombre", "Agua", "cantidad", 3)).isEmpty());
+    }
+
+    @Test
+    void isChangeRecognisesOnlyBeforeAfterPairs() {
+        assertTrue(AuditChanges.isChange(AuditChanges.change(1, 2)));
+        assertTrue(AuditChanges.isChange(Map.of(AuditChanges.BEFORE, 1, AuditChanges.AFTER, 2)));
+        assertFalse(AuditChanges.isChange(Map.of(AuditChanges.BEFORE, 1)));
+        assertFalse(AuditChanges.isChange("L1"));
+        assertFalse(AuditChanges.isChange(null));
+    }
+}
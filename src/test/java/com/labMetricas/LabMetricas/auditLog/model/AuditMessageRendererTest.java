@@ -0,0 +1,49 @@
+package com.labMetricas.LabMetricas.auditLog.model;
+
+import com.labMetricas.LabMetricas.enums.AuditAction;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AuditMessageRendererTest {
+
+    @Test
+    void rendersChangesInTheLegacyMessageFormat() {
+        Map<String, Object> changes = AuditChanges.of(
+            "lote", AuditChanges.change("A", "B"),
+            "fabricante", AuditChanges.change(null, "ACME"));
+
+        String message = AuditMessageRenderer.render(AuditAction.UPDATE, AuditEntityType.PRODUCT, "42", "Paracetamol",
+            changes, "Ana");
+
+        assertEquals("MODIFICACIÓN DE PRODUCTO - Usuario: Ana | Producto: Paracetamol (ID: 42)"
+            + " | lote: A -> B | fabricante: N/A -> ACME", message);
+    }
+
+    @Test
+    void rendersPlainDetailsAndMissingLabel() {
+        String message = AuditMessageRenderer.render(AuditAction.DISCOUNT, AuditEntityType.PRODUCT, "7", null,
+            AuditChanges.of("descuento", 3), null);
+
+        assertEquals("DESCUENTO DE PRODUCTO - Usuario: ANONYMOUS | Producto: N/A (ID: 7) | descuento: 3", message);
+    }
+
+    @Test
+    void rendersEveryEntityAndActionWithoutFailing() {
+        for (AuditEntityType entityType : AuditEntityType.values()) {
+            for (AuditAction action : AuditAction.values()) {
+                AuditMessageRenderer.render(action, entityType, "1", "x", null, "Ana");
+            }
+        }
+    }
+
+    @Test
+    void missingTypesFallBackToGenericNames() {
+        String message = AuditMessageRenderer.render(null, null, null, null, null, "Ana");
+
+        assertEquals("ACCIÓN DE ENTIDAD - Usuario: Ana", message);
+    }
+}
@@ -0,0 +1,43 @@
+package com.labMetricas.LabMetricas.auditLog.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AuditLogPartitionManagerTest {
+
+    @Test
+    void partitionNameIsZeroPadded() {
+        assertEquals("audit_logs_y2025m03", AuditLogPartitionManager.partitionName(YearMonth.of(2025, 3)));
+        assertEquals("audit_logs_y2025m12", AuditLogPartitionManager.partitionName(YearMonth.of(2025, 12)));
+    }
+
+    @Test
+    void parseIsTheInverseOfPartitionName() {
+        YearMonth month = YearMonth.of(2024, 2);
+
+        AuditLogPartitionManager.AuditLogPartition partition =
+            AuditLogPartitionManager.parse(AuditLogPartitionManager.partitionName(month));
+
+        assertEquals(month, partition.month());
+        assertEquals("audit_logs_y2024m02", partition.name());
+    }
+
+    @Test
+    void parseIgnoresTablesThatAreNotMonthlyPartitions() {
+        assertNull(AuditLogPartitionManager.parse("audit_logs"));
+        assertNull(AuditLogPartitionManager.parse("audit_logs_default"));
+        assertNull(AuditLogPartitionManager.parse("audit_logs_y2024m2"));
+        assertNull(AuditLogPartitionManager.parse("audit_logs_y2024m02_old"));
+    }
+
+    @Test
+    void partitionCoversExactlyOneMonthAcrossYearEnd() {
+        assertEquals("CREATE TABLE IF NOT EXISTS audit_logs_y2024m12 PARTITION OF audit_logs"
+                + " FOR VALUES FROM ('2024-12-01') TO ('2025-01-01')",
+            AuditLogPartitionManager.createPartitionSql(YearMonth.of(2024, 12)));
+    }
+}
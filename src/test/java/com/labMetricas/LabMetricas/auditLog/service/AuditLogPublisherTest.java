@@ -0,0 +1,90 @@
+package com.labMetricas.LabMetricas.auditLog.service;
+
+import com.labMetricas.LabMetricas.auditLog.model.AuditEvent;
+import com.labMetricas.LabMetricas.auditLog.repository.AuditLogJdbcRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AuditLogPublisherTest {
+
+    private PlatformTransactionManager transactionManager;
+    private AuditLogJdbcRepository repository;
+    private AuditLogPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        repository = mock(AuditLogJdbcRepository.class);
+        // Sin start(): el escritor no corre, así que cada evento se escribe por el camino de respaldo
+        publisher = new AuditLogPublisher(1, 10, 1, transactionManager);
+        ReflectionTestUtils.setField(publisher, "auditLogJdbcRepository", repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void synchronousFallbackWritesInItsOwnTransaction() {
+        AuditEvent event = new AuditEvent("test", null, null, LocalDateTime.now());
+
+        publisher.publish(event);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        verify(repository).insertBatch(List.of(event));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void eventsPublishedInsideATransactionWaitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        AuditEvent event = new AuditEvent("test", null, null, LocalDateTime.now());
+
+        publisher.publish(event);
+        verifyNoInteractions(repository);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        verify(repository).insertBatch(List.of(event));
+    }
+
+    @Test
+    void currentActorFallsBackToEmailWhenPrincipalIsNotAUser() {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken("ana@example.com", null, List.of()));
+
+        AuditEvent event = AuditLogPublisher.withCurrentActor(new AuditEvent("test", null, null, LocalDateTime.now()));
+
+        assertNull(event.userId());
+        assertEquals("ana@example.com", event.userEmail());
+    }
+}
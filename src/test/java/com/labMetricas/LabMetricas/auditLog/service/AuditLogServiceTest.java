@@ -0,0 +1,115 @@
+package com.labMetricas.LabMetricas.auditLog.service;
+
+import com.labMetricas.LabMetricas.auditLog.model.AuditLog;
+import com.labMetricas.LabMetricas.auditLog.model.dto.AuditLogDto;
+import com.labMetricas.LabMetricas.auditLog.model.dto.AuditLogFilterDto;
+import com.labMetricas.LabMetricas.auditLog.repository.AuditLogRepository;
+import com.labMetricas.LabMetricas.enums.AuditEntityType;
+import com.labMetricas.LabMetricas.util.CursorPageResponse;
+import com.labMetricas.LabMetricas.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AuditLogServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private AuditLogRepository repository;
+    private AuditLogService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AuditLogRepository.class);
+        service = new AuditLogService();
+        ReflectionTestUtils.setField(service, "auditLogRepository", repository);
+    }
+
+    @Test
+    void cursorModeAppliesTheFilterAndAsksForOneExtraRow() {
+        AuditLogFilterDto filter = new AuditLogFilterDto();
+        filter.setEntityType(AuditEntityType.PRODUCT);
+        KeysetCursor after = new KeysetCursor(NOW, 100);
+        when(repository.findKeysetPage(eq(filter), any(KeysetCursor.class), eq(3)))
+            .thenReturn(List.of(log(99, NOW), log(98, NOW), log(97, NOW.minusMinutes(1))));
+
+        CursorPageResponse<AuditLogDto> page = service.getLogsByCursor(after.encode(), 2, filter);
+
+        ArgumentCaptor<KeysetCursor> cursor = ArgumentCaptor.forClass(KeysetCursor.class);
+        verify(repository).findKeysetPage(eq(filter), cursor.capture(), eq(3));
+        assertEquals(NOW, cursor.getValue().getCreatedAt());
+        assertEquals(100, cursor.getValue().getId());
+        assertEquals(2, page.getContent().size());
+        assertTrue(page.isHasNext());
+        assertEquals(98, KeysetCursor.decode(page.getNextCursor()).getId());
+    }
+
+    @Test
+    void emptyCursorStartsFromTheFirstPage() {
+        when(repository.findKeysetPage(any(), any(), anyInt())).thenReturn(List.of(log(1, NOW)));
+
+        CursorPageResponse<AuditLogDto> page = service.getLogsByCursor("", 20, null);
+
+        verify(repository).findKeysetPage(null, null, 21);
+        assertEquals(1, page.getContent().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void invalidCursorIsRejectedBeforeQuerying() {
+        assertThrows(IllegalArgumentException.class, () -> service.getLogsByCursor("bogus", 20, null));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void logsByUserAreFilteredAndPaginated() {
+        UUID userId = UUID.randomUUID();
+        when(repository.findPage(any(), any())).thenReturn(Page.empty());
+
+        service.getLogsByUserId(userId, 2, 50);
+        service.getLogsByUserEmail("ana@example.com", 0, 10);
+
+        ArgumentCaptor<AuditLogFilterDto> filter = ArgumentCaptor.forClass(AuditLogFilterDto.class);
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(repository, times(2)).findPage(filter.capture(), pageable.capture());
+        assertSame(userId, filter.getAllValues().get(0).getUserId());
+        assertEquals(2, pageable.getAllValues().get(0).getPageNumber());
+        assertEquals(50, pageable.getAllValues().get(0).getPageSize());
+        assertEquals("ana@example.com", filter.getAllValues().get(1).getUserEmail());
+    }
+
+    @Test
+    void logsByUserRejectOversizedPages() {
+        assertThrows(IllegalArgumentException.class, () -> service.getLogsByUserEmail("ana@example.com", 0, 1000));
+        verifyNoInteractions(repository);
+    }
+
+    private static AuditLog log(Integer id, LocalDateTime createdAt) {
+        AuditLog log = new AuditLog();
+        log.setId(id);
+        log.setCreatedAt(createdAt);
+        log.setAction("Acción " + id);
+        return log;
+    }
+}
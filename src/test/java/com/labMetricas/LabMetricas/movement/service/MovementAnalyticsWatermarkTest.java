@@ -0,0 +1,151 @@
+package com.labMetricas.LabMetricas.movement.service;
+
+import com.labMetricas.LabMetricas.catalogue.model.StockCatalogue;
+import com.labMetricas.LabMetricas.catalogue.repository.StockCatalogueRepository;
+import com.labMetricas.LabMetricas.movement.model.dto.MovementAnalyticsPointDto;
+import com.labMetricas.LabMetricas.product.model.dto.CreateProductDto;
+import com.labMetricas.LabMetricas.product.service.ProductService;
+import com.labMetricas.LabMetricas.scheduler.model.ScheduledJobState;
+import com.labMetricas.LabMetricas.scheduler.repository.ScheduledJobStateRepository;
+import com.labMetricas.LabMetricas.scheduler.service.MovementRollupJob;
+import com.labMetricas.LabMetricas.status.model.ProductStatus;
+import com.labMetricas.LabMetricas.status.repository.ProductStatusRepository;
+import com.labMetricas.LabMetricas.user.model.User;
+import com.labMetricas.LabMetricas.user.repository.UserRepository;
+import com.labMetricas.LabMetricas.util.ResponseObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La marca de agua avanza entre dos lecturas de la analítica: los totales no deben cambiar.
+ * Con la marca leída en una sentencia aparte de la agregación, un refresco confirmado en medio
+ * hacía que la cola en vivo volviera a sumar los movimientos ya incluidos en los totales diarios.
+ * Requiere PostgreSQL: se ejecuta sólo si TEST_DATABASE_URL está definida.
+ */
+@SpringBootTest(properties = {
+    "DATABASE_URL=${TEST_DATABASE_URL}",
+    "DATABASE_USERNAME=${TEST_DATABASE_USERNAME:postgres}",
+    "DATABASE_PASSWORD=${TEST_DATABASE_PASSWORD:postgres}",
+    "JWT_SECRET=0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef",
+    "RESEND_API_KEY=test",
+    "FRONTEND_URL=http://localhost",
+    "SEARCH_INDEX_DIR=target/test-data/search-index",
+    "QR_IMAGE_CACHE_DIR=target/test-data/qr-images",
+    "AUDIT_ARCHIVE_DIR=target/test-data/audit-archive",
+    // El refresco sólo corre cuando lo invoca el test, y sin retraso sobre los movimientos nuevos
+    "MOVEMENT_ROLLUP_INTERVAL_MS=86400000",
+    "MOVEMENT_ROLLUP_LAG_SECONDS=0"
+})
+@ActiveProfiles("prod")
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class MovementAnalyticsWatermarkTest {
+
+    @Autowired
+    private MovementAnalyticsService movementAnalyticsService;
+
+    @Autowired
+    private MovementRollupJob movementRollupJob;
+
+    @Autowired
+    private ScheduledJobStateRepository scheduledJobStateRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductStatusRepository productStatusRepository;
+
+    @Autowired
+    private StockCatalogueRepository stockCatalogueRepository;
+
+    private Integer stockCatalogueId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.findAllWithRoles().stream()
+            .filter(u -> Boolean.TRUE.equals(u.getStatus()))
+            .findFirst()
+            .orElseThrow();
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        StockCatalogue catalogue = stockCatalogueRepository.findByStatusTrue().stream().findFirst().orElseThrow();
+        ProductStatus status = productStatusRepository.findAll().stream().findFirst().orElseThrow();
+        stockCatalogueId = catalogue.getId();
+
+        // Deja todo lo anterior en los totales diarios; el alta siguiente queda en la cola en vivo
+        movementRollupJob.run();
+        assertEquals(HttpStatus.CREATED, productService.createProduct(newProduct(status.getId())).getStatusCode());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void totalsDoNotChangeWhenTheWatermarkMovesBetweenReads() {
+        LocalDate today = LocalDate.now();
+        long watermarkBefore = watermark();
+        List<MovementAnalyticsPointDto> before = points(today);
+
+        movementRollupJob.run();
+
+        assertTrue(watermark() > watermarkBefore, "el refresco debe avanzar la marca de agua");
+        List<MovementAnalyticsPointDto> after = points(today);
+        assertEquals(summary(before), summary(after));
+    }
+
+    private long watermark() {
+        return scheduledJobStateRepository.findById(MovementRollupJob.JOB_NAME)
+            .map(ScheduledJobState::getIdWatermark)
+            .orElse(0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MovementAnalyticsPointDto> points(LocalDate day) {
+        ResponseEntity<ResponseObject> response = movementAnalyticsService.getAnalytics("day", day, day, stockCatalogueId);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return (List<MovementAnalyticsPointDto>) response.getBody().getData();
+    }
+
+    private static List<String> summary(List<MovementAnalyticsPointDto> points) {
+        return points.stream()
+            .map(p -> p.getPeriodo() + "|" + p.getTipo() + "|" + p.getMovimientos() + "|"
+                + (p.getCantidad() != null ? p.getCantidad().stripTrailingZeros().toPlainString() : BigDecimal.ZERO))
+            .toList();
+    }
+
+    private CreateProductDto newProduct(Integer productStatusId) {
+        CreateProductDto dto = new CreateProductDto();
+        dto.setStockCatalogueId(stockCatalogueId);
+        dto.setProductStatusId(productStatusId);
+        dto.setNombre("Producto de prueba");
+        dto.setLote("T-" + UUID.randomUUID().toString().substring(0, 8));
+        dto.setLoteProveedor("LP-TEST");
+        dto.setFechaIngreso(LocalDate.now());
+        dto.setNumeroContenedores(1);
+        dto.setCantidadTotal(10);
+        return dto;
+    }
+}
@@ -0,0 +1,51 @@
+package com.labMetricas.LabMetricas.product.service;
+
+import com.labMetricas.LabMetricas.product.model.dto.ProductResponseDto;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductDetailCacheTest {
+
+    private final ProductDetailCache cache = new ProductDetailCache(100, 10);
+
+    @Test
+    void putWithCurrentGenerationIsStored() {
+        ProductResponseDto dto = product(1, "ab".repeat(32));
+
+        cache.put(dto, cache.generation());
+
+        assertSame(dto, cache.getById(1).orElseThrow());
+        assertSame(dto, cache.getByQrHash("ab".repeat(32)).orElseThrow());
+    }
+
+    @Test
+    void putReadBeforeAnEvictionIsDiscarded() {
+        long readGeneration = cache.generation();
+        // La escritura confirma y elimina mientras la lectura todavía tiene el estado anterior
+        cache.evict(1);
+
+        cache.put(product(1, "cd".repeat(32)), readGeneration);
+
+        assertTrue(cache.getById(1).isEmpty());
+        assertTrue(cache.getByQrHash("cd".repeat(32)).isEmpty());
+    }
+
+    @Test
+    void evictRemovesBothEntries() {
+        cache.put(product(2, "ef".repeat(32)), cache.generation());
+
+        cache.evict(2);
+
+        assertTrue(cache.getById(2).isEmpty());
+        assertTrue(cache.getByQrHash("ef".repeat(32)).isEmpty());
+    }
+
+    private static ProductResponseDto product(Integer id, String qrHash) {
+        ProductResponseDto dto = new ProductResponseDto();
+        dto.setId(id);
+        dto.setQrHash(qrHash);
+        return dto;
+    }
+}
@@ -0,0 +1,225 @@
+package com.labMetricas.LabMetricas.product.service;
+
+import com.labMetricas.LabMetricas.catalogue.model.StockCatalogue;
+import com.labMetricas.LabMetricas.catalogue.repository.StockCatalogueRepository;
+import com.labMetricas.LabMetricas.product.model.dto.CreateProductDiscountDto;
+import com.labMetricas.LabMetricas.product.model.dto.CreateProductDto;
+import com.labMetricas.LabMetricas.status.model.ProductStatus;
+import com.labMetricas.LabMetricas.status.repository.ProductStatusRepository;
+import com.labMetricas.LabMetricas.user.model.User;
+import com.labMetricas.LabMetricas.user.repository.UserRepository;
+import com.labMetricas.LabMetricas.util.ResponseObject;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cuenta las sentencias SQL que emiten el alta de producto y el descuento.
+ * Las sentencias de JdbcTemplate no pasan por las estadísticas de Hibernate,
+ * así que además se cuentan en el DataSource (sólo las del hilo del test;
+ * el escritor de auditoría corre en su propio hilo).
+ * Requiere PostgreSQL: se ejecuta sólo si TEST_DATABASE_URL está definida.
+ */
+@SpringBootTest(properties = {
+    "DATABASE_URL=${TEST_DATABASE_URL}",
+    "DATABASE_USERNAME=${TEST_DATABASE_USERNAME:postgres}",
+    "DATABASE_PASSWORD=${TEST_DATABASE_PASSWORD:postgres}",
+    "JWT_SECRET=0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef",
+    "RESEND_API_KEY=test",
+    "FRONTEND_URL=http://localhost",
+    "SEARCH_INDEX_DIR=target/test-data/search-index",
+    "QR_IMAGE_CACHE_DIR=target/test-data/qr-images",
+    "AUDIT_ARCHIVE_DIR=target/test-data/audit-archive",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("prod")
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class ProductWriteStatementCountTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductStatusRepository productStatusRepository;
+
+    @Autowired
+    private StockCatalogueRepository stockCatalogueRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Integer stockCatalogueId;
+    private Integer productStatusId;
+    private Integer productId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User user = userRepository.findAllWithRoles().stream()
+            .filter(u -> Boolean.TRUE.equals(u.getStatus()))
+            .findFirst()
+            .orElseThrow();
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        StockCatalogue catalogue = stockCatalogueRepository.findByStatusTrue().stream().findFirst().orElseThrow();
+        ProductStatus status = productStatusRepository.findAll().stream().findFirst().orElseThrow();
+        stockCatalogueId = catalogue.getId();
+        productStatusId = status.getId();
+
+        // Primera alta: calienta la copia en memoria de los catálogos de referencia
+        productId = createdProductId(productService.createProduct(newProduct()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        StatementCounter.stop();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createProductIssuesOneWriteStatementAndOneIndexRead() {
+        statistics.clear();
+        StatementCounter.start();
+
+        ResponseEntity<ResponseObject> response = productService.createProduct(newProduct());
+
+        int statements = StatementCounter.stop();
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        // CTE de alta + lectura para el índice de búsqueda
+        assertTrue(statements <= 3, "sentencias JDBC: " + statements);
+        assertTrue(statistics.getPrepareStatementCount() <= 1,
+            "sentencias ORM: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void applyDiscountIssuesUserLookupAndOneWriteStatement() {
+        CreateProductDiscountDto discount = new CreateProductDiscountDto(1, "Prueba de sentencias");
+        statistics.clear();
+        StatementCounter.start();
+
+        ResponseEntity<ResponseObject> response = productService.createProductDiscount(productId, discount);
+
+        int statements = StatementCounter.stop();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        // Búsqueda del usuario + CTE de descuento
+        assertTrue(statements <= 2, "sentencias JDBC: " + statements);
+    }
+
+    private CreateProductDto newProduct() {
+        CreateProductDto dto = new CreateProductDto();
+        dto.setStockCatalogueId(stockCatalogueId);
+        dto.setProductStatusId(productStatusId);
+        dto.setNombre("Producto de prueba");
+        dto.setLote("T-" + UUID.randomUUID().toString().substring(0, 8));
+        dto.setLoteProveedor("LP-TEST");
+        dto.setFechaIngreso(LocalDate.now());
+        dto.setNumeroContenedores(1);
+        dto.setCantidadTotal(10);
+        return dto;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Integer createdProductId(ResponseEntity<ResponseObject> response) {
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return (Integer) ((Map<String, Object>) response.getBody().getData()).get("productId");
+    }
+
+    /**
+     * Cuenta prepareStatement/prepareCall/createStatement de las conexiones
+     * obtenidas por el hilo que inició la medición.
+     */
+    static final class StatementCounter {
+
+        private static final AtomicInteger COUNT = new AtomicInteger();
+        private static volatile Thread target;
+
+        static void start() {
+            COUNT.set(0);
+            target = Thread.currentThread();
+        }
+
+        static int stop() {
+            target = null;
+            return COUNT.get();
+        }
+
+        static Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                StatementCounter.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (Thread.currentThread() == target
+                        && (name.startsWith("prepare") || name.equals("createStatement"))) {
+                        COUNT.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return StatementCounter.wrap(super.getConnection());
+                        }
+
+                        @Override
+                        public Connection getConnection(String username, String password) throws SQLException {
+                            return StatementCounter.wrap(super.getConnection(username, password));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
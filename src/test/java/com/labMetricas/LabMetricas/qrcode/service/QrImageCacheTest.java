@@ -0,0 +1,105 @@
+package com.labMetricas.LabMetricas.qrcode.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QrImageCacheTest {
+
+    private static final String HASH = "AB".repeat(32);
+    private static final String DEFAULT_VARIANT = QrCodeService.RenderOptions.DEFAULT.variant();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keyNormalizesHexHashAndIncludesVariant() {
+        QrImageCache cache = new QrImageCache(1024, directory.toString(), Set.of());
+
+        String key = cache.key(HASH, DEFAULT_VARIANT);
+
+        assertEquals(cache.key(HASH.toLowerCase(), DEFAULT_VARIANT), key);
+        assertTrue(key.startsWith("ab".repeat(32) + "-" + DEFAULT_VARIANT + "-"));
+        assertEquals("\"" + key + "\"", cache.etag(HASH, DEFAULT_VARIANT));
+    }
+
+    @Test
+    void legacyHashesGetAFileSafeKey() {
+        QrImageCache cache = new QrImageCache(1024, directory.toString(), Set.of());
+
+        String key = cache.key("../legacy/qr", DEFAULT_VARIANT);
+
+        assertFalse(key.contains("/"));
+        assertFalse(key.contains(".."));
+    }
+
+    @Test
+    void onlyTheDefaultVariantIsWrittenToDisk() throws IOException {
+        QrImageCache cache = new QrImageCache(1024, directory.toString(), Set.of());
+        AtomicInteger renders = new AtomicInteger();
+
+        cache.get(HASH, DEFAULT_VARIANT, "png", () -> render(renders));
+        cache.get(HASH, "png-s512-m0-L", "png", () -> render(renders));
+
+        assertEquals(2, renders.get());
+        assertEquals(1, fileCount());
+        assertTrue(Files.exists(directory.resolve(cache.key(HASH, DEFAULT_VARIANT) + ".png")));
+    }
+
+    @Test
+    void configuredVariantsArePersistedToo() throws IOException {
+        QrImageCache cache = new QrImageCache(1024, directory.toString(), Set.of("svg-s300-m1-H"));
+
+        cache.get(HASH, "svg-s300-m1-H", "svg", () -> new byte[]{1});
+        cache.get(HASH, DEFAULT_VARIANT, "png", () -> new byte[]{2});
+
+        assertTrue(cache.persistsToDisk("svg-s300-m1-H"));
+        assertFalse(cache.persistsToDisk(DEFAULT_VARIANT));
+        assertEquals(1, fileCount());
+    }
+
+    @Test
+    void persistedImagesAreReadBackAfterARestart() {
+        AtomicInteger renders = new AtomicInteger();
+        new QrImageCache(1024, directory.toString(), Set.of()).get(HASH, DEFAULT_VARIANT, "png", () -> render(renders));
+
+        QrImageCache.QrImage image = new QrImageCache(1024, directory.toString(), Set.of())
+            .get(HASH, DEFAULT_VARIANT, "png", () -> render(renders));
+
+        assertEquals(1, renders.get());
+        assertEquals(3, image.bytes().length);
+    }
+
+    @Test
+    void ifNoneMatchParsesTheListInsteadOfSubstrings() {
+        String etag = "\"abc-png-s300-m1-H-v2\"";
+
+        assertTrue(QrImageCache.matchesIfNoneMatch(etag, etag));
+        assertTrue(QrImageCache.matchesIfNoneMatch("\"other\", W/" + etag, etag));
+        assertTrue(QrImageCache.matchesIfNoneMatch("*", etag));
+        assertFalse(QrImageCache.matchesIfNoneMatch(null, etag));
+        assertFalse(QrImageCache.matchesIfNoneMatch("\"xabc-png-s300-m1-H-v2\"", etag));
+        assertFalse(QrImageCache.matchesIfNoneMatch("\"abc-png-s300-m1-H-v2\"x", etag));
+    }
+
+    private static byte[] render(AtomicInteger renders) {
+        renders.incrementAndGet();
+        return new byte[]{1, 2, 3};
+    }
+
+    private long fileCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.labMetricas.LabMetricas.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    @Test
+    void readsPlainAndQuotedFields() throws IOException {
+        CsvReader reader = reader("a,\"b,c\",\"d \"\"e\"\"\",\n");
+
+        assertEquals(List.of("a", "b,c", "d \"e\"", ""), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void quotedFieldsMaySpanLines() throws IOException {
+        CsvReader reader = reader("lote,nombre\r\nL1,\"Reactivo\nconcentrado\"\r\nL2,Agua\r\n");
+
+        assertEquals(List.of("lote", "nombre"), reader.readRecord());
+        assertEquals(List.of("L1", "Reactivo\nconcentrado"), reader.readRecord());
+        assertEquals(2, reader.getRecordLineNumber());
+        assertEquals(List.of("L2", "Agua"), reader.readRecord());
+        assertEquals(4, reader.getRecordLineNumber());
+    }
+
+    @Test
+    void quotesInsideAnUnquotedFieldAreLiteral() throws IOException {
+        CsvReader reader = reader("12\" tubo,x\n");
+
+        assertEquals(List.of("12\" tubo", "x"), reader.readRecord());
+    }
+
+    @Test
+    void unterminatedQuotedFieldIsRejected() throws IOException {
+        CsvReader reader = reader("ok,1\n\"sin cerrar,2\nmas,3\n");
+        reader.readRecord();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::readRecord);
+        assertEquals("Unterminated quoted field in record starting at line 2", e.getMessage());
+    }
+
+    @Test
+    void readsBackWhatCsvUtilsWrites() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvUtils.writeRow(out, "a,b", "comillas \"x\"", "dos\nlíneas", null, 7);
+
+        assertEquals(List.of("a,b", "comillas \"x\"", "dos\nlíneas", "", "7"), reader(out.toString()).readRecord());
+    }
+
+    private static CsvReader reader(String content) {
+        return new CsvReader(new BufferedReader(new StringReader(content)));
+    }
+}
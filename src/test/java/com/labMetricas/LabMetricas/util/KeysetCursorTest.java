@@ -0,0 +1,48 @@
+package com.labMetricas.LabMetricas.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000);
+
+        KeysetCursor decoded = KeysetCursor.decode(new KeysetCursor(createdAt, 42).encode());
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(42, decoded.getId());
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String token = new KeysetCursor(LocalDateTime.of(2025, 1, 1, 0, 0), Integer.MAX_VALUE).encode();
+
+        assertFalse(token.contains("+") || token.contains("/") || token.contains("="));
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode("  "));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encode("2025-01-01T00:00")));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encode("yesterday|5")));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encode("2025-01-01T00:00|x")));
+    }
+
+    private static String encode(String raw) {
+        return java.util.Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes());
+    }
+}